@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor;
+
+import com.jcabi.log.Logger;
+import com.jcabi.xml.XML;
+import com.rultor.spi.Talk;
+import com.rultor.spi.Talks;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Backlog of active talks, ordered by their urgency.
+ *
+ * <p>Talks with a pending request and no daemon go first, then talks
+ * with a daemon that may have ended, then idle talks that have
+ * something to do later, and then all others. Every talk remembers when
+ * it was processed last time; each {@link #AGING} of waiting promotes it
+ * by one level of urgency, so no talk starves forever, even when there
+ * are more active talks than we can process in one cycle.</p>
+ *
+ * <p>The XML of the talks is not read here: it has to be read by the
+ * caller, preferably in one batch (see {@link Talks#read(Iterable)}), and
+ * the same XML is supposed to be used later, when the talks are
+ * processed.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+final class Backlog {
+
+    /**
+     * How long a talk has to wait to get promoted by one level, in msec.
+     */
+    private static final long AGING = TimeUnit.MINUTES.toMillis(1L);
+
+    /**
+     * Levels of urgency, from the most urgent to the least one.
+     */
+    private static final String[] LEVELS = {
+        "/talk[request and not(daemon)]",
+        "/talk/daemon",
+        "/talk[@later='true']",
+    };
+
+    /**
+     * Names of talks and moments when they started to wait.
+     */
+    private final transient Map<String, Long> since;
+
+    /**
+     * Names of talks and numbers of cycles when they were selected.
+     */
+    private final transient Map<String, Long> served;
+
+    /**
+     * Number of the current cycle.
+     */
+    private final transient AtomicLong cycle;
+
+    /**
+     * Talks left in the backlog after the most recent selection.
+     */
+    private final transient AtomicInteger left;
+
+    /**
+     * Longest wait seen at the most recent selection, in msec.
+     */
+    private final transient AtomicLong longest;
+
+    /**
+     * Ctor.
+     */
+    Backlog() {
+        this.since = new ConcurrentHashMap<>(0);
+        this.served = new ConcurrentHashMap<>(0);
+        this.cycle = new AtomicLong();
+        this.left = new AtomicInteger();
+        this.longest = new AtomicLong();
+    }
+
+    /**
+     * Select the most urgent talks to be processed now.
+     * @param active All active talks
+     * @param bodies XML of them, by names (talks without XML go last)
+     * @param max Maximum amount of talks to select
+     * @return Selected talks, the most urgent first
+     * @throws IOException If fails
+     */
+    public List<Talk> next(final Iterable<Talk> active,
+        final Map<String, XML> bodies, final int max) throws IOException {
+        final long now = System.currentTimeMillis();
+        final long current = this.cycle.incrementAndGet();
+        final List<Backlog.Entry> entries = new ArrayList<>(0);
+        final Collection<String> names = new HashSet<>(0);
+        long oldest = 0L;
+        for (final Talk talk : active) {
+            final String name = talk.name();
+            names.add(name);
+            final long wait = now - this.since.computeIfAbsent(
+                name, key -> now
+            );
+            oldest = Math.max(oldest, wait);
+            entries.add(
+                new Backlog.Entry(
+                    talk, Backlog.level(bodies.get(name)) - wait / Backlog.AGING,
+                    wait, this.served.getOrDefault(name, 0L)
+                )
+            );
+        }
+        this.since.keySet().retainAll(names);
+        this.served.keySet().retainAll(names);
+        entries.sort(
+            Comparator.comparingLong((Backlog.Entry ent) -> ent.score)
+                .thenComparingLong(ent -> -ent.wait)
+                .thenComparingLong(ent -> ent.last)
+        );
+        final List<Talk> selected = new ArrayList<>(max);
+        for (final Backlog.Entry entry : entries) {
+            if (selected.size() >= max) {
+                break;
+            }
+            selected.add(entry.talk);
+            this.since.put(entry.talk.name(), now);
+            this.served.put(entry.talk.name(), current);
+        }
+        this.left.set(entries.size() - selected.size());
+        this.longest.set(oldest);
+        if (this.left.get() > 0) {
+            Logger.info(
+                this, "%d talks left in the backlog, the oldest waits %[ms]s",
+                this.left.get(), oldest
+            );
+        }
+        return selected;
+    }
+
+    /**
+     * How many talks were left waiting after the most recent selection.
+     * @return Total talks
+     */
+    public int depth() {
+        return this.left.get();
+    }
+
+    /**
+     * The longest time a talk was waiting, at the most recent selection.
+     * @return Milliseconds
+     */
+    public long oldest() {
+        return this.longest.get();
+    }
+
+    /**
+     * Level of urgency of the talk, zero is the most urgent.
+     * @param xml XML of the talk or NULL if it's absent
+     * @return Level
+     */
+    private static int level(final XML xml) {
+        int level = 0;
+        if (xml == null) {
+            level = Backlog.LEVELS.length;
+        }
+        while (level < Backlog.LEVELS.length
+            && xml.nodes(Backlog.LEVELS[level]).isEmpty()) {
+            ++level;
+        }
+        return level;
+    }
+
+    /**
+     * Entry of the backlog.
+     */
+    private static final class Entry {
+        /**
+         * The talk.
+         */
+        private final Talk talk;
+        /**
+         * Score, the lower the more urgent.
+         */
+        private final long score;
+        /**
+         * How long it is waiting, in msec.
+         */
+        private final long wait;
+        /**
+         * Cycle when it was selected last time, zero if never.
+         */
+        private final long last;
+        /**
+         * Ctor.
+         * @param tlk The talk
+         * @param scr Score
+         * @param msec Waiting time
+         * @param cycle Cycle when it was selected last time
+         * @checkstyle ParameterNumberCheck (3 lines)
+         */
+        Entry(final Talk tlk, final long scr, final long msec,
+            final long cycle) {
+            this.talk = tlk;
+            this.score = scr;
+            this.wait = msec;
+            this.last = cycle;
+        }
+    }
+
+}
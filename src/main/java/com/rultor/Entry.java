@@ -45,20 +45,36 @@ import com.jcabi.github.RtGithub;
 import com.jcabi.github.mock.MkGithub;
 import com.jcabi.github.wire.RetryCarefulWire;
 import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseRunnable;
+import com.jcabi.log.VerboseThreads;
 import com.jcabi.manifests.Manifests;
 import com.jcabi.urn.URN;
+import com.rultor.agents.shells.SshPool;
+import com.rultor.cached.CdCache;
 import com.rultor.cached.CdTalks;
+import com.rultor.dynamo.DyCounter;
+import com.rultor.dynamo.DyFragments;
+import com.rultor.dynamo.DyFreezer;
+import com.rultor.dynamo.DyLeases;
+import com.rultor.dynamo.DyMigration;
 import com.rultor.dynamo.DyTalks;
+import com.rultor.dynamo.Vault;
+import com.rultor.local.LcTalks;
+import com.rultor.spi.Fragments;
+import com.rultor.spi.Leases;
 import com.rultor.spi.Pulse;
 import com.rultor.spi.Talks;
 import com.rultor.spi.Tick;
 import com.rultor.web.TkApp;
 import io.sentry.Sentry;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import org.cactoos.scalar.IoChecked;
 import org.cactoos.scalar.LengthOf;
@@ -73,9 +89,51 @@ import org.takes.http.FtCli;
  * @since 1.50
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
-@SuppressWarnings("PMD.ExcessiveImports")
+@SuppressWarnings({"PMD.ExcessiveImports", "PMD.DoNotUseThreads"})
 public final class Entry {
 
+    /**
+     * System property with the number of threads in the routine.
+     */
+    private static final String THREADS = "rultor.routine.threads";
+
+    /**
+     * System property with the size of a page of active talks,
+     * fetched from DynamoDB in one query.
+     */
+    private static final String PAGE = "rultor.dynamo.page";
+
+    /**
+     * System property with the unique name of this node, if there are
+     * a few of them, sharing talks.
+     */
+    private static final String NODE = "rultor.node";
+
+    /**
+     * System property with the maximum number of entries in the cache
+     * of talks.
+     */
+    private static final String CACHE_SIZE = "rultor.cache.size";
+
+    /**
+     * System property with the lifetime of entries in the cache of
+     * talks, in seconds.
+     */
+    private static final String CACHE_TTL = "rultor.cache.ttl";
+
+    /**
+     * System property with the number of days a talk must be inactive,
+     * to be moved into the cold storage, which is not done if it's
+     * not set.
+     */
+    private static final String COLD = "rultor.dynamo.cold";
+
+    /**
+     * System property with the directory to keep talks in, instead
+     * of DynamoDB, if there is only one node.
+     */
+    private static final String LOCAL = "rultor.local";
+
     /**
      * Arguments.
      */
@@ -109,23 +167,35 @@ public final class Entry {
         if (!dsn.startsWith("test")) {
             Sentry.init(dsn);
         }
-        final Talks talks = new CdTalks(
-            new DyTalks(
-                this.dynamo(), this.sttc().counters().get("rt-talk")
+        final CdCache cache = new CdCache(
+            Long.getLong(Entry.CACHE_SIZE, CdCache.SIZE),
+            TimeUnit.SECONDS.toMillis(
+                Long.getLong(
+                    Entry.CACHE_TTL,
+                    TimeUnit.MILLISECONDS.toSeconds(CdCache.TTL)
+                )
             )
         );
+        final Talks talks = new CdTalks(this.origin(), cache);
         Logger.info(this, "Starting the Routine...");
+        final Wakeups wakeups = new Wakeups();
         final Routine routine = new Routine(
-            talks, Entry.pulse(), this.github(), this.sttc()
+            talks, Entry.pulse(), this.github(), this.sttc(),
+            Integer.getInteger(Entry.THREADS, Tv.EIGHT), wakeups,
+            this.leases(), this.fragments()
         );
         Logger.info(this, "Starting the web front to run forever...");
         try {
             new FtCli(
-                new TkApp(talks, Entry.pulse(), new Toggles.InFile()),
+                new TkApp(
+                    talks, Entry.pulse(), new Toggles.InFile(), wakeups,
+                    cache
+                ),
                 this.arguments
             ).start(Exit.NEVER);
         } finally {
             routine.close();
+            SshPool.INSTANCE.close();
         }
     }
 
@@ -208,6 +278,135 @@ public final class Entry {
         );
     }
 
+    /**
+     * Make talks, in DynamoDB or in local files.
+     *
+     * <p>The migration of talks and the freezer run only on the node
+     * that leads (see {@link Leases#leads()}); the migration waits for
+     * it, if this node doesn't lead yet.</p>
+     *
+     * @return Talks
+     * @throws IOException If fails
+     */
+    private Talks origin() throws IOException {
+        final String dir = System.getProperty(Entry.LOCAL);
+        final Talks talks;
+        if (dir == null) {
+            talks = new DyTalks(
+                this.dynamo(),
+                new DyCounter(
+                    this.dynamo(), "talk",
+                    this.sttc().counters().get("rt-talk")
+                ),
+                Integer.getInteger(Entry.PAGE, DyTalks.PAGE),
+                this.vault()
+            );
+            final Leases leases = this.leases();
+            Logger.info(this, "Starting the migration of talks...");
+            final ScheduledExecutorService migration =
+                Executors.newSingleThreadScheduledExecutor(
+                    new VerboseThreads(DyMigration.class)
+                );
+            final Runnable migrate = new DyMigration(this.dynamo());
+            migration.scheduleWithFixedDelay(
+                new VerboseRunnable(
+                    () -> {
+                        if (leases.leads()) {
+                            migrate.run();
+                            migration.shutdown();
+                        }
+                        return null;
+                    },
+                    true, false
+                ),
+                0L, 1L, TimeUnit.MINUTES
+            );
+            final Long days = Long.getLong(Entry.COLD);
+            if (days != null) {
+                Logger.info(
+                    this, "Talks inactive for %d day(s) will be frozen", days
+                );
+                final Runnable freezer = new DyFreezer(
+                    this.dynamo(), this.vault(), TimeUnit.DAYS.toMillis(days)
+                );
+                Executors.newSingleThreadScheduledExecutor(
+                    new VerboseThreads(DyFreezer.class)
+                ).scheduleWithFixedDelay(
+                    new VerboseRunnable(
+                        () -> {
+                            if (leases.leads()) {
+                                freezer.run();
+                            }
+                            return null;
+                        },
+                        true, false
+                    ),
+                    TimeUnit.HOURS.toMillis(1L), TimeUnit.DAYS.toMillis(1L),
+                    TimeUnit.MILLISECONDS
+                );
+            }
+        } else {
+            Logger.info(this, "Keeping talks in local files in %s", dir);
+            talks = new LcTalks(new File(dir));
+        }
+        return talks;
+    }
+
+    /**
+     * Make cold storage of talks.
+     * @return Vault
+     */
+    private Vault vault() {
+        return new Vault.S3(
+            Manifests.read("Rultor-S3Key"),
+            Manifests.read("Rultor-S3Secret"),
+            Manifests.read("Rultor-S3Bucket")
+        );
+    }
+
+    /**
+     * Make storage of big fragments of talks.
+     * @return Fragments
+     */
+    private Fragments fragments() {
+        final Fragments fragments;
+        if (System.getProperty(Entry.LOCAL) == null) {
+            fragments = new DyFragments(this.dynamo());
+        } else {
+            fragments = Fragments.INLINE;
+        }
+        return fragments;
+    }
+
+    /**
+     * Make leases on talks.
+     * @return Leases
+     */
+    @Cacheable(forever = true)
+    private Leases leases() {
+        final String node = System.getProperty(Entry.NODE);
+        final Leases leases;
+        if (node == null) {
+            leases = Leases.ALL;
+        } else {
+            Logger.info(this, "Sharing talks with other nodes as %s", node);
+            leases = new DyLeases(this.dynamo(), node);
+            Executors.newSingleThreadScheduledExecutor(
+                new VerboseThreads(DyLeases.class)
+            ).scheduleWithFixedDelay(
+                new VerboseRunnable(
+                    () -> {
+                        leases.renew();
+                        return null;
+                    },
+                    true, false
+                ),
+                0L, DyLeases.TTL / 3L, TimeUnit.MILLISECONDS
+            );
+        }
+        return leases;
+    }
+
     /**
      * Create pulse.
      * @return Pulse
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor;
+
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseThreads;
+import com.rultor.spi.Talk;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.cactoos.Proc;
+
+/**
+ * Lanes, a bounded pool of threads processing talks in parallel.
+ *
+ * <p>Every talk gets its own lane: it is never processed by more than
+ * one thread at a time. If a talk is still busy (for example, left
+ * running after the previous cycle timed out), it is skipped in the
+ * current cycle.</p>
+ *
+ * <p>A failure in one talk doesn't stop the others. When all talks
+ * are finished, the first failure is re-thrown, with all others
+ * attached to it as suppressed exceptions.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+final class Lanes implements Closeable {
+
+    /**
+     * Executor service.
+     */
+    private final transient ExecutorService service;
+
+    /**
+     * Names of talks being processed right now.
+     */
+    private final transient Set<String> busy;
+
+    /**
+     * Ctor.
+     * @param threads How many threads to use
+     */
+    Lanes(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "At least one thread is required, %d given", threads
+                )
+            );
+        }
+        this.service = Executors.newFixedThreadPool(
+            threads, new VerboseThreads(Lanes.class)
+        );
+        this.busy = ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    public void close() {
+        this.service.shutdownNow();
+    }
+
+    /**
+     * Process all talks in parallel and wait for all of them.
+     * @param talks Talks to process
+     * @param proc Processor of a single talk
+     * @return How many talks were processed
+     * @throws IOException If fails
+     */
+    public int process(final Iterable<Talk> talks, final Proc<Talk> proc)
+        throws IOException {
+        final Collection<Future<?>> futures = new LinkedList<>();
+        for (final Talk talk : talks) {
+            final String name = talk.name();
+            if (this.busy.add(name)) {
+                futures.add(this.submit(name, talk, proc));
+            } else {
+                Logger.warn(this, "Talk %s is still busy, skipping", name);
+            }
+        }
+        return Lanes.await(futures);
+    }
+
+    /**
+     * Submit one talk for processing.
+     * @param name Name of the talk, already marked as busy
+     * @param talk The talk
+     * @param proc Processor of it
+     * @return Future
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private Future<?> submit(final String name, final Talk talk,
+        final Proc<Talk> proc) {
+        try {
+            return this.service.submit(
+                () -> {
+                    try {
+                        proc.exec(talk);
+                    } finally {
+                        this.busy.remove(name);
+                    }
+                    return null;
+                }
+            );
+            // @checkstyle IllegalCatchCheck (1 line)
+        } catch (final RuntimeException ex) {
+            this.busy.remove(name);
+            throw ex;
+        }
+    }
+
+    /**
+     * Wait for all futures to complete.
+     * @param futures Futures
+     * @return How many completed
+     * @throws IOException If any of them fails
+     */
+    private static int await(final Iterable<Future<?>> futures)
+        throws IOException {
+        IOException error = null;
+        int total = 0;
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+                ++total;
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                for (final Future<?> other : futures) {
+                    other.cancel(true);
+                }
+                throw new IOException(ex);
+            } catch (final ExecutionException ex) {
+                if (error == null) {
+                    error = new IOException(ex.getCause());
+                } else {
+                    error.addSuppressed(ex.getCause());
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return total;
+    }
+
+}
@@ -35,8 +35,12 @@ import com.jcabi.aspects.Timeable;
 import com.jcabi.aspects.Tv;
 import com.jcabi.github.Github;
 import com.jcabi.log.Logger;
+import com.jcabi.xml.XML;
 import com.rultor.agents.Agents;
+import com.rultor.agents.TalkSession;
 import com.rultor.profiles.Profiles;
+import com.rultor.spi.Fragments;
+import com.rultor.spi.Leases;
 import com.rultor.spi.Profile;
 import com.rultor.spi.Pulse;
 import com.rultor.spi.Talk;
@@ -45,41 +49,80 @@ import com.rultor.spi.Tick;
 import io.sentry.Sentry;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.validation.constraints.NotNull;
-import org.cactoos.iterable.Mapped;
-import org.cactoos.list.ListOf;
+import org.apache.commons.lang3.StringUtils;
 
 /**
  * Routine.
  *
+ * <p>It wakes up every second, but works only when some talks are due:
+ * somebody posted a signal about them to {@link Wakeups} or their timers
+ * are expired. Every ten seconds the leader (if there are a few nodes,
+ * see {@link Leases}) checks whether we were mentioned in GitHub and
+ * starts new talks, if so. Once a minute there is a heartbeat, when the
+ * starter and the closer agents are executed (only by the leader too)
+ * and the next slice of active talks is processed, no matter whether
+ * they are due or not. Slices are taken from a cursor, which is kept
+ * between heartbeats, so that each of them continues where the previous
+ * one stopped, and all active talks are covered in turn, however many of
+ * them there are. Talks which belong to other nodes are ignored.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 1.50
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
- * @todo #1125:30min Routine should be delegate execution to separate threads.
- *  Currently com.rultor.Routine#process() is sequentially processing all Talks
- *  and breaking out of this sequential processing to log occurring exceptions.
- *  This leads to issues in one build breaking all builds globally.
- *  This should be reworked to run the chain of Agents for each talk in a
- *  separate thread, not interfering with the main Routine in error cases.
- *  Once this is done the swallowing of generic exceptions, added to
- *  circumvent this issue, in
- *  com.rultor.agents.github.Reports#process(com.jcabi.xml.XML) should be
- *  removed.
  */
-@ScheduleWithFixedDelay
+@ScheduleWithFixedDelay(delay = 1, unit = TimeUnit.SECONDS)
 @SuppressWarnings("PMD.DoNotUseThreads")
 final class Routine implements Runnable, Closeable {
 
     /**
      * How many talks to process in one cycle.
      */
-    private static final int MAX_TALKS = 5;
+    private static final int MAX_TALKS = Tv.TWENTY;
+
+    /**
+     * How often to run the heartbeat, in msec.
+     */
+    private static final long BEAT = TimeUnit.MINUTES.toMillis(1L);
+
+    /**
+     * How often to check mentions in GitHub, in msec.
+     */
+    private static final long MENTIONS = TimeUnit.SECONDS.toMillis(10L);
+
+    /**
+     * How far back to check mentions in GitHub, at most, in msec.
+     */
+    private static final long LOOKBACK = TimeUnit.HOURS.toMillis(1L);
+
+    /**
+     * How many active talks to sweep on every heartbeat.
+     */
+    private static final int SLICE = Tv.HUNDRED;
+
+    /**
+     * Talks that have nothing to do, unless signaled (the same
+     * XPath as in {@link com.rultor.agents.DeactivatesTalks}).
+     */
+    private static final String IDLE = StringUtils.join(
+        "/talk[@later='false' and not(request) and not(daemon)",
+        " and not(shell)]"
+    );
 
     /**
      * Shutting down?
@@ -91,6 +134,36 @@ final class Routine implements Runnable, Closeable {
      */
     private final transient long start = System.currentTimeMillis();
 
+    /**
+     * When was the latest heartbeat.
+     */
+    private final transient AtomicLong beat = new AtomicLong();
+
+    /**
+     * When mentions were checked last time successfully, in msec.
+     */
+    private final transient AtomicLong polled = new AtomicLong(
+        this.start - TimeUnit.MINUTES.toMillis(3L)
+    );
+
+    /**
+     * When mentions were checked last time, successfully or not, in msec
+     * (a node that doesn't lead moves it forward without checking, to
+     * not wake up on every heartbeat).
+     */
+    private final transient AtomicLong checked = new AtomicLong();
+
+    /**
+     * Cursor in the list of active talks, between heartbeats.
+     */
+    private final transient AtomicReference<Iterator<Talk>> cursor =
+        new AtomicReference<>(Collections.<Talk>emptyIterator());
+
+    /**
+     * Talks processed since the latest heartbeat.
+     */
+    private final transient AtomicInteger processed = new AtomicInteger();
+
     /**
      * Ticks.
      */
@@ -106,49 +179,91 @@ final class Routine implements Runnable, Closeable {
      */
     private final transient Agents agents;
 
+    /**
+     * Lanes to process talks in.
+     */
+    private final transient Lanes lanes;
+
+    /**
+     * Backlog of talks.
+     */
+    private final transient Backlog backlog;
+
+    /**
+     * Wakeups.
+     */
+    private final transient Wakeups wakeups;
+
+    /**
+     * Leases on talks.
+     */
+    private final transient Leases leases;
+
     /**
      * Ctor.
      * @param tlks Talks
      * @param pls Pulse
      * @param github Github client
      * @param sttc Sttc client
-     * @checkstyle ParameterNumberCheck (4 lines)
+     * @param threads How many talks to process in parallel
+     * @param wkps Wakeups
+     * @param lss Leases on talks, shared with other nodes
+     * @param frgs Where to keep big fragments of talks
+     * @checkstyle ParameterNumberCheck (5 lines)
      */
     Routine(@NotNull final Talks tlks, final Pulse pls,
-        final Github github, final Sttc sttc) {
+        final Github github, final Sttc sttc, final int threads,
+        final Wakeups wkps, final Leases lss, final Fragments frgs) {
         this.talks = tlks;
         this.pulse = pls;
-        this.agents = new Agents(github, sttc);
+        this.agents = new Agents(github, sttc, wkps, frgs);
+        this.lanes = new Lanes(threads);
+        this.backlog = new Backlog();
+        this.wakeups = wkps;
+        this.leases = lss;
     }
 
     @Override
     public void close() {
         this.down.set(true);
+        this.lanes.close();
     }
 
     @Override
     @SuppressWarnings("PMD.AvoidCatchingThrowable")
     public void run() {
-        final long begin = System.currentTimeMillis();
         try {
-            final List<Talk> active = new ListOf<>(this.talks.active());
-            Logger.info(
-                this, "Start processing active talks %s...",
-                new Mapped<>(
-                    talk -> String.format("%s:%s", talk.name(), talk.number()),
-                    active
-                )
+            final Collection<String> due = this.wakeups.await(
+                Math.min(
+                    this.beat.get() + Routine.BEAT,
+                    this.checked.get() + Routine.MENTIONS
+                ) - System.currentTimeMillis()
             );
-            final int processed = this.unsafe(active);
-            Logger.info(
-                this,
-                "Processed %d active talks in %[ms]s, alive for %[ms]s: %tc",
-                processed,
-                System.currentTimeMillis() - begin,
-                System.currentTimeMillis() - this.start,
-                new Date()
-            );
-            this.pulse.error(Collections.emptyList());
+            final long begin = System.currentTimeMillis();
+            final boolean heartbeat = begin - this.beat.get() >= Routine.BEAT;
+            if (heartbeat || !due.isEmpty()) {
+                Logger.info(
+                    this, "Start processing, heartbeat=%B, due talks: %s...",
+                    heartbeat, due
+                );
+                final int total = this.unsafe(due, heartbeat);
+                Logger.info(
+                    this,
+                    "Processed %d talks in %[ms]s, alive for %[ms]s: %tc",
+                    total,
+                    System.currentTimeMillis() - begin,
+                    System.currentTimeMillis() - this.start,
+                    new Date()
+                );
+                this.pulse.error(Collections.emptyList());
+            }
+            if (begin - this.checked.get() >= Routine.MENTIONS) {
+                if (this.leases.leads()) {
+                    this.mentions(begin);
+                } else {
+                    this.checked.set(begin);
+                }
+            }
             // @checkstyle IllegalCatchCheck (1 line)
         } catch (final Throwable ex) {
             if (!this.down.get()) {
@@ -165,47 +280,197 @@ final class Routine implements Runnable, Closeable {
     }
 
     /**
-     * Routine every-minute proc.
-     * @param active List of active talks
+     * Start talks where we were mentioned since the previous check.
+     *
+     * <p>Talks started are signaled, so they are processed right after
+     * this, in the next cycle. Mentions are looked for a bit earlier than
+     * the latest successful check, in case of a clock skew between us and
+     * GitHub. If the check fails, it is tried again in
+     * {@link #MENTIONS}.</p>
+     *
+     * @param begin When this check started, in msec
+     * @throws IOException If fails
+     */
+    private void mentions(final long begin) throws IOException {
+        this.checked.set(begin);
+        if (new Toggles.InFile().readOnly()) {
+            Logger.info(this, "read-only mode, mentions are not checked");
+        } else {
+            this.agents.mentions(
+                Math.min(begin - this.polled.get(), Routine.LOOKBACK)
+                    + Routine.MENTIONS
+            ).execute(this.talks);
+        }
+        this.polled.set(begin);
+    }
+
+    /**
+     * Process talks which are due.
+     * @param due Names of talks which are due
+     * @param heartbeat Is it a heartbeat?
      * @return Total talks processed
      * @throws IOException If fails
      */
     @Timeable(limit = Tv.TWENTY, unit = TimeUnit.MINUTES)
-    private int unsafe(final List<Talk> active) throws IOException {
+    private int unsafe(final Collection<String> due, final boolean heartbeat)
+        throws IOException {
         final long begin = System.currentTimeMillis();
         int total = 0;
+        if (heartbeat) {
+            this.beat.set(begin);
+        }
         if (new Toggles.InFile().readOnly()) {
             Logger.info(this, "read-only mode");
         } else {
-            total = this.process(active);
+            total = this.process(due, heartbeat);
+        }
+        this.processed.addAndGet(total);
+        if (heartbeat) {
+            this.pulse.add(
+                new Tick(
+                    begin, System.currentTimeMillis() - begin,
+                    this.processed.getAndSet(0),
+                    this.backlog.depth(), this.backlog.oldest()
+                )
+            );
         }
-        this.pulse.add(
-            new Tick(begin, System.currentTimeMillis() - begin, total)
-        );
         return total;
     }
 
     /**
-     * Routine every-minute proc.
-     * @param active List of active talks
+     * Process talks which are due.
+     *
+     * <p>The XML of all candidates is read in one batch, and then it is
+     * used both to select the most urgent of them and to process them,
+     * so no talk is read one by one. Talks are processed in parallel, so
+     * the duration of the cycle depends on the slowest talk, not on the
+     * sum of them.</p>
+     *
+     * @param due Names of talks which are due
+     * @param heartbeat Is it a heartbeat?
      * @return Total talks processed
      * @throws IOException If fails
      */
-    private int process(final List<Talk> active) throws IOException {
-        this.agents.starter().execute(this.talks);
+    private int process(final Collection<String> due, final boolean heartbeat)
+        throws IOException {
+        final Collection<String> names = new HashSet<>(due);
+        if (heartbeat) {
+            if (this.leases.leads()) {
+                this.agents.starter().execute(this.talks);
+            }
+            names.addAll(this.wakeups.due());
+        }
+        final Collection<Talk> candidates = this.candidates(
+            names, heartbeat
+        );
+        final Map<String, XML> bodies = this.talks.read(candidates);
+        final List<Talk> selected = this.backlog.next(
+            candidates, bodies, Routine.MAX_TALKS
+        );
+        final Collection<String> chosen = new HashSet<>(0);
+        for (final Talk talk : selected) {
+            chosen.add(talk.name());
+        }
+        for (final Talk talk : candidates) {
+            if (!chosen.contains(talk.name())) {
+                this.wakeups.schedule(talk.name(), 0L);
+            }
+        }
         final Profiles profiles = new Profiles();
-        Collections.reverse(active);
-        int total = 0;
-        for (final Talk talk : active) {
-            ++total;
-            final Profile profile = profiles.fetch(talk);
-            this.agents.agent(talk, profile).execute(talk);
-            if (total > Routine.MAX_TALKS) {
-                break;
+        final AtomicInteger reads = new AtomicInteger();
+        final AtomicInteger writes = new AtomicInteger();
+        final int total = this.lanes.process(
+            selected,
+            talk -> {
+                final String name = talk.name();
+                this.wakeups.schedule(name, Routine.BEAT);
+                try (TalkSession session =
+                    new TalkSession(talk, bodies.get(name), this.leases)) {
+                    final Profile profile = profiles.fetch(session);
+                    this.agents.agent(session, profile).execute(session);
+                    if (!session.read().nodes(Routine.IDLE).isEmpty()) {
+                        this.wakeups.forget(name);
+                    }
+                    reads.addAndGet(session.reads());
+                    writes.addAndGet(session.writes());
+                }
             }
+        );
+        Logger.info(
+            this, "%d talk(s) read at once, saved %d read(s), %d write(s)",
+            bodies.size(), reads.get(), writes.get()
+        );
+        if (heartbeat && this.leases.leads()) {
+            this.agents.closer().execute(this.talks);
         }
-        this.agents.closer().execute(this.talks);
         return total;
     }
 
+    /**
+     * Find talks to process.
+     * @param names Names of talks which are due
+     * @param sweep Take the next slice of active talks too?
+     * @return Talks found
+     * @throws IOException If fails
+     */
+    private Collection<Talk> candidates(final Iterable<String> names,
+        final boolean sweep) throws IOException {
+        final Map<String, Talk> found = new LinkedHashMap<>(0);
+        if (sweep) {
+            for (final Talk talk : this.slice()) {
+                if (this.leases.owns(talk.name())) {
+                    found.put(talk.name(), talk);
+                }
+            }
+        }
+        final Collection<String> wanted = new LinkedList<>();
+        for (final String name : names) {
+            if (!this.leases.owns(name)) {
+                Logger.debug(this, "Talk %s belongs to another node", name);
+                this.wakeups.forget(name);
+            } else if (found.containsKey(name)) {
+                Logger.debug(this, "Talk %s is already found", name);
+            } else {
+                wanted.add(name);
+            }
+        }
+        final Map<String, Talk> named = this.talks.named(wanted);
+        for (final String name : wanted) {
+            if (named.containsKey(name)) {
+                found.put(name, named.get(name));
+            } else {
+                this.wakeups.forget(name);
+            }
+        }
+        return found.values();
+    }
+
+    /**
+     * Take the next slice of active talks from the cursor.
+     *
+     * <p>When the cursor is exhausted, it starts again from the beginning
+     * of the list, but not earlier than on the next heartbeat. If the
+     * cursor breaks, it is dropped and the next heartbeat starts over.</p>
+     *
+     * @return Talks found
+     */
+    private Collection<Talk> slice() {
+        Iterator<Talk> iterator = this.cursor.get();
+        if (!iterator.hasNext()) {
+            iterator = this.talks.active().iterator();
+            this.cursor.set(iterator);
+        }
+        final Collection<Talk> slice = new LinkedList<>();
+        try {
+            while (slice.size() < Routine.SLICE && iterator.hasNext()) {
+                slice.add(iterator.next());
+            }
+            // @checkstyle IllegalCatchCheck (1 line)
+        } catch (final RuntimeException ex) {
+            this.cursor.set(Collections.<Talk>emptyIterator());
+            throw ex;
+        }
+        return slice;
+    }
+
 }
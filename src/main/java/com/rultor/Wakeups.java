@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor;
+
+import com.rultor.spi.Signals;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wakeups of the routine, by signals and by timers.
+ *
+ * <p>A talk is due when somebody posted a signal about it, or when its
+ * timer is expired. The routine waits in {@link #await(long)} until
+ * at least one talk is due, and then processes only them.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+final class Wakeups implements Signals {
+
+    /**
+     * Names of talks signaled.
+     */
+    private final transient BlockingQueue<String> signals;
+
+    /**
+     * Names of talks and their timers, when they are due, in msec.
+     */
+    private final transient Map<String, Long> timers;
+
+    /**
+     * Ctor.
+     */
+    Wakeups() {
+        this.signals = new LinkedBlockingQueue<>();
+        this.timers = new ConcurrentHashMap<>(0);
+    }
+
+    @Override
+    public void post(final String name) {
+        this.signals.add(name);
+    }
+
+    /**
+     * Set a timer for the talk, replacing the previous one, if any.
+     * @param name Name of the talk
+     * @param msec In how many milliseconds it will be due
+     */
+    public void schedule(final String name, final long msec) {
+        this.timers.put(name, System.currentTimeMillis() + msec);
+    }
+
+    /**
+     * Remove the timer of the talk, if it exists.
+     * @param name Name of the talk
+     */
+    public void forget(final String name) {
+        this.timers.remove(name);
+    }
+
+    /**
+     * Wait until some talks are due, but not longer than given.
+     * @param msec How long to wait, at most, in milliseconds
+     * @return Names of talks due, maybe empty
+     * @throws InterruptedException If interrupted
+     */
+    public Collection<String> await(final long msec)
+        throws InterruptedException {
+        final long now = System.currentTimeMillis();
+        long wait = msec;
+        for (final long time : this.timers.values()) {
+            wait = Math.min(wait, time - now);
+        }
+        final Collection<String> names = new HashSet<>(0);
+        if (wait > 0L) {
+            final String name = this.signals.poll(wait, TimeUnit.MILLISECONDS);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        names.addAll(this.due());
+        return names;
+    }
+
+    /**
+     * Talks which are due right now, without waiting.
+     * @return Names of talks due, maybe empty
+     */
+    public Collection<String> due() {
+        final Collection<String> names = new HashSet<>(0);
+        this.signals.drainTo(names);
+        final long now = System.currentTimeMillis();
+        final Iterator<Map.Entry<String, Long>> timer =
+            this.timers.entrySet().iterator();
+        while (timer.hasNext()) {
+            final Map.Entry<String, Long> entry = timer.next();
+            if (entry.getValue() <= now) {
+                names.add(entry.getKey());
+                timer.remove();
+            }
+        }
+        return names;
+    }
+
+}
@@ -49,7 +49,7 @@ import org.xembly.Directive;
 @Immutable
 @ToString
 @EqualsAndHashCode(of = "xpaths")
-public abstract class AbstractAgent implements Agent {
+public abstract class AbstractAgent implements Agent.Conditional {
 
     /**
      * Encapsulated XPaths.
@@ -69,10 +69,16 @@ public abstract class AbstractAgent implements Agent {
         this.xpaths = new Array<>(args);
     }
 
+    @Override
+    public final Iterable<String> conditions() {
+        return this.xpaths;
+    }
+
     @Override
     public final void execute(final Talk talk) throws IOException {
-        if (new Required(this.xpaths).isIt(talk)) {
-            talk.modify(this.process(talk.read()));
+        final XML xml = talk.read();
+        if (new Required(this.xpaths).isIt(xml)) {
+            talk.modify(this.process(xml));
         }
     }
 
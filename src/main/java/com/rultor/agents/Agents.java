@@ -31,7 +31,6 @@ package com.rultor.agents;
 
 import co.stateful.Locks;
 import co.stateful.Sttc;
-import com.jcabi.aspects.Immutable;
 import com.jcabi.github.Github;
 import com.jcabi.immutable.Array;
 import com.jcabi.manifests.Manifests;
@@ -94,7 +93,9 @@ import com.rultor.agents.shells.RemovesShell;
 import com.rultor.agents.twitter.OAuthTwitter;
 import com.rultor.agents.twitter.Tweets;
 import com.rultor.spi.Agent;
+import com.rultor.spi.Fragments;
 import com.rultor.spi.Profile;
+import com.rultor.spi.Signals;
 import com.rultor.spi.SuperAgent;
 import com.rultor.spi.Talk;
 import java.io.IOException;
@@ -115,7 +116,6 @@ import org.cactoos.text.UncheckedText;
  * @checkstyle ClassFanOutComplexityCheck (500 lines)
  * @checkstyle MultipleStringLiteralsCheck (500 lines)
  */
-@Immutable
 @ToString
 @EqualsAndHashCode(of = { "github", "sttc" })
 @SuppressWarnings("PMD.ExcessiveImports")
@@ -146,25 +146,74 @@ public final class Agents {
      */
     private final transient Sttc sttc;
 
+    /**
+     * Signals to post to.
+     */
+    private final transient Signals signals;
+
+    /**
+     * Where to keep big fragments of talks.
+     */
+    private final transient Fragments fragments;
+
     /**
      * Ctor.
      * @param ghub Github client
      * @param stc Sttc client
      */
     public Agents(final Github ghub, final Sttc stc) {
+        this(ghub, stc, Signals.EMPTY);
+    }
+
+    /**
+     * Ctor.
+     * @param ghub Github client
+     * @param stc Sttc client
+     * @param sgnls Signals to post to
+     * @since 2.0
+     */
+    public Agents(final Github ghub, final Sttc stc, final Signals sgnls) {
+        this(ghub, stc, sgnls, Fragments.INLINE);
+    }
+
+    /**
+     * Ctor.
+     * @param ghub Github client
+     * @param stc Sttc client
+     * @param sgnls Signals to post to
+     * @param frgs Where to keep big fragments of talks
+     * @since 2.0
+     */
+    public Agents(final Github ghub, final Sttc stc, final Signals sgnls,
+        final Fragments frgs) {
         this.github = ghub;
         this.sttc = stc;
+        this.signals = sgnls;
+        this.fragments = frgs;
+    }
+
+    /**
+     * Create super agent, which starts talks where we are mentioned.
+     * @param lag How far back to look for mentions, in msec
+     * @return The agent
+     * @since 2.0
+     */
+    public SuperAgent mentions(final long lag) {
+        return new StartsTalks(this.github, this.signals, lag);
     }
 
     /**
      * Create super agent, starter.
+     *
+     * <p>It doesn't start talks where we are mentioned, that's what
+     * {@link #mentions(long)} does, much more often.</p>
+     *
      * @return The starter
      * @throws IOException If fails
      */
     public SuperAgent starter() throws IOException {
         return new SuperAgent.Iterative(
             new Array<>(
-                new StartsTalks(this.github),
                 new Invitations(this.github),
                 new IndexesRequests(),
                 new DockerExec(
@@ -257,9 +306,11 @@ public final class Agents {
                 new SanitizesDaemon(),
                 new WipesDaemon(),
                 new DropsTalk(),
-                new Understands(
-                    this.github,
-                    new QnSafe(question)
+                new CheckpointAgent(
+                    new Understands(
+                        this.github,
+                        new QnSafe(question)
+                    )
                 ),
                 new StartsRequest(profile),
                 new RegistersShell(
@@ -271,37 +322,45 @@ public final class Agents {
                 new DismountDaemon(TimeUnit.DAYS.toMinutes(5L)),
                 new DropsDaemon(TimeUnit.DAYS.toMinutes(1L)),
                 new MkdirDaemon(),
-                new TimedAgent(new StartsDaemon(profile)),
+                new CheckpointAgent(new TimedAgent(new StartsDaemon(profile))),
                 // @checkstyle MagicNumber (1 line)
-                new KillsDaemon(TimeUnit.HOURS.toMinutes(3L)),
-                new TimedAgent(new StopsDaemon()),
-                new TimedAgent(new EndsDaemon()),
+                new CheckpointAgent(
+                    new KillsDaemon(TimeUnit.HOURS.toMinutes(3L))
+                ),
+                new CheckpointAgent(new TimedAgent(new StopsDaemon())),
+                new CheckpointAgent(
+                    new TimedAgent(new EndsDaemon(this.signals, this.fragments))
+                ),
                 new EndsRequest(),
-                new SafeAgent(
-                    new Tweets(
-                        this.github,
-                        new OAuthTwitter(
-                            Manifests.read("Rultor-TwitterKey"),
-                            Manifests.read("Rultor-TwitterSecret"),
-                            Manifests.read("Rultor-TwitterToken"),
-                            Manifests.read("Rultor-TwitterTokenSecret")
+                new CheckpointAgent(
+                    new SafeAgent(
+                        new Tweets(
+                            this.github,
+                            new OAuthTwitter(
+                                Manifests.read("Rultor-TwitterKey"),
+                                Manifests.read("Rultor-TwitterSecret"),
+                                Manifests.read("Rultor-TwitterToken"),
+                                Manifests.read("Rultor-TwitterTokenSecret")
+                            )
                         )
                     )
                 ),
-                new CommentsTag(this.github),
-                new ReleaseBinaries(this.github, profile),
+                new CheckpointAgent(new CommentsTag(this.github)),
+                new CheckpointAgent(new ReleaseBinaries(this.github, profile)),
                 new Dephantomizes(this.github),
-                new Reports(this.github),
+                new CheckpointAgent(new Reports(this.github, this.fragments)),
                 new RemovesShell(),
-                new ArchivesDaemon(
-                    new ReRegion(
-                        new Region.Simple(
-                            Manifests.read("Rultor-S3Key"),
-                            Manifests.read("Rultor-S3Secret")
-                        )
-                    ).bucket(Manifests.read("Rultor-S3Bucket"))
+                new CheckpointAgent(
+                    new ArchivesDaemon(
+                        new ReRegion(
+                            new Region.Simple(
+                                Manifests.read("Rultor-S3Key"),
+                                Manifests.read("Rultor-S3Secret")
+                            )
+                        ).bucket(Manifests.read("Rultor-S3Bucket"))
+                    )
                 ),
-                new Publishes(profile, this.github),
+                new CheckpointAgent(new Publishes(profile, this.github)),
                 new SafeAgent(new Stars(this.github))
             )
         );
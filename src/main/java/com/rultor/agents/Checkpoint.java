@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents;
+
+import com.rultor.spi.Talk;
+import java.io.IOException;
+
+/**
+ * Checkpoint in a talk.
+ *
+ * <p>If the talk is a {@link TalkSession}, all changes made so far are
+ * written to its origin, and it fails if the talk doesn't belong to this
+ * node any more (see {@link com.rultor.spi.Leases}). Otherwise, nothing
+ * happens, since all changes are written already. Make a checkpoint right
+ * before and right after anything that can't be undone (like starting a
+ * daemon or posting a comment), so that the record of it is not lost,
+ * even if the session fails to write the changes made later by other
+ * agents.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class Checkpoint {
+
+    /**
+     * The talk.
+     */
+    private final transient Talk talk;
+
+    /**
+     * Ctor.
+     * @param tlk The talk
+     */
+    public Checkpoint(final Talk tlk) {
+        this.talk = tlk;
+    }
+
+    /**
+     * Write all changes made so far.
+     * @throws IOException If fails
+     */
+    public void save() throws IOException {
+        if (this.talk instanceof TalkSession) {
+            ((TalkSession) this.talk).flush();
+        }
+    }
+
+}
@@ -69,7 +69,16 @@ public final class Required {
      * @throws IOException If fails
      */
     public boolean isIt(final Talk talk) throws IOException {
-        final XML xml = talk.read();
+        return this.isIt(talk.read());
+    }
+
+    /**
+     * This XML of a talk is required for this agent?
+     * @param xml The XML of the talk
+     * @return TRUE if this talk is required for this agent
+     * @since 2.0
+     */
+    public boolean isIt(final XML xml) {
         boolean good = true;
         for (final String xpath : this.xpaths) {
             if (xml.nodes(xpath).isEmpty()) {
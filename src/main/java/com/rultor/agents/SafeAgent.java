@@ -33,6 +33,7 @@ import com.jcabi.log.Logger;
 import com.rultor.spi.Agent;
 import com.rultor.spi.Talk;
 import io.sentry.Sentry;
+import java.util.Collections;
 
 /**
  * Safe agent.
@@ -40,7 +41,7 @@ import io.sentry.Sentry;
  * @version $Id$
  * @since 1.59
  */
-public final class SafeAgent implements Agent {
+public final class SafeAgent implements Agent.Conditional {
 
     /**
      * Agent.
@@ -55,6 +56,17 @@ public final class SafeAgent implements Agent {
         this.origin = agent;
     }
 
+    @Override
+    public Iterable<String> conditions() {
+        final Iterable<String> list;
+        if (this.origin instanceof Agent.Conditional) {
+            list = ((Agent.Conditional) this.origin).conditions();
+        } else {
+            list = Collections.emptyList();
+        }
+        return list;
+    }
+
     @Override
     @SuppressWarnings("PMD.AvoidCatchingThrowable")
     public void execute(final Talk talk) {
@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents;
+
+import com.jcabi.log.Logger;
+import com.jcabi.xml.StrictXML;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import com.rultor.spi.Leases;
+import com.rultor.spi.Talk;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.w3c.dom.Node;
+import org.xembly.Directive;
+import org.xembly.Directives;
+import org.xembly.ImpossibleModificationException;
+import org.xembly.Xembler;
+
+/**
+ * Talk session, shared by all agents of a chain.
+ *
+ * <p>The XML of the talk is read from the origin only once, when it is
+ * needed for the first time, unless it was read before, together with
+ * other talks (see {@link com.rultor.spi.Talks#read(Iterable)}), and
+ * given to the constructor. All modifications are applied to the XML
+ * in memory and are remembered. They are written back to the origin,
+ * all together, in {@link #flush()}, which is called at least when the
+ * session is closed and at every {@link Checkpoint}. Make sure it is
+ * closed even if some agent fails, otherwise the changes made by the
+ * agents before it will be lost.</p>
+ *
+ * <p>Every modification is validated against {@link Talk#SCHEMA} right
+ * away, so an agent that makes the XML invalid fails alone, without
+ * breaking the changes made by the others.</p>
+ *
+ * <p>The class is thread-safe, but it is not supposed to be used by more
+ * than one thread at a time.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class TalkSession implements Talk, Closeable {
+
+    /**
+     * Origin talk.
+     */
+    private final transient Talk origin;
+
+    /**
+     * Leases on talks.
+     */
+    private final transient Leases leases;
+
+    /**
+     * How many reads were served from memory.
+     */
+    private final transient AtomicInteger hits;
+
+    /**
+     * How many modifications were not written separately.
+     */
+    private final transient AtomicInteger merged;
+
+    /**
+     * Modifications not yet written to the origin.
+     */
+    private transient Directives pending;
+
+    /**
+     * Current XML or NULL if not read yet.
+     */
+    private transient XML xml;
+
+    /**
+     * Ctor.
+     * @param talk Origin talk
+     */
+    public TalkSession(final Talk talk) {
+        this(talk, null);
+    }
+
+    /**
+     * Ctor.
+     * @param talk Origin talk
+     * @param loaded XML of the talk, if it was read already, or NULL
+     */
+    public TalkSession(final Talk talk, final XML loaded) {
+        this(talk, loaded, Leases.ALL);
+    }
+
+    /**
+     * Ctor.
+     * @param talk Origin talk
+     * @param loaded XML of the talk, if it was read already, or NULL
+     * @param lss Leases on talks, to check before writing
+     */
+    public TalkSession(final Talk talk, final XML loaded, final Leases lss) {
+        this.origin = talk;
+        this.leases = lss;
+        this.xml = loaded;
+        this.pending = new Directives();
+        this.hits = new AtomicInteger();
+        this.merged = new AtomicInteger();
+    }
+
+    @Override
+    public Long number() throws IOException {
+        return this.origin.number();
+    }
+
+    @Override
+    public String name() throws IOException {
+        return this.origin.name();
+    }
+
+    @Override
+    public Date updated() throws IOException {
+        return this.origin.updated();
+    }
+
+    @Override
+    public synchronized XML read() throws IOException {
+        if (this.xml == null) {
+            this.xml = this.origin.read();
+        } else {
+            this.hits.incrementAndGet();
+        }
+        return this.xml;
+    }
+
+    @Override
+    public synchronized XML summary() throws IOException {
+        return Talk.SUMMARY.transform(this.read());
+    }
+
+    @Override
+    public synchronized void modify(final Iterable<Directive> dirs)
+        throws IOException {
+        final Directives batch = new Directives(dirs);
+        if (batch.iterator().hasNext()) {
+            final XML before = this.read();
+            final Node node = before.node();
+            try {
+                new Xembler(batch).apply(node);
+            } catch (final ImpossibleModificationException ex) {
+                throw new IllegalStateException(
+                    String.format(
+                        "failed to apply %s to %s", batch, before
+                    ),
+                    ex
+                );
+            }
+            this.xml = new StrictXML(new XMLDocument(node), Talk.SCHEMA);
+            if (this.pending.iterator().hasNext()) {
+                this.merged.incrementAndGet();
+            }
+            this.pending.xpath("/").append(batch);
+        }
+    }
+
+    @Override
+    public void active(final boolean yes) throws IOException {
+        this.origin.active(yes);
+    }
+
+    /**
+     * Write all pending modifications to the origin talk.
+     *
+     * <p>Call it before doing anything that can't be undone, if the
+     * changes made so far must survive a crash. It fails if the talk
+     * doesn't belong to this node any more (its lease expired or was
+     * taken by another node), even if there is nothing to write, so that
+     * nothing is done to the talk, which somebody else may be working
+     * on.</p>
+     *
+     * @throws IOException If fails
+     */
+    public synchronized void flush() throws IOException {
+        final String name = this.origin.name();
+        if (!this.leases.owns(name)) {
+            throw new IllegalStateException(
+                String.format(
+                    "Talk \"%s\" doesn't belong to this node any more", name
+                )
+            );
+        }
+        if (this.pending.iterator().hasNext()) {
+            this.origin.modify(this.pending);
+            this.pending = new Directives();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.flush();
+        if (this.hits.get() > 0 || this.merged.get() > 0) {
+            Logger.debug(
+                this, "%s: %d read(s) and %d write(s) saved",
+                this.origin.name(), this.hits.get(), this.merged.get()
+            );
+        }
+    }
+
+    /**
+     * How many reads were served from memory, instead of the origin.
+     * @return Total reads saved
+     */
+    public int reads() {
+        return this.hits.get();
+    }
+
+    /**
+     * How many writes were merged with others.
+     * @return Total writes saved
+     */
+    public int writes() {
+        return this.merged.get();
+    }
+
+}
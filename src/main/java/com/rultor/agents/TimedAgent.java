@@ -41,7 +41,7 @@ import java.util.concurrent.TimeUnit;
  * @version $Id$
  * @since 1.59
  */
-public final class TimedAgent implements Agent {
+public final class TimedAgent implements Agent.Conditional {
 
     /**
      * Limit in seconds.
@@ -61,6 +61,11 @@ public final class TimedAgent implements Agent {
         this.origin = agent;
     }
 
+    @Override
+    public Iterable<String> conditions() {
+        return new SafeAgent(this.origin).conditions();
+    }
+
     @Override
     public void execute(final Talk talk) throws IOException {
         final long start = System.currentTimeMillis();
@@ -39,18 +39,17 @@ import com.jcabi.xml.XML;
 import com.rultor.Time;
 import com.rultor.agents.AbstractAgent;
 import com.rultor.agents.shells.TalkShells;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.logging.Level;
+import java.util.zip.GZIPOutputStream;
 import javax.ws.rs.core.MediaType;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.input.NullInputStream;
 import org.xembly.Directive;
 import org.xembly.Directives;
@@ -68,6 +67,11 @@ import org.xembly.Directives;
 @EqualsAndHashCode(callSuper = false, of = "bucket")
 public final class ArchivesDaemon extends AbstractAgent {
 
+    /**
+     * Size of the buffer of the compressor, in bytes.
+     */
+    private static final int BUFFER = 64 << 10;
+
     /**
      * S3 bucket.
      */
@@ -88,38 +92,21 @@ public final class ArchivesDaemon extends AbstractAgent {
     @Override
     public Iterable<Directive> process(final XML xml) throws IOException {
         final Shell shell = new TalkShells(xml).get();
-        final File file = File.createTempFile("rultor", ".log");
         final String dir = xml.xpath("/talk/daemon/dir/text()").get(0);
-        new Shell.Safe(shell).exec(
-            String.join(
-                "; ",
-                String.format("if [ -d %s ]", Ssh.escape(dir)),
-                String.format("then cd %s", Ssh.escape(dir)),
-                "else echo 'Build directory is absent, internal error'",
-                "exit",
-                // @checkstyle MultipleStringLiteralsCheck (1 line)
-                "fi",
-                "if [ -r stdout ]",
-                // @checkstyle LineLength (1 line)
-                "then cat stdout | iconv -f utf-8 -t utf-8 -c | LANG=en_US.UTF-8 col -bx",
-                "else echo 'Stdout not found, internal error'",
-                "fi"
-            ),
-            new NullInputStream(0L),
-            new FileOutputStream(file),
-            Logger.stream(Level.WARNING, this)
-        );
+        final String hash = xml.xpath("/talk/daemon/@id").get(0);
+        final String key = String.format("%tY/%1$tm/%s.txt", new Date(), hash);
+        final long total = this.upload(shell, dir, key);
         new Shell.Empty(new Shell.Safe(shell)).exec(
             String.format("sudo rm -rf %1$s || rm -rf %s", Ssh.escape(dir))
         );
-        final String hash = xml.xpath("/talk/daemon/@id").get(0);
-        final URI uri = this.upload(file, hash);
-        final String title = ArchivesDaemon.title(xml, file);
+        final URI uri = URI.create(
+            String.format("s3://%s/%s", this.bucket.name(), key)
+        );
+        final String title = ArchivesDaemon.title(xml, total);
         Logger.info(
             this, "daemon of %s archived into %s: %s",
             xml.xpath("/talk/@name").get(0), uri, title
         );
-        FileUtils.deleteQuietly(file);
         return new Directives().xpath("/talk/daemon").remove()
             .xpath("/talk").addIf("archive")
             .add("log").attr("id", hash)
@@ -128,31 +115,85 @@ public final class ArchivesDaemon extends AbstractAgent {
     }
 
     /**
-     * Upload file to S3.
-     * @param file The file
-     * @param hash Hash
-     * @return S3 URI
+     * Upload compressed stdout of the daemon to S3.
+     *
+     * <p>The compressor is closed in any case, in order to release its
+     * native memory, but only after the upload is either completed or
+     * aborted, so that closing it doesn't complete a broken one.</p>
+     *
+     * @param shell Shell
+     * @param dir Directory of the daemon
+     * @param key Key of the ocket
+     * @return Total lines in stdout
      * @throws IOException If fails
      */
-    private URI upload(final File file, final String hash) throws IOException {
+    long upload(final Shell shell, final String dir, final String key)
+        throws IOException {
+        final S3Output output = new S3Output(
+            this.bucket, key, ArchivesDaemon.meta()
+        );
+        final GZIPOutputStream gzip = new GZIPOutputStream(
+            output, ArchivesDaemon.BUFFER
+        );
+        final ArchivesDaemon.Lines lines = new ArchivesDaemon.Lines(gzip);
+        boolean done = false;
+        try {
+            new Shell.Safe(shell).exec(
+                String.join(
+                    "; ",
+                    String.format("if [ -d %s ]", Ssh.escape(dir)),
+                    String.format("then cd %s", Ssh.escape(dir)),
+                    "else echo 'Build directory is absent, internal error'",
+                    "exit",
+                    // @checkstyle MultipleStringLiteralsCheck (1 line)
+                    "fi",
+                    "if [ -r stdout ]",
+                    // @checkstyle LineLength (1 line)
+                    "then cat stdout | iconv -f utf-8 -t utf-8 -c | LANG=en_US.UTF-8 col -bx",
+                    "else echo 'Stdout not found, internal error'",
+                    "fi"
+                ),
+                new NullInputStream(0L),
+                lines,
+                Logger.stream(Level.WARNING, this)
+            );
+            gzip.finish();
+            output.close();
+            done = true;
+        } finally {
+            try {
+                if (!done) {
+                    output.abort();
+                }
+            } finally {
+                gzip.close();
+            }
+        }
+        return lines.count();
+    }
+
+    /**
+     * Metadata of the log in S3.
+     * @return Metadata
+     */
+    private static ObjectMetadata meta() {
         final ObjectMetadata meta = new ObjectMetadata();
-        meta.setContentType(MediaType.TEXT_PLAIN);
-        meta.setContentEncoding(StandardCharsets.UTF_8.name());
-        meta.setContentLength(file.length());
-        final String key = String.format("%tY/%1$tm/%s.txt", new Date(), hash);
-        this.bucket.ocket(key).write(new FileInputStream(file), meta);
-        return URI.create(String.format("s3://%s/%s", this.bucket.name(), key));
+        meta.setContentType(
+            String.format(
+                "%s; charset=%s", MediaType.TEXT_PLAIN, StandardCharsets.UTF_8
+            )
+        );
+        meta.setContentEncoding("gzip");
+        return meta;
     }
 
     /**
      * Make a title.
      * @param xml XML
-     * @param file File with stdout
+     * @param total Total lines in stdout
      * @return Title
-     * @throws IOException If fails
      */
-    private static String title(final XML xml, final File file)
-        throws IOException {
+    private static String title(final XML xml, final long total) {
         final int code = Integer.parseInt(
             xml.xpath("/talk/daemon/code/text()").get(0)
         );
@@ -169,8 +210,72 @@ public final class ArchivesDaemon extends AbstractAgent {
             status,
             new Time(xml.xpath("/talk/daemon/ended/text()").get(0)).msec()
             - new Time(xml.xpath("/talk/daemon/started/text()").get(0)).msec(),
-            FileUtils.readLines(file, StandardCharsets.UTF_8).size()
+            total
         );
     }
 
+    /**
+     * Stream that counts lines passing through it.
+     *
+     * @since 2.0
+     */
+    private static final class Lines extends FilterOutputStream {
+        /**
+         * End of lines seen.
+         */
+        private transient long ends;
+
+        /**
+         * The last byte seen or -1 if none.
+         */
+        private transient int last;
+
+        /**
+         * Ctor.
+         * @param out Where to write
+         */
+        Lines(final OutputStream out) {
+            super(out);
+            this.last = -1;
+        }
+
+        @Override
+        public void write(final int data) throws IOException {
+            this.count(data);
+            this.out.write(data);
+        }
+
+        @Override
+        public void write(final byte[] data, final int off, final int len)
+            throws IOException {
+            for (int idx = off; idx < off + len; ++idx) {
+                this.count(data[idx]);
+            }
+            this.out.write(data, off, len);
+        }
+
+        /**
+         * Total lines, including the last one without the end of line.
+         * @return Lines
+         */
+        public long count() {
+            long total = this.ends;
+            if (this.last >= 0 && this.last != '\n') {
+                total += 1L;
+            }
+            return total;
+        }
+
+        /**
+         * Count one byte.
+         * @param data The byte
+         */
+        private void count(final int data) {
+            this.last = data & 0xff;
+            if (this.last == '\n') {
+                this.ends += 1L;
+            }
+        }
+    }
+
 }
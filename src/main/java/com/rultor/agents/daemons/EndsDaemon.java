@@ -29,7 +29,6 @@
  */
 package com.rultor.agents.daemons;
 
-import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Tv;
 import com.jcabi.log.Logger;
 import com.jcabi.ssh.Shell;
@@ -37,18 +36,12 @@ import com.jcabi.xml.XML;
 import com.rultor.Time;
 import com.rultor.agents.AbstractAgent;
 import com.rultor.agents.shells.TalkShells;
+import com.rultor.spi.Fragments;
+import com.rultor.spi.Signals;
 import java.io.IOException;
 import java.util.List;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
-import org.apache.commons.lang3.StringUtils;
-import org.cactoos.Text;
-import org.cactoos.iterable.Filtered;
-import org.cactoos.iterable.Mapped;
-import org.cactoos.iterable.Skipped;
-import org.cactoos.list.ListOf;
-import org.cactoos.text.Split;
-import org.cactoos.text.TextOf;
 import org.xembly.Directive;
 import org.xembly.Directives;
 import org.xembly.Xembler;
@@ -64,7 +57,6 @@ import org.xembly.Xembler;
  *  to get rid of the checkstyle suppression of
  *  ClassDataAbstractionCouplingCheck
  */
-@Immutable
 @ToString
 @EqualsAndHashCode(callSuper = false)
 public final class EndsDaemon extends AbstractAgent {
@@ -74,143 +66,147 @@ public final class EndsDaemon extends AbstractAgent {
      */
     public static final String HIGHLIGHTS_PREFIX = "RULTOR: ";
 
+    /**
+     * Texts longer than this are kept out of the talk, if possible.
+     */
+    private static final int INLINE = Tv.THOUSAND;
+
+    /**
+     * Signals to post to, when the daemon is ended.
+     */
+    private final transient Signals signals;
+
+    /**
+     * Where to keep big fragments of the talk.
+     */
+    private final transient Fragments fragments;
+
     /**
      * Ctor.
      */
     public EndsDaemon() {
+        this(Signals.EMPTY);
+    }
+
+    /**
+     * Ctor.
+     * @param sgnls Signals to post to
+     * @since 2.0
+     */
+    public EndsDaemon(final Signals sgnls) {
+        this(sgnls, Fragments.INLINE);
+    }
+
+    /**
+     * Ctor.
+     * @param sgnls Signals to post to
+     * @param frgs Where to keep highlights and tail, if they are big
+     * @since 2.0
+     */
+    public EndsDaemon(final Signals sgnls, final Fragments frgs) {
         super(
             "/talk/daemon[started and not(code) and not(ended)]",
             "/talk/daemon/dir"
         );
+        this.signals = sgnls;
+        this.fragments = frgs;
     }
 
     @Override
     public Iterable<Directive> process(final XML xml) throws IOException {
         final Shell shell = new TalkShells(xml).get();
         final String dir = xml.xpath("/talk/daemon/dir/text()").get(0);
-        final int exit = new Script("end.sh").exec(xml);
+        final List<String> probe = new Probe(shell, dir).lines();
         final Directives dirs = new Directives();
-        if (exit == 0) {
+        if ("alive".equals(probe.get(0))) {
             Logger.info(
                 this, "the daemon is still running in %s (%s)",
                 dir, xml.xpath("/talk/@name").get(0)
             );
         } else {
-            dirs.append(this.end(shell, dir));
+            dirs.append(this.end(xml, dir, probe));
+            this.signals.post(xml.xpath("/talk/@name").get(0));
         }
         return dirs;
     }
 
     /**
      * End this daemon.
-     * @param shell Shell
+     * @param xml The talk
      * @param dir The dir
+     * @param probe Lines printed by the probe
      * @return Directives
      * @throws IOException If fails
      */
-    private Iterable<Directive> end(final Shell shell,
-        final String dir) throws IOException {
-        final int exit = EndsDaemon.exit(shell, dir);
-        final List<Text> lines = new ListOf<>(
-            new Split(
-                new TextOf(
-                    EndsDaemon.stdout(shell, dir)
-                ),
-                System.lineSeparator()
-            )
-        );
-        final List<String> linesAsString = new ListOf<>(
-            new Mapped<>(
-                Text::asString,
-                lines
-            )
+    private Iterable<Directive> end(final XML xml, final String dir,
+        final List<String> probe) throws IOException {
+        final int exit = EndsDaemon.exit(probe.get(1));
+        final int first = Tv.FOUR;
+        final int last = first + Integer.parseInt(probe.get(Tv.THREE).trim());
+        Logger.info(
+            this, "daemon finished at %s, exit: %d, stdout: %s bytes",
+            dir, exit, probe.get(2)
         );
-        final String highlights = String.join(
-            "\n",
-            new Mapped<>(
-                s -> StringUtils.removeStart(
-                    s.asString(),
-                    EndsDaemon.HIGHLIGHTS_PREFIX
-                ),
-                new Filtered<>(
-                    input -> input.asString().startsWith(
-                        EndsDaemon.HIGHLIGHTS_PREFIX
-                    ),
-                    lines
-                )
-            )
-        );
-        Logger.info(this, "daemon finished at %s, exit: %d", dir, exit);
         return new Directives()
             .xpath("/talk/daemon")
             .strict(1)
             .add("ended").set(new Time().iso()).up()
             .add("code").set(Integer.toString(exit)).up()
-            .add("highlights").set(Xembler.escape(highlights)).up()
-            .add("tail")
-            .set(
-                Xembler.escape(
-                    StringUtils.substring(
-                        String.join(
-                            System.lineSeparator(),
-                            new Skipped<>(
-                                Math.max(lines.size() - Tv.SIXTY, 0),
-                                linesAsString
-                            )
-                        ),
-                        -Tv.HUNDRED * Tv.THOUSAND
+            .append(
+                this.fragment(
+                    xml, "highlights",
+                    String.join("\n", probe.subList(first, last))
+                )
+            )
+            .append(
+                this.fragment(
+                    xml, "tail",
+                    String.join(
+                        System.lineSeparator(),
+                        probe.subList(last, probe.size())
                     )
                 )
             );
     }
 
     /**
-     * Get exit code.
-     * @param shell Shell
-     * @param dir The dir
-     * @return Exit code
+     * Add a text to the daemon, keeping it out of the talk if it's big.
+     * @param xml The talk
+     * @param name Name of the element
+     * @param text The text
+     * @return Directives
      * @throws IOException If fails
      */
-    private static int exit(final Shell shell, final String dir)
-        throws IOException {
-        final String status = new ShellCommand(
-            shell,
-            dir,
-            "if [ ! -e status ]; then echo 127; exit; fi; cat status"
-        ).exec().trim().replaceAll("[^0-9]", "");
-        final int exit;
-        if (status.isEmpty()) {
-            exit = 1;
+    private Iterable<Directive> fragment(final XML xml, final String name,
+        final String text) throws IOException {
+        final String key = String.format(
+            "%s-%s", xml.xpath("/talk/daemon/@id").get(0), name
+        );
+        final Directives dirs = new Directives().add(name);
+        if (text.length() > EndsDaemon.INLINE && this.fragments.put(
+            xml.xpath("/talk/@name").get(0), key, text
+        )) {
+            dirs.attr("ref", key);
         } else {
-            exit = Integer.parseInt(status);
+            dirs.set(Xembler.escape(text));
         }
-        return exit;
+        return dirs.up();
     }
 
     /**
-     * Get stdout.
-     * @param shell Shell
-     * @param dir The dir
-     * @return Stdout
-     * @throws IOException If fails
+     * Parse exit code.
+     * @param status Exit code printed by the probe
+     * @return Exit code
      */
-    private static CharSequence stdout(final Shell shell, final String dir)
-        throws IOException {
-        final int max = Tv.FOUR * Tv.MILLION;
-        return new ShellCommand(
-            shell,
-            dir,
-            String.join(
-                ";",
-                "size=$(stat -c%s stdout)",
-                String.format("if [ $size -gt %d ]", max),
-                "then echo \"Output is too big ($size bytes)\"",
-                String.format("echo \"You see only the last %d bytes\"", max),
-                String.format("tail -c %d stdout", max),
-                "else cat stdout",
-                "fi"
-            )
-        ).exec();
+    private static int exit(final String status) {
+        final String digits = status.replaceAll("[^0-9]", "");
+        final int exit;
+        if (digits.isEmpty()) {
+            exit = 1;
+        } else {
+            exit = Integer.parseInt(digits);
+        }
+        return exit;
     }
 
 }
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.jcabi.ssh.Shell;
+import com.jcabi.ssh.Ssh;
+import com.rultor.agents.shells.HostScript;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Probe of a running daemon, made in one remote command.
+ *
+ * <p>The first line is either "alive" or "dead". For a dead daemon
+ * it's followed by the exit code, the size of its stdout in bytes,
+ * the number of highlights, the highlights and the tail of stdout,
+ * see {@code probe.sh}, which is installed on the host once, by
+ * {@link HostScript}.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode
+final class Probe {
+
+    /**
+     * How many lines of stdout to return.
+     */
+    private static final int LINES = Tv.SIXTY;
+
+    /**
+     * How many bytes of stdout to return, at most.
+     */
+    private static final int BYTES = Tv.HUNDRED * Tv.THOUSAND;
+
+    /**
+     * Shell to use.
+     */
+    private final transient Shell shell;
+
+    /**
+     * Working directory of the daemon.
+     */
+    private final transient String dir;
+
+    /**
+     * Ctor.
+     * @param shll Shell
+     * @param path Working directory of the daemon
+     */
+    Probe(final Shell shll, final String path) {
+        this.shell = shll;
+        this.dir = path;
+    }
+
+    /**
+     * Run the probe.
+     * @return Lines printed by it
+     * @throws IOException If fails
+     */
+    public List<String> lines() throws IOException {
+        final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        final int code = new HostScript(Probe.class, "probe.sh").exec(
+            this.shell, this.dir,
+            String.format(
+                "%d %s %d",
+                Probe.LINES,
+                Ssh.escape(EndsDaemon.HIGHLIGHTS_PREFIX),
+                Probe.BYTES
+            ),
+            stdout,
+            Logger.stream(Level.WARNING, this)
+        );
+        if (code != 0) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Probe failed in %s with code %d", this.dir, code
+                )
+            );
+        }
+        return Arrays.asList(
+            new String(stdout.toByteArray(), StandardCharsets.UTF_8)
+                .split("\n")
+        );
+    }
+
+}
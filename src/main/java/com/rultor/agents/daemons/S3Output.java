@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.jcabi.log.Logger;
+import com.jcabi.s3.Bucket;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Stream that uploads everything written into it to S3.
+ *
+ * <p>Content is kept in memory in parts of limited size. If it
+ * fits into one part, it's written to the ocket as usual. Otherwise,
+ * it goes to S3 in a multipart upload, part by part, as soon as
+ * each one is full.</p>
+ *
+ * <p>The upload is completed by {@link #close()}. If anything goes
+ * wrong before that, or {@link #close()} fails, {@link #abort()} must be
+ * called. After it, everything written is ignored and {@link #close()}
+ * does nothing, so that streams on top of this one can be closed,
+ * in order to release their resources. After a successful
+ * {@link #close()}, {@link #abort()} does nothing.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+final class S3Output extends OutputStream {
+
+    /**
+     * Default size of a part, in bytes.
+     */
+    private static final int PART = 8 << 20;
+
+    /**
+     * Bucket.
+     */
+    private final transient Bucket bucket;
+
+    /**
+     * Key of the ocket.
+     */
+    private final transient String key;
+
+    /**
+     * Metadata of the ocket.
+     */
+    private final transient ObjectMetadata meta;
+
+    /**
+     * Size of a part.
+     */
+    private final transient int size;
+
+    /**
+     * Current part.
+     */
+    private final transient ByteArrayOutputStream part;
+
+    /**
+     * Uploaded parts.
+     */
+    private final transient List<PartETag> etags;
+
+    /**
+     * AWS client, when a multipart upload is started.
+     */
+    private transient AmazonS3 aws;
+
+    /**
+     * ID of the multipart upload, when it's started.
+     */
+    private transient String upload;
+
+    /**
+     * TRUE when closed or aborted.
+     */
+    private transient boolean over;
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param name Key of the ocket
+     * @param mta Metadata
+     */
+    S3Output(final Bucket bkt, final String name, final ObjectMetadata mta) {
+        this(bkt, name, mta, S3Output.PART);
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param name Key of the ocket
+     * @param mta Metadata
+     * @param bytes Size of a part, at least 5Mb for real S3
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    S3Output(final Bucket bkt, final String name, final ObjectMetadata mta,
+        final int bytes) {
+        super();
+        this.bucket = bkt;
+        this.key = name;
+        this.meta = mta;
+        this.size = bytes;
+        this.part = new ByteArrayOutputStream(bytes);
+        this.etags = new LinkedList<>();
+    }
+
+    @Override
+    public void write(final int data) throws IOException {
+        if (this.over) {
+            return;
+        }
+        this.part.write(data);
+        if (this.part.size() >= this.size) {
+            this.send();
+        }
+    }
+
+    @Override
+    public void write(final byte[] data, final int off, final int len)
+        throws IOException {
+        if (this.over) {
+            return;
+        }
+        int pos = off;
+        while (pos < off + len) {
+            final int chunk = Math.min(
+                off + len - pos, this.size - this.part.size()
+            );
+            this.part.write(data, pos, chunk);
+            pos += chunk;
+            if (this.part.size() >= this.size) {
+                this.send();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.over) {
+            return;
+        }
+        this.over = true;
+        if (this.upload == null) {
+            this.meta.setContentLength((long) this.part.size());
+            this.bucket.ocket(this.key).write(
+                new ByteArrayInputStream(this.part.toByteArray()), this.meta
+            );
+        } else {
+            try {
+                if (this.part.size() > 0) {
+                    this.send();
+                }
+                this.aws.completeMultipartUpload(
+                    new CompleteMultipartUploadRequest(
+                        this.bucket.name(), this.key, this.upload, this.etags
+                    )
+                );
+                Logger.info(
+                    this, "Uploaded %d part(s) to %s in %s",
+                    this.etags.size(), this.key, this.bucket.name()
+                );
+                this.upload = null;
+            } finally {
+                this.aws.shutdown();
+                this.aws = null;
+            }
+        }
+        this.part.reset();
+    }
+
+    /**
+     * Abort the upload, if it's started and not completed.
+     */
+    public void abort() {
+        this.over = true;
+        if (this.upload != null) {
+            if (this.aws == null) {
+                this.aws = this.bucket.region().aws();
+            }
+            try {
+                this.aws.abortMultipartUpload(
+                    new AbortMultipartUploadRequest(
+                        this.bucket.name(), this.key, this.upload
+                    )
+                );
+            } finally {
+                this.aws.shutdown();
+                this.aws = null;
+            }
+            this.upload = null;
+        }
+        this.part.reset();
+    }
+
+    /**
+     * Send the current part to S3.
+     */
+    private void send() {
+        if (this.upload == null) {
+            this.aws = this.bucket.region().aws();
+            this.upload = this.aws.initiateMultipartUpload(
+                new InitiateMultipartUploadRequest(
+                    this.bucket.name(), this.key, this.meta
+                )
+            ).getUploadId();
+        }
+        final byte[] bytes = this.part.toByteArray();
+        this.etags.add(
+            this.aws.uploadPart(
+                new UploadPartRequest()
+                    .withBucketName(this.bucket.name())
+                    .withKey(this.key)
+                    .withUploadId(this.upload)
+                    .withPartNumber(this.etags.size() + 1)
+                    .withInputStream(new ByteArrayInputStream(bytes))
+                    .withPartSize((long) bytes.length)
+            ).getPartETag()
+        );
+        this.part.reset();
+    }
+
+}
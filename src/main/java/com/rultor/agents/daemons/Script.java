@@ -31,9 +31,8 @@ package com.rultor.agents.daemons;
 
 import com.jcabi.aspects.Immutable;
 import com.jcabi.log.Logger;
-import com.jcabi.ssh.Shell;
-import com.jcabi.ssh.Ssh;
 import com.jcabi.xml.XML;
+import com.rultor.agents.shells.HostScript;
 import com.rultor.agents.shells.TalkShells;
 import java.io.IOException;
 import java.util.logging.Level;
@@ -72,28 +71,13 @@ final class Script {
      * @throws IOException If fails
      */
     public int exec(final XML xml) throws IOException {
-        final Shell shell = new TalkShells(xml).get();
-        final String dir = xml.xpath("/talk/daemon/dir/text()").get(0);
-        new Shell.Safe(shell).exec(
-            String.format(
-                "cd %s && cat > %s && chmod a+x %1$s/%2$s",
-                Ssh.escape(dir), Ssh.escape(this.name)
-            ),
-            this.getClass().getResourceAsStream(this.name),
+        return new HostScript(Script.class, this.name).exec(
+            new TalkShells(xml).get(),
+            xml.xpath("/talk/daemon/dir/text()").get(0),
+            ">> stdout 2>&1",
             Logger.stream(Level.INFO, this),
             Logger.stream(Level.WARNING, this)
         );
-        return new Shell.Empty(shell).exec(
-            String.join(
-                " && ",
-                "set -o pipefail",
-                String.format("cd %s", Ssh.escape(dir)),
-                String.format(
-                    "/bin/bash %s >> stdout 2>&1",
-                    Ssh.escape(this.name)
-                )
-            )
-        );
     }
 
 }
@@ -39,6 +39,7 @@ import com.jcabi.ssh.Shell;
 import com.jcabi.ssh.Ssh;
 import com.jcabi.xml.XML;
 import com.rultor.Time;
+import com.rultor.agents.Checkpoint;
 import com.rultor.agents.Required;
 import com.rultor.agents.shells.TalkShells;
 import com.rultor.profiles.ProfileDeprecations;
@@ -109,6 +110,7 @@ public final class StartsDaemon implements Agent {
                     .strict(1)
                     .add("started").set(new Time().iso())
             );
+            new Checkpoint(talk).save();
             talk.modify(this.process(talk.read()));
         }
     }
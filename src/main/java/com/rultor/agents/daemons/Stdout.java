@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.jcabi.ssh.Shell;
+import com.jcabi.ssh.Ssh;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import org.apache.commons.io.input.NullInputStream;
+
+/**
+ * Recent lines of stdout of a running daemon, fetched incrementally.
+ *
+ * <p>The object remembers how many bytes of the file it has already
+ * seen and fetches only new ones, keeping a limited number of the latest
+ * lines in memory. Only complete lines are fetched: the host finds the
+ * last end of line in the new bytes and the offset moves only up to it,
+ * so that a line is always cleaned (by {@code iconv} and {@code col})
+ * as a whole, even if it is written in parts, with multi-byte characters,
+ * backspaces or carriage returns split between them. The line being
+ * written is not shown until it ends, unless it alone is longer than
+ * {@link #CHUNK}. Objects are shared between requests, by the
+ * name of the talk and the ID of the daemon, see
+ * {@link #of(String)}.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+final class Stdout {
+
+    /**
+     * All of them, by keys.
+     */
+    private static final Cache<String, Stdout> ALL = CacheBuilder.newBuilder()
+        .maximumSize((long) Tv.HUNDRED)
+        .expireAfterAccess((long) Tv.THIRTY, TimeUnit.MINUTES)
+        .build();
+
+    /**
+     * Maximum bytes to fetch at once.
+     */
+    private static final long CHUNK = (long) Tv.FOUR * Tv.MILLION;
+
+    /**
+     * Maximum lines to keep.
+     */
+    private final transient int max;
+
+    /**
+     * Recent lines.
+     */
+    private final transient LinkedList<String> lines;
+
+    /**
+     * Bytes seen so far.
+     */
+    private transient long offset;
+
+    /**
+     * The last line, which is not finished yet.
+     */
+    private transient String pending;
+
+    /**
+     * TRUE if some earlier lines are not in memory.
+     */
+    private transient boolean cut;
+
+    /**
+     * Ctor.
+     */
+    Stdout() {
+        this(Tv.TEN * Tv.THOUSAND);
+    }
+
+    /**
+     * Ctor.
+     * @param total Maximum lines to keep
+     */
+    Stdout(final int total) {
+        this.max = total;
+        this.lines = new LinkedList<>();
+        this.pending = "";
+    }
+
+    /**
+     * Get the shared one.
+     * @param key Unique key of the daemon
+     * @return Stdout
+     */
+    public static Stdout of(final String key) {
+        try {
+            return Stdout.ALL.get(key, Stdout::new);
+        } catch (final ExecutionException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Fetch new bytes and return recent lines.
+     * @param shell Shell
+     * @param dir Directory of the daemon
+     * @return Text
+     * @throws IOException If fails
+     */
+    public synchronized String read(final Shell shell, final String dir)
+        throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        shell.exec(
+            String.join(
+                "; ",
+                String.format("file=%s/stdout", Ssh.escape(dir)),
+                "size=$(stat -c%s \"${file}\" 2>/dev/null || echo 0)",
+                String.format("start=%d", this.offset),
+                "if [ \"${size}\" -lt \"${start}\" ]; then start=0; fi",
+                String.format(
+                    "if [ $((size - start)) -gt %1$d ]; then %2$s; fi",
+                    Stdout.CHUNK,
+                    String.format("start=$((size - %d))", Stdout.CHUNK)
+                ),
+                String.join(
+                    " ",
+                    "chunk() { tail -c +$((start + 1)) \"${file}\"",
+                    "2>/dev/null | head -c $((size - start)); }"
+                ),
+                String.join(
+                    " ",
+                    "if [ -n \"$(chunk | tail -c 1)\" ]; then",
+                    "rest=$(chunk | tail -n 1 | wc -c);",
+                    String.format(
+                        "if [ $((size - start)) -lt %d ] %s; then %s; fi;",
+                        Stdout.CHUNK,
+                        "|| [ \"${rest}\" -lt $((size - start)) ]",
+                        "size=$((size - rest))"
+                    ),
+                    "fi"
+                ),
+                "echo \"${start} ${size}\"",
+                String.join(
+                    " | ",
+                    "chunk",
+                    "iconv -f utf-8 -t utf-8 -c",
+                    "LANG=en_US.UTF-8 col -b"
+                )
+            ),
+            new NullInputStream(0L), baos,
+            Logger.stream(Level.SEVERE, true)
+        );
+        this.append(new String(baos.toByteArray(), StandardCharsets.UTF_8));
+        return this.text();
+    }
+
+    /**
+     * Append output of the command.
+     * @param output Output
+     */
+    private void append(final String output) {
+        final int eol = output.indexOf('\n');
+        if (eol > 0) {
+            final String[] range = output.substring(0, eol).split(" ");
+            final long start = Long.parseLong(range[0]);
+            if (start != this.offset) {
+                this.lines.clear();
+                this.pending = "";
+                this.cut = start > 0L;
+            }
+            this.offset = Long.parseLong(range[1]);
+            final String[] parts = String.join(
+                "", this.pending, output.substring(eol + 1)
+            ).split("\n", -1);
+            for (int idx = 0; idx < parts.length - 1; ++idx) {
+                this.lines.add(parts[idx]);
+            }
+            this.pending = parts[parts.length - 1];
+            while (this.lines.size() > this.max) {
+                this.lines.removeFirst();
+                this.cut = true;
+            }
+        }
+    }
+
+    /**
+     * Text to show.
+     * @return Text
+     */
+    private String text() {
+        final StringBuilder text = new StringBuilder(0);
+        if (this.cut) {
+            text.append(
+                String.format(
+                    "(earlier output is not shown, only the last %d lines)\n",
+                    this.max
+                )
+            );
+        }
+        for (final String line : this.lines) {
+            text.append(line).append('\n');
+        }
+        return text.append(this.pending).toString();
+    }
+
+}
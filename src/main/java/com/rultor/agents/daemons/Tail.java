@@ -30,13 +30,10 @@
 package com.rultor.agents.daemons;
 
 import com.jcabi.aspects.Immutable;
-import com.jcabi.log.Logger;
 import com.jcabi.manifests.Manifests;
 import com.jcabi.s3.Bucket;
 import com.jcabi.s3.Region;
 import com.jcabi.s3.retry.ReRegion;
-import com.jcabi.ssh.Shell;
-import com.jcabi.ssh.Ssh;
 import com.jcabi.xml.XML;
 import com.rultor.agents.shells.TalkShells;
 import java.io.ByteArrayInputStream;
@@ -51,11 +48,10 @@ import java.util.AbstractMap;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
-import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.input.NullInputStream;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -194,7 +190,14 @@ public final class Tail {
             Tail.S3Connect.bucket().ocket(uri.getPath().substring(1)).read(
                 baos
             );
-            return new ByteArrayInputStream(baos.toByteArray());
+            final byte[] bytes = baos.toByteArray();
+            InputStream stream = new ByteArrayInputStream(bytes);
+            final int magic = GZIPInputStream.GZIP_MAGIC;
+            if (bytes.length > 1 && bytes[0] == (byte) magic
+                && bytes[1] == (byte) (magic >> Byte.SIZE)) {
+                stream = new GZIPInputStream(stream);
+            }
+            return stream;
         }
         /**
          * S3 bucket.
@@ -228,25 +231,19 @@ public final class Tail {
         }
         @Override
         public InputStream read() throws IOException {
-            final Shell shell = new TalkShells(this.xml).get();
-            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            shell.exec(
-                StringUtils.join(
+            return IOUtils.toInputStream(
+                Stdout.of(
                     String.format(
-                        "dir=%s;",
-                        Ssh.escape(
-                            this.xml.xpath("/talk/daemon/dir/text()").get(0)
-                        )
-                    ),
-                    " (cat \"${dir}/stdout\" 2>/dev/null",
-                    " || echo \"file $file is gone\")",
-                    " | iconv -f utf-8 -t utf-8 -c",
-                    " | LANG=en_US.UTF-8 col -b"
+                        "%s/%s",
+                        this.xml.xpath("/talk/@name").get(0),
+                        this.xml.xpath("/talk/daemon/@id").get(0)
+                    )
+                ).read(
+                    new TalkShells(this.xml).get(),
+                    this.xml.xpath("/talk/daemon/dir/text()").get(0)
                 ),
-                new NullInputStream(0L), baos,
-                Logger.stream(Level.SEVERE, true)
+                StandardCharsets.UTF_8
             );
-            return new ByteArrayInputStream(baos.toByteArray());
         }
     }
 
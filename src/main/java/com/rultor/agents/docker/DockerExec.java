@@ -31,13 +31,11 @@ package com.rultor.agents.docker;
 
 import com.jcabi.log.Logger;
 import com.jcabi.ssh.Shell;
+import com.rultor.agents.shells.HostScript;
 import com.rultor.spi.SuperAgent;
 import com.rultor.spi.Talks;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.logging.Level;
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.input.NullInputStream;
 
 /**
  * Remove old images from Docker.
@@ -70,15 +68,16 @@ public final class DockerExec implements SuperAgent {
 
     @Override
     public void execute(final Talks talks) throws IOException {
-        new Shell.Safe(this.shell).exec(
-            IOUtils.toString(
-                this.getClass().getResourceAsStream(this.script),
-                StandardCharsets.UTF_8
-            ),
-            new NullInputStream(0L),
+        final int code = new HostScript(DockerExec.class, this.script).exec(
+            this.shell, ".", "",
             Logger.stream(Level.INFO, this),
             Logger.stream(Level.WARNING, this)
         );
+        if (code != 0) {
+            throw new IllegalArgumentException(
+                String.format("%s failed with code %d", this.script, code)
+            );
+        }
     }
 
 }
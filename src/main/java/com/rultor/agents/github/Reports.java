@@ -38,8 +38,10 @@ import com.jcabi.log.Logger;
 import com.jcabi.xml.XML;
 import com.rultor.agents.AbstractAgent;
 import com.rultor.agents.daemons.Home;
+import com.rultor.spi.Fragments;
 import java.io.IOException;
 import java.net.URI;
+import java.util.Collections;
 import java.util.List;
 import java.util.ResourceBundle;
 import lombok.EqualsAndHashCode;
@@ -56,7 +58,7 @@ import org.xembly.Directives;
  */
 @Immutable
 @ToString
-@EqualsAndHashCode(callSuper = false, of = "github")
+@EqualsAndHashCode(callSuper = false, of = { "github", "fragments" })
 public final class Reports extends AbstractAgent {
 
     /**
@@ -70,16 +72,32 @@ public final class Reports extends AbstractAgent {
      */
     private final transient Github github;
 
+    /**
+     * Where big fragments of talks are kept.
+     */
+    private final transient Fragments fragments;
+
     /**
      * Ctor.
      * @param ghub Github client
      */
     public Reports(final Github ghub) {
+        this(ghub, Fragments.INLINE);
+    }
+
+    /**
+     * Ctor.
+     * @param ghub Github client
+     * @param frgs Where highlights and tails are kept, if they are big
+     * @since 2.0
+     */
+    public Reports(final Github ghub, final Fragments frgs) {
         super(
             "/talk/wire[github-repo and github-issue]",
             "/talk/request[@id and success]"
         );
         this.github = ghub;
+        this.fragments = frgs;
     }
 
     @Override
@@ -114,9 +132,9 @@ public final class Reports extends AbstractAgent {
                 home.toASCIIString(),
                 Long.parseLong(req.xpath("msec/text()").get(0))
             )
-        ).append(Reports.highlights(req));
+        ).append(Reports.highlights(this.text(xml, "highlights")));
         if (!success) {
-            message.append(Reports.tail(req));
+            message.append(Reports.tail(this.text(xml, "tail")));
         }
         new Answer(comment).post(success, message.toString());
         Logger.info(this, "issue #%d reported: %B", issue.number(), success);
@@ -125,13 +143,36 @@ public final class Reports extends AbstractAgent {
             .strict(1).remove();
     }
 
+    /**
+     * Get a text of the request, loading it if it's out of the talk.
+     * @param xml The talk
+     * @param name Name of the element in the request
+     * @return The text, if it's there
+     * @throws IOException If fails
+     */
+    private List<String> text(final XML xml, final String name)
+        throws IOException {
+        final XML req = xml.nodes("/talk/request").get(0);
+        final List<String> ref = req.xpath(String.format("%s/@ref", name));
+        final List<String> text;
+        if (ref.isEmpty()) {
+            text = req.xpath(String.format("%s/text()", name));
+        } else {
+            text = Collections.singletonList(
+                this.fragments.get(
+                    xml.xpath("/talk/@name").get(0), ref.get(0)
+                )
+            );
+        }
+        return text;
+    }
+
     /**
      * Get highlights.
-     * @param req Request
+     * @param highlights Highlights of the request
      * @return Highlights
      */
-    private static String highlights(final XML req) {
-        final List<String> highlights = req.xpath("highlights/text()");
+    private static String highlights(final List<String> highlights) {
         final String text;
         if (highlights.isEmpty()) {
             text = "";
@@ -143,11 +184,10 @@ public final class Reports extends AbstractAgent {
 
     /**
      * Get tail.
-     * @param req Request
+     * @param tail Tail of the request
      * @return Tail
      */
-    private static String tail(final XML req) {
-        final List<String> tail = req.xpath("tail/text()");
+    private static String tail(final List<String> tail) {
         final String text;
         if (tail.isEmpty()) {
             text = "";
@@ -29,7 +29,6 @@
  */
 package com.rultor.agents.github;
 
-import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Tv;
 import com.jcabi.github.Coordinates;
 import com.jcabi.github.Github;
@@ -39,6 +38,7 @@ import com.jcabi.http.Request;
 import com.jcabi.http.response.RestResponse;
 import com.jcabi.log.Logger;
 import com.rultor.Time;
+import com.rultor.spi.Signals;
 import com.rultor.spi.SuperAgent;
 import com.rultor.spi.Talk;
 import com.rultor.spi.Talks;
@@ -47,11 +47,12 @@ import java.net.HttpURLConnection;
 import java.util.Collection;
 import java.util.Date;
 import java.util.LinkedList;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import javax.json.JsonObject;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.time.DateUtils;
 import org.xembly.Directives;
 
 /**
@@ -61,7 +62,6 @@ import org.xembly.Directives;
  * @version $Id$
  * @since 1.0
  */
-@Immutable
 @ToString
 @EqualsAndHashCode(of = "github")
 public final class StartsTalks implements SuperAgent {
@@ -71,19 +71,53 @@ public final class StartsTalks implements SuperAgent {
      */
     private final transient Github github;
 
+    /**
+     * Signals to post to, about activated talks.
+     */
+    private final transient Signals signals;
+
+    /**
+     * How far back to look for notifications, in msec.
+     */
+    private final transient long lag;
+
     /**
      * Ctor.
      * @param ghub Github client
      */
     public StartsTalks(final Github ghub) {
+        this(ghub, Signals.EMPTY);
+    }
+
+    /**
+     * Ctor.
+     * @param ghub Github client
+     * @param sgnls Signals to post to
+     * @since 2.0
+     */
+    public StartsTalks(final Github ghub, final Signals sgnls) {
+        this(ghub, sgnls, TimeUnit.MINUTES.toMillis(Tv.THREE));
+    }
+
+    /**
+     * Ctor.
+     * @param ghub Github client
+     * @param sgnls Signals to post to
+     * @param msec How far back to look for notifications, in msec
+     * @since 2.0
+     */
+    public StartsTalks(final Github ghub, final Signals sgnls,
+        final long msec) {
         this.github = ghub;
+        this.signals = sgnls;
+        this.lag = msec;
     }
 
     @Override
     @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
     public void execute(final Talks talks) throws IOException {
         final String since = new Time(
-            DateUtils.addMinutes(new Date(), -Tv.THREE)
+            new Date(System.currentTimeMillis() - this.lag)
         ).iso();
         final Request req = this.github.entry()
             .uri().path("/notifications").back();
@@ -133,10 +167,16 @@ public final class StartsTalks implements SuperAgent {
             )
         );
         final String name = String.format("%s#%d", coords, issue.number());
-        if (!talks.exists(name)) {
+        Optional<Talk> found = talks.find(name);
+        if (!found.isPresent()) {
             talks.create(coords.toString(), name);
+            found = talks.find(name);
         }
-        final Talk talk = talks.get(name);
+        final Talk talk = found.orElseThrow(
+            () -> new IllegalStateException(
+                String.format("Talk \"%s\" was not created", name)
+            )
+        );
         talk.modify(
             new Directives()
                 .xpath("/talk").attr("later", Boolean.toString(true))
@@ -150,6 +190,7 @@ public final class StartsTalks implements SuperAgent {
                 .set(Integer.toString(issue.number()))
         );
         talk.active(true);
+        this.signals.post(name);
         Logger.info(
             this, "talk %s#%d activated as %s",
             coords, issue.number(), name
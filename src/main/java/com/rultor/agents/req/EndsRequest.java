@@ -73,13 +73,18 @@ public final class EndsRequest extends AbstractAgent {
         final Directives dirs = new Directives().xpath("/talk/request")
             .add("msec").set(Long.toString(msec)).up()
             .add("success").set(Boolean.toString(success)).up();
-        final List<String> highlights = daemon.xpath("highlights/text()");
-        if (!highlights.isEmpty()) {
-            dirs.add("highlights").set(highlights.get(0)).up();
-        }
-        final List<String> tail = daemon.xpath("tail/text()");
-        if (!tail.isEmpty()) {
-            dirs.add("tail").set(tail.get(0)).up();
+        for (final String name : new String[] {"highlights", "tail"}) {
+            final List<String> ref = daemon.xpath(
+                String.format("%s/@ref", name)
+            );
+            final List<String> text = daemon.xpath(
+                String.format("%s/text()", name)
+            );
+            if (!ref.isEmpty()) {
+                dirs.add(name).attr("ref", ref.get(0)).up();
+            } else if (!text.isEmpty()) {
+                dirs.add(name).set(text.get(0)).up();
+            }
         }
         return dirs;
     }
@@ -0,0 +1,315 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.shells;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.log.Logger;
+import com.jcabi.ssh.Shell;
+import com.jcabi.ssh.Ssh;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.NullInputStream;
+import org.cactoos.io.ResourceOf;
+import org.cactoos.text.TextOf;
+import org.cactoos.text.UncheckedText;
+
+/**
+ * Helper script, installed on the host once and executed from there.
+ *
+ * <p>The script is kept in the home directory of the SSH user, in a file
+ * named by the hash of its content. It's uploaded only when the file is
+ * absent, which happens once per host and per version of the
+ * script.</p>
+ *
+ * <p>When the script is absent, the command prints a marker to stdout,
+ * before anything else, and exits with {@link #ABSENT}. Only when both
+ * are seen the script is installed and the command is executed again.
+ * The exit code alone is not enough, since the script may return it
+ * too. The marker contains the hash of the script, so the script can't
+ * print it by accident.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@Immutable
+@ToString(of = "name")
+@EqualsAndHashCode(of = { "name", "content" })
+public final class HostScript {
+
+    /**
+     * Directory on the host, where scripts are installed.
+     */
+    private static final String DIR = "$HOME/.rultor/scripts";
+
+    /**
+     * Exit code of the command when the script is not installed.
+     */
+    private static final int ABSENT = 254;
+
+    /**
+     * Prefix of the marker printed when the script is not installed.
+     */
+    private static final String MARKER = "rultor-script-absent:";
+
+    /**
+     * Name of the script.
+     */
+    private final transient String name;
+
+    /**
+     * Content of the script.
+     */
+    private final transient String content;
+
+    /**
+     * Ctor.
+     * @param home Class, next to which the script is in resources
+     * @param script Name of the script
+     */
+    public HostScript(final Class<?> home, final String script) {
+        this(
+            script,
+            new UncheckedText(
+                new TextOf(
+                    new ResourceOf(
+                        String.format(
+                            "%s/%s",
+                            home.getPackage().getName().replace('.', '/'),
+                            script
+                        )
+                    )
+                )
+            ).asString()
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param script Name of the script
+     * @param text Content of the script
+     */
+    public HostScript(final String script, final String text) {
+        this.name = script;
+        this.content = text;
+    }
+
+    /**
+     * Location of the script on the host, to be used inside double quotes.
+     * @return Path
+     */
+    public String path() {
+        return String.format(
+            "%s/%s-%s", HostScript.DIR,
+            DigestUtils.sha256Hex(this.content).substring(0, 16),
+            this.name
+        );
+    }
+
+    /**
+     * Execute the script, installing it first, if necessary.
+     * @param shell Shell
+     * @param dir Directory to execute it in
+     * @param args Arguments and redirects to add to the command line
+     * @param stdout Stdout
+     * @param stderr Stderr
+     * @return Exit code
+     * @throws IOException If fails
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public int exec(final Shell shell, final String dir, final String args,
+        final OutputStream stdout, final OutputStream stderr)
+        throws IOException {
+        final String command = String.join(
+            " && ",
+            String.format("cd %s", Ssh.escape(dir)),
+            String.format(
+                "{ [ -x \"%s\" ] || { printf '%%s' '%s'; exit %d; }; }",
+                this.path(), this.marker(), HostScript.ABSENT
+            ),
+            String.format("/bin/bash \"%s\" %s", this.path(), args)
+        );
+        final HostScript.Absence absence = new HostScript.Absence(
+            stdout, this.marker().getBytes(StandardCharsets.UTF_8)
+        );
+        int code = shell.exec(
+            command, new NullInputStream(0L), absence, stderr
+        );
+        absence.release();
+        if (code == HostScript.ABSENT && absence.seen()) {
+            this.install(shell);
+            code = shell.exec(
+                command, new NullInputStream(0L), stdout, stderr
+            );
+        }
+        return code;
+    }
+
+    /**
+     * Marker, printed by the command when the script is not installed.
+     * @return The marker
+     */
+    private String marker() {
+        return String.format(
+            "%s%s", HostScript.MARKER, DigestUtils.sha256Hex(this.content)
+        );
+    }
+
+    /**
+     * Upload the script to the host, if it's not there yet.
+     * @param shell Shell
+     * @return TRUE if it was uploaded
+     * @throws IOException If fails
+     */
+    public boolean install(final Shell shell) throws IOException {
+        final boolean absent = new Shell.Empty(shell).exec(
+            String.format("[ -x \"%s\" ]", this.path())
+        ) != 0;
+        if (absent) {
+            new Shell.Safe(shell).exec(
+                String.join(
+                    " && ",
+                    String.format("mkdir -p \"%s\"", HostScript.DIR),
+                    String.format("cat > \"%s.$$\"", this.path()),
+                    String.format("chmod a+x \"%s.$$\"", this.path()),
+                    String.format(
+                        "mv -f \"%1$s.$$\" \"%1$s\"", this.path()
+                    )
+                ),
+                IOUtils.toInputStream(this.content, StandardCharsets.UTF_8),
+                Logger.stream(Level.INFO, this),
+                Logger.stream(Level.WARNING, this)
+            );
+            Logger.info(this, "Script %s installed", this.path());
+        }
+        return absent;
+    }
+
+    /**
+     * Stdout, which holds back the marker of the absent script, if
+     * it goes first, and passes everything else through.
+     *
+     * @since 2.0
+     */
+    private static final class Absence extends OutputStream {
+        /**
+         * Original stream.
+         */
+        private final transient OutputStream origin;
+
+        /**
+         * The marker.
+         */
+        private final transient byte[] marker;
+
+        /**
+         * How many bytes of the marker are seen and held back.
+         */
+        private transient int matched;
+
+        /**
+         * Everything goes through, since the output is not the marker.
+         */
+        private transient boolean through;
+
+        /**
+         * Ctor.
+         * @param stream Original stream
+         * @param mrk The marker
+         */
+        Absence(final OutputStream stream, final byte[] mrk) {
+            super();
+            this.origin = stream;
+            this.marker = mrk.clone();
+        }
+
+        @Override
+        public void write(final int data) throws IOException {
+            if (!this.through) {
+                if (this.matched < this.marker.length
+                    && (byte) data == this.marker[this.matched]) {
+                    ++this.matched;
+                    return;
+                }
+                this.pass();
+            }
+            this.origin.write(data);
+        }
+
+        @Override
+        public void write(final byte[] data, final int off, final int len)
+            throws IOException {
+            if (this.through) {
+                this.origin.write(data, off, len);
+            } else {
+                super.write(data, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.origin.flush();
+        }
+
+        /**
+         * The output was exactly the marker.
+         * @return TRUE if so
+         */
+        public boolean seen() {
+            return !this.through && this.matched == this.marker.length;
+        }
+
+        /**
+         * Pass through all bytes held back, unless they are the marker.
+         * @throws IOException If fails
+         */
+        public void release() throws IOException {
+            if (!this.through && !this.seen()) {
+                this.pass();
+            }
+        }
+
+        /**
+         * Pass through all bytes held back and everything after them.
+         * @throws IOException If fails
+         */
+        private void pass() throws IOException {
+            this.through = true;
+            this.origin.write(this.marker, 0, this.matched);
+        }
+    }
+
+}
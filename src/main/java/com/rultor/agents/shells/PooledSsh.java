@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.shells;
+
+import com.jcabi.log.Logger;
+import com.jcabi.ssh.Shell;
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * SSH shell, which runs commands in sessions taken from a pool.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "target")
+@EqualsAndHashCode(of = "target")
+public final class PooledSsh implements Shell {
+
+    /**
+     * The target.
+     */
+    private final transient SshPool.Target target;
+
+    /**
+     * The pool.
+     */
+    private final transient SshPool pool;
+
+    /**
+     * Ctor.
+     * @param host Host name
+     * @param port Port
+     * @param login Login
+     * @param key Private SSH key
+     * @throws UnknownHostException If the host can't be resolved
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public PooledSsh(final String host, final int port, final String login,
+        final String key) throws UnknownHostException {
+        this(new SshPool.Target(host, port, login, key), SshPool.INSTANCE);
+    }
+
+    /**
+     * Ctor.
+     * @param tgt The target
+     * @param pol The pool
+     */
+    public PooledSsh(final SshPool.Target tgt, final SshPool pol) {
+        this.target = tgt;
+        this.pool = pol;
+    }
+
+    // @checkstyle ParameterNumberCheck (2 lines)
+    @Override
+    public int exec(final String command, final InputStream stdin,
+        final OutputStream stdout, final OutputStream stderr)
+        throws IOException {
+        final Session session = this.pool.acquire(this.target);
+        boolean healthy = false;
+        try {
+            final ChannelExec channel = ChannelExec.class.cast(
+                session.openChannel("exec")
+            );
+            channel.setErrStream(stderr, false);
+            channel.setOutputStream(stdout, false);
+            channel.setInputStream(stdin, false);
+            channel.setCommand(command);
+            channel.setPty(false);
+            channel.connect((int) TimeUnit.SECONDS.toMillis(10L));
+            Logger.info(this, "+ %s", command);
+            try {
+                final int code = PooledSsh.code(channel);
+                healthy = true;
+                return code;
+            } finally {
+                channel.disconnect();
+            }
+        } catch (final JSchException ex) {
+            throw new IOException(ex);
+        } finally {
+            this.pool.release(this.target, session, healthy);
+        }
+    }
+
+    /**
+     * Wait until the channel is closed and get its exit code.
+     * @param channel The channel
+     * @return Exit code
+     * @throws IOException If fails
+     */
+    private static int code(final ChannelExec channel) throws IOException {
+        final long start = System.currentTimeMillis();
+        while (!channel.isClosed()) {
+            try {
+                channel.getSession().sendKeepAliveMsg();
+                // @checkstyle IllegalCatch (1 line)
+            } catch (final Exception ex) {
+                throw new IOException(
+                    "Failed to sendKeepAliveMsg() to the SSH session", ex
+                );
+            }
+            try {
+                TimeUnit.SECONDS.sleep(1L);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(
+                    Logger.format(
+                        "Interrupted after %[ms]s of waiting",
+                        System.currentTimeMillis() - start
+                    ),
+                    ex
+                );
+            }
+        }
+        return channel.getExitStatus();
+    }
+
+}
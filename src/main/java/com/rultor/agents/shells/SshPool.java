@@ -0,0 +1,475 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.shells;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Pool of SSH sessions, shared by all shells of all talks.
+ *
+ * <p>Every session is kept open after the command is finished, and
+ * is used again by the next command for the same host, port, login and
+ * key. Commands run in their own channels, several channels at a time
+ * in one session. Sessions that stay idle for too long or lose their
+ * connection are closed.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = { "sessions", "channels", "ttl" })
+@SuppressWarnings("PMD.TooManyMethods")
+public final class SshPool {
+
+    /**
+     * The pool used by {@link TalkShells}.
+     */
+    public static final SshPool INSTANCE = new SshPool(
+        SshPool.Target::connect, Tv.FOUR, Tv.EIGHT,
+        TimeUnit.MINUTES.toMillis((long) Tv.FIVE)
+    );
+
+    /**
+     * Connector.
+     */
+    private final transient SshPool.Connector connector;
+
+    /**
+     * Maximum sessions per host.
+     */
+    private final transient int sessions;
+
+    /**
+     * Maximum channels per session.
+     */
+    private final transient int channels;
+
+    /**
+     * Idle time before a session is closed, in msec.
+     */
+    private final transient long ttl;
+
+    /**
+     * Open sessions, by targets.
+     */
+    private final transient Map<SshPool.Target, List<SshPool.Entry>> open;
+
+    /**
+     * Sessions being opened right now, by hosts.
+     */
+    private final transient Map<String, Integer> opening;
+
+    /**
+     * Handshakes made.
+     */
+    private final transient AtomicLong handshakes;
+
+    /**
+     * Sessions used again.
+     */
+    private final transient AtomicLong reuses;
+
+    /**
+     * Sessions closed.
+     */
+    private final transient AtomicLong evictions;
+
+    /**
+     * Time spent waiting for free sessions, in nanoseconds.
+     */
+    private final transient AtomicLong waiting;
+
+    /**
+     * Ctor.
+     * @param cnct Connector
+     * @param max Maximum sessions per host
+     * @param chnls Maximum channels per session
+     * @param msec Idle time before a session is closed, in msec
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public SshPool(final SshPool.Connector cnct, final int max,
+        final int chnls, final long msec) {
+        this.connector = cnct;
+        this.sessions = max;
+        this.channels = chnls;
+        this.ttl = msec;
+        this.open = new HashMap<>(0);
+        this.opening = new HashMap<>(0);
+        this.handshakes = new AtomicLong();
+        this.reuses = new AtomicLong();
+        this.evictions = new AtomicLong();
+        this.waiting = new AtomicLong();
+    }
+
+    /**
+     * Take a session, which must be given back by
+     * {@link #release(SshPool.Target, Session, boolean)}.
+     * @param target The target
+     * @return Connected session
+     * @throws IOException If fails
+     */
+    public Session acquire(final SshPool.Target target) throws IOException {
+        final long start = System.nanoTime();
+        final Session found;
+        try {
+            found = this.reserve(target);
+        } finally {
+            this.waiting.addAndGet(System.nanoTime() - start);
+        }
+        final Session session;
+        if (found == null) {
+            Session made = null;
+            try {
+                made = this.connector.open(target);
+                this.handshakes.incrementAndGet();
+            } finally {
+                this.settle(target, made);
+            }
+            session = made;
+        } else {
+            this.reuses.incrementAndGet();
+            session = found;
+        }
+        return session;
+    }
+
+    /**
+     * Give the session back.
+     * @param target The target
+     * @param session The session taken by
+     *  {@link #acquire(SshPool.Target)}
+     * @param healthy TRUE if the session is still good to use
+     */
+    public void release(final SshPool.Target target, final Session session,
+        final boolean healthy) {
+        synchronized (this.open) {
+            for (final SshPool.Entry entry : this.entries(target)) {
+                if (entry.session.equals(session)) {
+                    entry.busy -= 1;
+                    entry.touched = System.currentTimeMillis();
+                    entry.broken |= !healthy;
+                }
+            }
+            this.evict();
+            this.open.notifyAll();
+        }
+    }
+
+    /**
+     * Close all idle sessions.
+     */
+    public void close() {
+        synchronized (this.open) {
+            for (final List<SshPool.Entry> list : this.open.values()) {
+                for (final SshPool.Entry entry : list) {
+                    entry.broken = true;
+                }
+            }
+            this.evict();
+        }
+    }
+
+    /**
+     * Statistics, in plain text.
+     * @return Text
+     */
+    public String stats() {
+        final int total;
+        synchronized (this.open) {
+            total = this.open.values().stream().mapToInt(List::size).sum();
+        }
+        final long made = this.handshakes.get();
+        final long used = this.reuses.get();
+        return Logger.format(
+            // @checkstyle LineLength (1 line)
+            "%d SSH session(s) open, %d handshake(s), %d reuse(s) (%.0f%%), %d eviction(s), %[nano]s waiting",
+            total, made, used,
+            // @checkstyle MagicNumber (1 line)
+            100.0d * used / Math.max(1L, made + used),
+            this.evictions.get(), this.waiting.get()
+        );
+    }
+
+    /**
+     * Find a session with a free channel or reserve a slot for a new one.
+     * @param target The target
+     * @return Session found or NULL if a new one has to be opened
+     * @throws IOException If interrupted
+     */
+    private Session reserve(final SshPool.Target target) throws IOException {
+        synchronized (this.open) {
+            while (true) {
+                this.evict();
+                for (final SshPool.Entry entry : this.entries(target)) {
+                    if (!entry.broken && entry.busy < this.channels) {
+                        entry.busy += 1;
+                        return entry.session;
+                    }
+                }
+                final int busy = this.opening.getOrDefault(target.host, 0);
+                if (this.count(target.host) + busy < this.sessions) {
+                    this.opening.put(target.host, busy + 1);
+                    return null;
+                }
+                try {
+                    this.open.wait(this.ttl);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Register a session just opened.
+     * @param target The target
+     * @param session The session or NULL if it failed to open
+     */
+    private void settle(final SshPool.Target target, final Session session) {
+        synchronized (this.open) {
+            this.opening.merge(target.host, -1, Integer::sum);
+            if (session != null) {
+                this.open.computeIfAbsent(target, key -> new LinkedList<>())
+                    .add(new SshPool.Entry(session));
+            }
+            this.open.notifyAll();
+        }
+    }
+
+    /**
+     * Close sessions that are idle for too long or don't work.
+     */
+    private void evict() {
+        final long now = System.currentTimeMillis();
+        final Iterator<List<SshPool.Entry>> lists =
+            this.open.values().iterator();
+        while (lists.hasNext()) {
+            final List<SshPool.Entry> list = lists.next();
+            final Iterator<SshPool.Entry> entries = list.iterator();
+            while (entries.hasNext()) {
+                final SshPool.Entry entry = entries.next();
+                entry.broken |= !entry.session.isConnected();
+                if (entry.busy == 0
+                    && (entry.broken || now - entry.touched > this.ttl)) {
+                    entries.remove();
+                    entry.session.disconnect();
+                    this.evictions.incrementAndGet();
+                }
+            }
+            if (list.isEmpty()) {
+                lists.remove();
+            }
+        }
+    }
+
+    /**
+     * Open sessions of the target.
+     * @param target The target
+     * @return Entries
+     */
+    private List<SshPool.Entry> entries(final SshPool.Target target) {
+        return this.open.getOrDefault(target, new LinkedList<>());
+    }
+
+    /**
+     * Count open sessions to the host.
+     * @param host The host
+     * @return Total
+     */
+    private int count(final String host) {
+        int total = 0;
+        for (final Map.Entry<SshPool.Target, List<SshPool.Entry>> ent
+            : this.open.entrySet()) {
+            if (ent.getKey().host.equals(host)) {
+                total += ent.getValue().size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Opens SSH sessions.
+     *
+     * @since 2.0
+     */
+    public interface Connector {
+        /**
+         * Open a session.
+         * @param target The target
+         * @return Connected session
+         * @throws IOException If fails
+         */
+        Session open(SshPool.Target target) throws IOException;
+    }
+
+    /**
+     * Coordinates of an SSH server.
+     *
+     * @since 2.0
+     */
+    @ToString(of = { "login", "host", "port" })
+    @EqualsAndHashCode(of = { "host", "port", "login", "key" })
+    public static final class Target {
+        /**
+         * Host name.
+         */
+        private final transient String host;
+
+        /**
+         * Port.
+         */
+        private final transient int port;
+
+        /**
+         * Login.
+         */
+        private final transient String login;
+
+        /**
+         * Private SSH key.
+         */
+        private final transient String key;
+
+        /**
+         * Ctor.
+         * @param addr Host name
+         * @param prt Port
+         * @param user Login
+         * @param pvt Private SSH key
+         * @throws UnknownHostException If the host can't be resolved
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        public Target(final String addr, final int prt, final String user,
+            final String pvt) throws UnknownHostException {
+            this.host = InetAddress.getByName(addr).getHostAddress();
+            this.port = prt;
+            this.login = user;
+            this.key = pvt.replaceAll("\r", "")
+                .replaceAll("\n\\s+|\n{2,}", "\n")
+                .trim();
+        }
+
+        /**
+         * Make a new connected session.
+         * @return Session
+         * @throws IOException If fails
+         */
+        public Session connect() throws IOException {
+            try {
+                final JSch jsch = new JSch();
+                jsch.addIdentity(
+                    this.login, this.key.getBytes(StandardCharsets.UTF_8),
+                    null, null
+                );
+                final Session session = jsch.getSession(
+                    this.login, this.host, this.port
+                );
+                session.setConfig("StrictHostKeyChecking", "no");
+                session.setTimeout(
+                    (int) TimeUnit.MINUTES.toMillis((long) Tv.TEN)
+                );
+                session.setServerAliveInterval(
+                    (int) TimeUnit.SECONDS.toMillis((long) Tv.TEN)
+                );
+                session.setServerAliveCountMax(Tv.MILLION);
+                session.connect((int) TimeUnit.SECONDS.toMillis((long) Tv.TEN));
+                Logger.info(
+                    this, "SSH session opened to %s@%s:%d",
+                    this.login, this.host, this.port
+                );
+                return session;
+            } catch (final JSchException ex) {
+                throw new IOException(
+                    String.format(
+                        "Failed to open SSH session to %s@%s:%d",
+                        this.login, this.host, this.port
+                    ),
+                    ex
+                );
+            }
+        }
+    }
+
+    /**
+     * Open session.
+     *
+     * @since 2.0
+     */
+    private static final class Entry {
+        /**
+         * The session.
+         */
+        private final transient Session session;
+
+        /**
+         * Channels running now.
+         */
+        private transient int busy;
+
+        /**
+         * When it was used last time.
+         */
+        private transient long touched;
+
+        /**
+         * TRUE if it shouldn't be used anymore.
+         */
+        private transient boolean broken;
+
+        /**
+         * Ctor.
+         * @param ssn The session
+         */
+        Entry(final Session ssn) {
+            this.session = ssn;
+            this.busy = 1;
+            this.touched = System.currentTimeMillis();
+        }
+    }
+
+}
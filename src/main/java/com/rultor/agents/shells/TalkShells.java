@@ -31,7 +31,6 @@ package com.rultor.agents.shells;
 
 import com.jcabi.aspects.Immutable;
 import com.jcabi.ssh.Shell;
-import com.jcabi.ssh.Ssh;
 import com.jcabi.xml.XML;
 import java.net.UnknownHostException;
 import lombok.EqualsAndHashCode;
@@ -63,13 +62,14 @@ public final class TalkShells {
     }
 
     /**
-     * Find and get shell.
-     * @return Issue
+     * Find and get shell, which takes its sessions from
+     * {@link SshPool#INSTANCE}.
+     * @return Shell
      * @throws UnknownHostException If fails
      */
     public Shell get() throws UnknownHostException {
         final XML shell = this.xml.nodes("/talk/shell").get(0);
-        return new Ssh(
+        return new PooledSsh(
             shell.xpath("host/text()").get(0),
             Integer.parseInt(shell.xpath("port/text()").get(0)),
             shell.xpath("login/text()").get(0),
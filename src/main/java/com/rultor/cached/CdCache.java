@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.cached;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of talks, shared by {@link CdTalks} and {@link CdTalk}.
+ *
+ * <p>The number of entries is limited and the least recently used ones
+ * are evicted first. Every entry expires some time after it was loaded.
+ * Entries are kept by kinds (XML of a talk, its date, etc.) and keys
+ * (names of talks, mostly). When a talk is modified, only the entries of
+ * this very talk are invalidated. When a talk is created or deleted,
+ * entries kept by numbers of talks are invalidated too, all of them,
+ * since the number of the talk may be unknown.</p>
+ *
+ * <p>Names of talks by their numbers are kept separately, and they
+ * never expire, since the number of a talk never changes.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class CdCache {
+
+    /**
+     * Default maximum number of entries.
+     */
+    public static final long SIZE = Tv.THOUSAND;
+
+    /**
+     * Default lifetime of an entry, in msec.
+     */
+    public static final long TTL = TimeUnit.MINUTES.toMillis(1L);
+
+    /**
+     * Kinds of entries, which belong to a single talk.
+     */
+    private static final String[] KINDS = {
+        "xml", "summary", "updated", "number", "exists", "talk", "found",
+    };
+
+    /**
+     * Kinds of entries, which are kept by numbers of talks.
+     */
+    private static final String[] NUMBERED = {
+        "exists-number", "talk-number",
+    };
+
+    /**
+     * Entries.
+     */
+    private final transient Cache<String, Object> entries;
+
+    /**
+     * Names of talks by numbers.
+     */
+    private final transient Cache<Long, String> names;
+
+    /**
+     * Ctor.
+     */
+    public CdCache() {
+        this(CdCache.SIZE, CdCache.TTL);
+    }
+
+    /**
+     * Ctor.
+     * @param size Maximum number of entries
+     * @param ttl Lifetime of an entry, in msec
+     */
+    public CdCache(final long size, final long ttl) {
+        this.entries = CacheBuilder.newBuilder()
+            .maximumSize(size)
+            .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+            .recordStats()
+            .build();
+        this.names = CacheBuilder.newBuilder()
+            .maximumSize(size * Tv.TEN)
+            .build();
+    }
+
+    /**
+     * Name of the talk by its number, if it's known.
+     * @param number The number
+     * @return The name or empty
+     */
+    public Optional<String> name(final long number) {
+        return Optional.ofNullable(this.names.getIfPresent(number));
+    }
+
+    /**
+     * Remember the name of the talk by its number.
+     * @param number The number
+     * @param name The name
+     */
+    public void name(final long number, final String name) {
+        this.names.put(number, name);
+    }
+
+    /**
+     * Get the entry, loading it if necessary.
+     * @param kind Kind of the entry
+     * @param key The key
+     * @param loader Loader of the value
+     * @param <T> Type of the value
+     * @return The value
+     * @throws IOException If fails to load
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(final String kind, final String key,
+        final Callable<T> loader) throws IOException {
+        try {
+            return (T) this.entries.get(CdCache.key(kind, key), loader);
+        } catch (final ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IOException(ex.getCause());
+        } catch (final UncheckedExecutionException ex) {
+            throw (RuntimeException) ex.getCause();
+        } catch (final ExecutionError ex) {
+            throw (Error) ex.getCause();
+        }
+    }
+
+    /**
+     * Put the entry.
+     * @param kind Kind of the entry
+     * @param key The key
+     * @param value The value
+     */
+    public void put(final String kind, final String key, final Object value) {
+        this.entries.put(CdCache.key(kind, key), value);
+    }
+
+    /**
+     * Invalidate all entries of the talk.
+     * @param name Name of the talk
+     */
+    public void invalidate(final String name) {
+        for (final String kind : CdCache.KINDS) {
+            this.entries.invalidate(CdCache.key(kind, name));
+        }
+    }
+
+    /**
+     * Invalidate all entries of the talk, which was created or deleted,
+     * and all entries kept by numbers.
+     * @param name Name of the talk
+     */
+    public void forget(final String name) {
+        this.invalidate(name);
+        final Collection<String> prefixes = new ArrayList<>(
+            CdCache.NUMBERED.length
+        );
+        for (final String kind : CdCache.NUMBERED) {
+            prefixes.add(CdCache.key(kind, ""));
+        }
+        this.entries.asMap().keySet().removeIf(
+            key -> prefixes.stream().anyMatch(key::startsWith)
+        );
+        this.names.asMap().values().removeIf(name::equals);
+    }
+
+    /**
+     * Invalidate one entry.
+     * @param kind Kind of the entry
+     * @param key The key
+     */
+    public void invalidate(final String kind, final String key) {
+        this.entries.invalidate(CdCache.key(kind, key));
+    }
+
+    /**
+     * Statistics, in plain text.
+     * @return Text
+     */
+    public String stats() {
+        final CacheStats stats = this.entries.stats();
+        return Logger.format(
+            // @checkstyle LineLength (1 line)
+            "%d entries in cache, %d name(s), %d hit(s), %d miss(es), %d eviction(s), %d load(s) in %[nano]s",
+            this.entries.size(), this.names.size(),
+            stats.hitCount(), stats.missCount(),
+            stats.evictionCount(), stats.loadCount(), stats.totalLoadTime()
+        );
+    }
+
+    /**
+     * Make a key.
+     * @param kind Kind of the entry
+     * @param key The key
+     * @return Key of the entry
+     */
+    private static String key(final String kind, final String key) {
+        return String.format("%s:%s", kind, key);
+    }
+
+}
@@ -29,8 +29,6 @@
  */
 package com.rultor.cached;
 
-import com.jcabi.aspects.Cacheable;
-import com.jcabi.aspects.Immutable;
 import com.jcabi.xml.XML;
 import com.rultor.spi.Talk;
 import java.io.IOException;
@@ -46,8 +44,7 @@ import org.xembly.Directive;
  * @version $Id$
  * @since 1.51
  */
-@Immutable
-@ToString
+@ToString(of = "origin")
 @EqualsAndHashCode(of = "origin")
 public final class CdTalk implements Talk {
     /**
@@ -55,48 +52,63 @@ public final class CdTalk implements Talk {
      */
     private final transient Talk origin;
 
+    /**
+     * Cache.
+     */
+    private final transient CdCache cache;
+
     /**
      * Ctor.
      * @param talk Talks
+     * @param cch Cache
      */
-    CdTalk(final Talk talk) {
+    CdTalk(final Talk talk, final CdCache cch) {
         this.origin = talk;
+        this.cache = cch;
     }
 
     @Override
-    @Cacheable
     public Long number() throws IOException {
-        return this.origin.number();
+        return this.cache.get("number", this.name(), this.origin::number);
     }
 
     @Override
-    @Cacheable
     public String name() throws IOException {
         return this.origin.name();
     }
 
     @Override
-    @Cacheable
     public Date updated() throws IOException {
-        return this.origin.updated();
+        return this.cache.get("updated", this.name(), this.origin::updated);
     }
 
     @Override
-    @Cacheable
     public XML read() throws IOException {
-        return this.origin.read();
+        return this.cache.get("xml", this.name(), this.origin::read);
+    }
+
+    @Override
+    public XML summary() throws IOException {
+        return this.cache.get("summary", this.name(), this.origin::summary);
     }
 
     @Override
-    @Cacheable.FlushBefore
     public void modify(final Iterable<Directive> dirs) throws IOException {
-        this.origin.modify(dirs);
+        try {
+            this.origin.modify(dirs);
+        } finally {
+            this.cache.invalidate(this.name());
+        }
     }
 
     @Override
-    @Cacheable.FlushBefore
     public void active(final boolean yes) throws IOException {
-        this.origin.active(yes);
+        try {
+            this.origin.active(yes);
+        } finally {
+            this.cache.invalidate(this.name());
+            this.cache.invalidate(CdTalks.RECENT, "");
+        }
     }
 
 }
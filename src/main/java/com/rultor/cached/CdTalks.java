@@ -29,14 +29,19 @@
  */
 package com.rultor.cached;
 
-import com.jcabi.aspects.Cacheable;
-import com.jcabi.aspects.Immutable;
-import com.jcabi.aspects.Tv;
+import com.google.common.collect.Lists;
+import com.jcabi.xml.XML;
 import com.rultor.spi.Talk;
 import com.rultor.spi.Talks;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Date;
-import java.util.concurrent.TimeUnit;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.cactoos.iterable.Mapped;
@@ -44,91 +49,245 @@ import org.cactoos.iterable.Mapped;
 /**
  * Cached talks.
  *
+ * <p>Lookups, XML of talks and lists of recent talks and siblings are
+ * kept in a {@link CdCache}. Active talks are not cached, since they are
+ * fetched lazily, page by page. Names of talks found by numbers are
+ * remembered forever, so that next lookups by these numbers are
+ * lookups by names, which are cached too.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 1.51
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
-@Immutable
-@ToString
+@ToString(of = "origin")
 @EqualsAndHashCode(of = "origin")
 @SuppressWarnings("PMD.TooManyMethods")
 public final class CdTalks implements Talks {
 
+    /**
+     * Kind of entry with the list of recent talks.
+     */
+    static final String RECENT = "recent";
+
     /**
      * Original talks.
      */
     private final transient Talks origin;
 
+    /**
+     * Cache.
+     */
+    private final transient CdCache cache;
+
     /**
      * Public ctor.
      * @param talks Talks
      */
     public CdTalks(final Talks talks) {
+        this(talks, new CdCache());
+    }
+
+    /**
+     * Public ctor.
+     * @param talks Talks
+     * @param cch Cache
+     * @since 2.0
+     */
+    public CdTalks(final Talks talks, final CdCache cch) {
         this.origin = talks;
+        this.cache = cch;
     }
 
     @Override
-    @Cacheable
     public boolean exists(final long number) {
-        return this.origin.exists(number);
+        return this.cached(
+            "exists-number", Long.toString(number),
+            () -> this.origin.exists(number)
+        );
     }
 
     @Override
-    @Cacheable
     public Talk get(final long number) {
-        return this.origin.get(number);
+        return new CdTalk(
+            this.cached(
+                "talk-number", Long.toString(number),
+                () -> this.origin.get(number)
+            ),
+            this.cache
+        );
     }
 
     @Override
-    @Cacheable
     public boolean exists(final String name) {
-        return this.origin.exists(name);
+        return this.cached("exists", name, () -> this.origin.exists(name));
     }
 
     @Override
-    @Cacheable
     public Talk get(final String name) {
-        return this.origin.get(name);
+        return new CdTalk(
+            this.cached("talk", name, () -> this.origin.get(name)),
+            this.cache
+        );
+    }
+
+    @Override
+    public Optional<Talk> find(final long number) throws IOException {
+        Optional<Talk> found = Optional.empty();
+        final Optional<String> name = this.cache.name(number);
+        if (name.isPresent()) {
+            found = this.find(name.get());
+        }
+        if (!found.isPresent() || found.get().number() != number) {
+            found = this.origin.find(number);
+            if (found.isPresent()) {
+                final Talk talk = found.get();
+                this.cache.name(number, talk.name());
+                this.cache.put("found", talk.name(), found);
+                found = Optional.of(new CdTalk(talk, this.cache));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Optional<Talk> find(final String name) throws IOException {
+        final Optional<Talk> found = this.cache.get(
+            "found", name, () -> this.origin.find(name)
+        );
+        return found.map(talk -> new CdTalk(talk, this.cache));
+    }
+
+    @Override
+    public Map<String, Talk> named(final Iterable<String> names)
+        throws IOException {
+        final Map<String, Talk> found = new HashMap<>(0);
+        for (final Map.Entry<String, Talk> ent
+            : this.origin.named(names).entrySet()) {
+            this.cache.put("found", ent.getKey(), Optional.of(ent.getValue()));
+            found.put(ent.getKey(), new CdTalk(ent.getValue(), this.cache));
+        }
+        return found;
+    }
+
+    /**
+     * Find talks by numbers.
+     *
+     * <p>Numbers with known names are looked up by names, in one batch,
+     * while all others go to the origin.</p>
+     *
+     * @param numbers The numbers
+     * @return Talks by numbers
+     * @throws IOException If fails
+     */
+    @Override
+    public Map<Long, Talk> numbered(final Iterable<Long> numbers)
+        throws IOException {
+        final Map<String, Long> known = new HashMap<>(0);
+        final Collection<Long> unknown = new LinkedList<>();
+        for (final Long number : numbers) {
+            final Optional<String> name = this.cache.name(number);
+            if (name.isPresent()) {
+                known.put(name.get(), number);
+            } else {
+                unknown.add(number);
+            }
+        }
+        final Map<Long, Talk> found = new HashMap<>(0);
+        for (final Map.Entry<String, Talk> ent
+            : this.named(known.keySet()).entrySet()) {
+            final Long number = known.get(ent.getKey());
+            if (ent.getValue().number().equals(number)) {
+                found.put(number, ent.getValue());
+            } else {
+                unknown.add(number);
+            }
+        }
+        for (final Map.Entry<Long, Talk> ent
+            : this.origin.numbered(unknown).entrySet()) {
+            this.cache.name(ent.getKey(), ent.getValue().name());
+            found.put(ent.getKey(), new CdTalk(ent.getValue(), this.cache));
+        }
+        return found;
     }
 
     @Override
-    @Cacheable.FlushBefore
     public void delete(final String name) {
-        this.origin.delete(name);
+        try {
+            this.origin.delete(name);
+        } finally {
+            this.cache.forget(name);
+        }
     }
 
     @Override
-    @Cacheable.FlushBefore
     public void create(final String repo, final String name)
         throws IOException {
-        this.origin.create(repo, name);
+        try {
+            this.origin.create(repo, name);
+        } finally {
+            this.cache.forget(name);
+        }
     }
 
     @Override
-    @Cacheable
     public Iterable<Talk> active() {
         return new Mapped<>(
-            CdTalk::new,
+            talk -> new CdTalk(talk, this.cache),
             this.origin.active()
         );
     }
 
     @Override
-    @Cacheable(lifetime = Tv.TWENTY, unit = TimeUnit.MINUTES)
     public Iterable<Talk> recent() {
-        return new Mapped<>(
-            CdTalk::new,
-            this.origin.recent()
+        return this.cached(
+            CdTalks.RECENT, "", () -> this.wrapped(this.origin.recent())
         );
     }
 
     @Override
-    @Cacheable
     public Iterable<Talk> siblings(final String repo, final Date since) {
-        return new Mapped<>(
-            CdTalk::new,
-            this.origin.siblings(repo, since)
+        return this.cached(
+            "siblings", String.format("%s@%d", repo, since.getTime()),
+            () -> this.wrapped(this.origin.siblings(repo, since))
+        );
+    }
+
+    @Override
+    public Map<String, XML> read(final Iterable<Talk> list)
+        throws IOException {
+        final Map<String, XML> bodies = this.origin.read(list);
+        for (final Map.Entry<String, XML> body : bodies.entrySet()) {
+            this.cache.put("xml", body.getKey(), body.getValue());
+        }
+        return bodies;
+    }
+
+    /**
+     * Get it from the cache, or load.
+     * @param kind Kind of the entry
+     * @param key The key
+     * @param loader Loader
+     * @param <T> Type of the value
+     * @return The value
+     */
+    private <T> T cached(final String kind, final String key,
+        final Callable<T> loader) {
+        try {
+            return this.cache.get(kind, key, loader);
+        } catch (final IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Read all talks and wrap them into cached ones.
+     * @param talks Talks
+     * @return List of them
+     */
+    private List<Talk> wrapped(final Iterable<Talk> talks) {
+        return Lists.newArrayList(
+            new Mapped<>(talk -> new CdTalk(talk, this.cache), talks)
         );
     }
 }
@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.jcabi.aspects.Immutable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Codec of the XML of a talk, as it is stored in Dynamo.
+ *
+ * <p>The identifier of the codec is saved in every item next to the
+ * encoded XML, in order to decode it later. Once an identifier is
+ * used, the codec behind it must never change.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@Immutable
+interface Codec {
+
+    /**
+     * GZIP, the codec of all items saved without an identifier.
+     */
+    Codec GZIP = new Codec.Gzip();
+
+    /**
+     * Deflate with the preset dictionary, the codec of new items.
+     */
+    Codec DEFLATED = new Codec.Deflated();
+
+    /**
+     * Its unique identifier.
+     * @return The identifier
+     */
+    String id();
+
+    /**
+     * Encode the XML.
+     * @param xml The XML content
+     * @return Encoded content
+     * @throws IOException If fails
+     */
+    byte[] encode(String xml) throws IOException;
+
+    /**
+     * Decode the XML.
+     * @param bytes Encoded content
+     * @return The XML content
+     * @throws IOException If fails
+     */
+    String decode(byte[] bytes) throws IOException;
+
+    /**
+     * Find the codec by its identifier.
+     * @param id The identifier or NULL if it is absent
+     * @return The codec
+     */
+    static Codec of(final String id) {
+        final Codec codec;
+        if (id == null || Codec.GZIP.id().equals(id)) {
+            codec = Codec.GZIP;
+        } else if (Codec.DEFLATED.id().equals(id)) {
+            codec = Codec.DEFLATED;
+        } else {
+            throw new IllegalArgumentException(
+                String.format("Unknown codec \"%s\"", id)
+            );
+        }
+        return codec;
+    }
+
+    /**
+     * GZIP.
+     */
+    @Immutable
+    @ToString
+    @EqualsAndHashCode
+    final class Gzip implements Codec {
+        @Override
+        public String id() {
+            return "gzip";
+        }
+
+        @Override
+        public byte[] encode(final String xml) throws IOException {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (OutputStream output = new GZIPOutputStream(baos)) {
+                output.write(xml.getBytes(StandardCharsets.UTF_8));
+            }
+            return baos.toByteArray();
+        }
+
+        @Override
+        public String decode(final byte[] bytes) throws IOException {
+            try (InputStream input =
+                new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+                return IOUtils.toString(input, StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    /**
+     * Deflate with a preset dictionary.
+     *
+     * <p>Most of a talk is the same from one talk to another: element
+     * names, the scripts of merge, deploy and release, GitHub URLs. The
+     * dictionary contains all of them, so even a small talk is encoded
+     * as a list of references to it. The dictionary is frozen: a new
+     * one needs a new identifier, while this one must stay as long as
+     * there are items encoded with it.</p>
+     */
+    @Immutable
+    @ToString
+    @EqualsAndHashCode
+    final class Deflated implements Codec {
+        /**
+         * The dictionary.
+         */
+        private static final byte[] DICTIONARY = Codec.Deflated.load();
+
+        /**
+         * Size of the buffer.
+         */
+        private static final int BUFFER = 8192;
+
+        @Override
+        public String id() {
+            return "deflate-1";
+        }
+
+        @Override
+        public byte[] encode(final String xml) {
+            final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try {
+                deflater.setDictionary(Codec.Deflated.DICTIONARY);
+                deflater.setInput(xml.getBytes(StandardCharsets.UTF_8));
+                deflater.finish();
+                final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                final byte[] buf = new byte[Codec.Deflated.BUFFER];
+                while (!deflater.finished()) {
+                    baos.write(buf, 0, deflater.deflate(buf));
+                }
+                return baos.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public String decode(final byte[] bytes) throws IOException {
+            final Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(bytes);
+                final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                final byte[] buf = new byte[Codec.Deflated.BUFFER];
+                while (!inflater.finished()) {
+                    final int len = inflater.inflate(buf);
+                    if (len == 0 && inflater.needsDictionary()) {
+                        inflater.setDictionary(Codec.Deflated.DICTIONARY);
+                    } else if (len == 0 && inflater.needsInput()) {
+                        throw new IOException("Encoded XML is truncated");
+                    }
+                    baos.write(buf, 0, len);
+                }
+                return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+            } catch (final DataFormatException ex) {
+                throw new IOException(ex);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        /**
+         * Load the dictionary.
+         * @return The dictionary
+         */
+        private static byte[] load() {
+            try (InputStream input =
+                Codec.class.getResourceAsStream("dictionary-1.txt")) {
+                return IOUtils.toByteArray(input);
+            } catch (final IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+}
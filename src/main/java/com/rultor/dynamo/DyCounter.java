@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import co.stateful.Counter;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Region;
+import com.jcabi.dynamo.Table;
+import com.jcabi.log.Logger;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Counter in Dynamo, which reserves numbers in blocks.
+ *
+ * <p>A block of numbers is reserved by an atomic increment of the item
+ * in the table {@link #TBL}, and then numbers are given out from the
+ * block locally, without any remote calls. Blocks of different nodes
+ * never overlap, that's why numbers are unique, but not sequential:
+ * numbers left in the block when the node stops are never used.</p>
+ *
+ * <p>When the item is absent, it starts from the value of the seed
+ * counter, which was used before.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = { "label", "block" })
+@EqualsAndHashCode(of = { "region", "label" })
+public final class DyCounter implements Counter {
+
+    /**
+     * Table name.
+     */
+    public static final String TBL = "counters";
+
+    /**
+     * Hash, the name of the counter.
+     */
+    public static final String HASH = "name";
+
+    /**
+     * The last reserved number.
+     */
+    public static final String ATTR_VALUE = "value";
+
+    /**
+     * Default size of a block.
+     */
+    public static final long BLOCK = Tv.HUNDRED;
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Name of the counter.
+     */
+    private final transient String label;
+
+    /**
+     * Counter to start from, if the item is absent.
+     */
+    private final transient Counter seed;
+
+    /**
+     * Size of a block.
+     */
+    private final transient long block;
+
+    /**
+     * The last number given out.
+     */
+    private transient long current;
+
+    /**
+     * The last number in the block.
+     */
+    private transient long limit;
+
+    /**
+     * Ctor.
+     * @param reg Region
+     * @param name Name of the counter
+     * @param start Counter to start from
+     */
+    public DyCounter(final Region reg, final String name,
+        final Counter start) {
+        this(reg, name, start, DyCounter.BLOCK);
+    }
+
+    /**
+     * Ctor.
+     * @param reg Region
+     * @param name Name of the counter
+     * @param start Counter to start from
+     * @param size Size of a block
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public DyCounter(final Region reg, final String name,
+        final Counter start, final long size) {
+        if (size < 1L) {
+            throw new IllegalArgumentException(
+                String.format("Block size %d is too small", size)
+            );
+        }
+        this.region = reg;
+        this.label = name;
+        this.seed = start;
+        this.block = size;
+    }
+
+    @Override
+    public String name() {
+        return this.label;
+    }
+
+    @Override
+    public synchronized void set(final long value) throws IOException {
+        final Table table = this.region.table(DyCounter.TBL);
+        final AmazonDynamoDB aws = table.region().aws();
+        try {
+            aws.putItem(
+                new PutItemRequest()
+                    .withTableName(table.name())
+                    .withItem(this.item(value))
+            );
+        } finally {
+            aws.shutdown();
+        }
+        this.current = value;
+        this.limit = value;
+    }
+
+    @Override
+    public synchronized long incrementAndGet(final long delta)
+        throws IOException {
+        if (this.current + delta > this.limit) {
+            final long size = Math.max(this.block, delta);
+            this.limit = this.reserve(size);
+            this.current = this.limit - size;
+        }
+        this.current += delta;
+        return this.current;
+    }
+
+    /**
+     * Reserve the next block.
+     * @param size Size of the block
+     * @return The last number in the block
+     * @throws IOException If fails
+     */
+    private long reserve(final long size) throws IOException {
+        final Table table = this.region.table(DyCounter.TBL);
+        final AmazonDynamoDB aws = table.region().aws();
+        final Map<String, String> names = new HashMap<>(0);
+        names.put("#value", DyCounter.ATTR_VALUE);
+        try {
+            Long end = null;
+            while (end == null) {
+                try {
+                    end = Long.parseLong(
+                        aws.updateItem(
+                            new UpdateItemRequest()
+                                .withTableName(table.name())
+                                .withKey(
+                                    Collections.singletonMap(
+                                        DyCounter.HASH,
+                                        new AttributeValue(this.label)
+                                    )
+                                )
+                                .withUpdateExpression("ADD #value :size")
+                                .withConditionExpression(
+                                    "attribute_exists(#value)"
+                                )
+                                .withExpressionAttributeNames(names)
+                                .withExpressionAttributeValues(
+                                    Collections.singletonMap(
+                                        ":size",
+                                        new AttributeValue().withN(
+                                            Long.toString(size)
+                                        )
+                                    )
+                                )
+                                .withReturnValues(ReturnValue.UPDATED_NEW)
+                        ).getAttributes().get(DyCounter.ATTR_VALUE).getN()
+                    );
+                } catch (final ConditionalCheckFailedException ex) {
+                    end = this.start(aws, table, size);
+                }
+            }
+            Logger.info(
+                this, "Numbers %d..%d of \"%s\" reserved",
+                end - size + 1L, end, this.label
+            );
+            return end;
+        } finally {
+            aws.shutdown();
+        }
+    }
+
+    /**
+     * Create the item, starting from the seed.
+     * @param aws Client
+     * @param table The table
+     * @param size Size of the first block
+     * @return The last number in the block or NULL if somebody else
+     *  has just created the item
+     * @throws IOException If fails
+     */
+    private Long start(final AmazonDynamoDB aws, final Table table,
+        final long size) throws IOException {
+        final long end = this.seed.incrementAndGet(size);
+        Long value;
+        try {
+            aws.putItem(
+                new PutItemRequest()
+                    .withTableName(table.name())
+                    .withItem(this.item(end))
+                    .withConditionExpression("attribute_not_exists(#name)")
+                    .withExpressionAttributeNames(
+                        Collections.singletonMap("#name", DyCounter.HASH)
+                    )
+            );
+            value = end;
+        } catch (final ConditionalCheckFailedException ex) {
+            value = null;
+        }
+        return value;
+    }
+
+    /**
+     * Make the item.
+     * @param value The value
+     * @return Attributes of the item
+     */
+    private Map<String, AttributeValue> item(final long value) {
+        final Map<String, AttributeValue> attrs = new HashMap<>(0);
+        attrs.put(DyCounter.HASH, new AttributeValue(this.label));
+        attrs.put(
+            DyCounter.ATTR_VALUE,
+            new AttributeValue().withN(Long.toString(value))
+        );
+        return attrs;
+    }
+
+}
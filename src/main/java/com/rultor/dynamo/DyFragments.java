@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.QueryValve;
+import com.jcabi.dynamo.Region;
+import com.rultor.spi.Fragments;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Fragments of talks in Dynamo.
+ *
+ * <p>Every fragment is encoded by {@link Codec} and expires in a while,
+ * when Dynamo deletes it by the time to live in
+ * {@link #ATTR_EXPIRES} (it has to be enabled for the table). By that
+ * time it has to be reported already.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = "region")
+public final class DyFragments implements Fragments {
+
+    /**
+     * Table name.
+     */
+    public static final String TBL = "fragments";
+
+    /**
+     * Name of the talk.
+     */
+    public static final String HASH = "talk";
+
+    /**
+     * Key of the fragment in the talk.
+     */
+    public static final String RANGE = "key";
+
+    /**
+     * Encoded text.
+     */
+    public static final String ATTR_TEXT = "text";
+
+    /**
+     * Codec of the text.
+     */
+    public static final String ATTR_CODEC = "codec";
+
+    /**
+     * When it expires, in seconds since epoch.
+     */
+    public static final String ATTR_EXPIRES = "expires";
+
+    /**
+     * Default lifetime of a fragment, in msec.
+     */
+    public static final long TTL = TimeUnit.DAYS.toMillis(30L);
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Lifetime of a fragment, in msec.
+     */
+    private final transient long ttl;
+
+    /**
+     * Ctor.
+     * @param reg Region
+     */
+    public DyFragments(final Region reg) {
+        this(reg, DyFragments.TTL);
+    }
+
+    /**
+     * Ctor.
+     * @param reg Region
+     * @param msec Lifetime of a fragment, in msec
+     */
+    public DyFragments(final Region reg, final long msec) {
+        this.region = reg;
+        this.ttl = msec;
+    }
+
+    @Override
+    public boolean put(final String talk, final String key,
+        final String text) throws IOException {
+        this.region.table(DyFragments.TBL).put(
+            new Attributes()
+                .with(DyFragments.HASH, talk)
+                .with(DyFragments.RANGE, key)
+                .with(
+                    DyFragments.ATTR_TEXT,
+                    new AttributeValue().withB(
+                        ByteBuffer.wrap(Codec.DEFLATED.encode(text))
+                    )
+                )
+                .with(DyFragments.ATTR_CODEC, Codec.DEFLATED.id())
+                .with(
+                    DyFragments.ATTR_EXPIRES,
+                    TimeUnit.MILLISECONDS.toSeconds(
+                        System.currentTimeMillis() + this.ttl
+                    )
+                )
+        );
+        return true;
+    }
+
+    @Override
+    public String get(final String talk, final String key)
+        throws IOException {
+        final Iterator<Item> items = this.region.table(DyFragments.TBL)
+            .frame()
+            .through(
+                new QueryValve()
+                    .withLimit(1)
+                    .withAttributesToGet(
+                        DyFragments.ATTR_TEXT, DyFragments.ATTR_CODEC
+                    )
+            )
+            .where(DyFragments.HASH, talk)
+            .where(DyFragments.RANGE, key)
+            .iterator();
+        String text = "";
+        if (items.hasNext()) {
+            final Item item = items.next();
+            text = Codec.of(item.get(DyFragments.ATTR_CODEC).getS()).decode(
+                item.get(DyFragments.ATTR_TEXT).getB().array()
+            );
+        }
+        return text;
+    }
+
+}
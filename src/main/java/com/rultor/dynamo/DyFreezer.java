@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
+import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.amazonaws.services.dynamodbv2.model.Select;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.QueryValve;
+import com.jcabi.dynamo.Region;
+import com.jcabi.log.Logger;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedList;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Mover of talks, which are not active for a long time, into the
+ * cold storage.
+ *
+ * <p>Talks inactive longer than the given age are found in the index
+ * {@link DyTalks#IDX_ACTIVE} and moved into the {@link Vault}, while
+ * their items become small tombstones, see {@link DyTalk#freeze(long)}.
+ * They are taken back from the vault when they are read again. It is
+ * supposed to run in background, from time to time.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = { "region", "vault", "age" })
+public final class DyFreezer implements Runnable {
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Cold storage.
+     */
+    private final transient Vault vault;
+
+    /**
+     * How long a talk must be inactive, in msec.
+     */
+    private final transient long age;
+
+    /**
+     * Ctor.
+     * @param reg Region
+     * @param vlt Cold storage
+     * @param msec How long a talk must be inactive, in msec
+     */
+    public DyFreezer(final Region reg, final Vault vlt, final long msec) {
+        this.region = reg;
+        this.vault = vlt;
+        this.age = msec;
+    }
+
+    @Override
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public void run() {
+        final long start = System.currentTimeMillis();
+        final long before = start - this.age;
+        int total = 0;
+        for (final Item item : this.stale(before)) {
+            try {
+                if (new DyTalk(item, this.vault).freeze(before)) {
+                    ++total;
+                }
+                // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final IOException | RuntimeException ex) {
+                Logger.warn(
+                    this, "Failed to freeze talk %s: %[exception]s",
+                    item, ex
+                );
+            }
+        }
+        Logger.info(
+            this, "%d talk(s) inactive for over %[ms]s frozen in %[ms]s",
+            total, this.age, System.currentTimeMillis() - start
+        );
+    }
+
+    /**
+     * Find talks inactive since that time.
+     * @param before Time, in msec
+     * @return Items found
+     */
+    private Collection<Item> stale(final long before) {
+        final Collection<Item> found = new LinkedList<>();
+        for (final Item item : this.region.table(DyTalks.TBL)
+            .frame()
+            .through(
+                new QueryValve()
+                    .withIndexName(DyTalks.IDX_ACTIVE)
+                    .withConsistentRead(false)
+                    .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                    .withAttributesToGet(DyTalks.HASH, DyTalks.ATTR_NUMBER)
+            )
+            .where(DyTalks.ATTR_ACTIVE, Boolean.toString(false))
+            .where(
+                DyTalks.ATTR_UPDATED,
+                new Condition()
+                    .withComparisonOperator(ComparisonOperator.LT)
+                    .withAttributeValueList(
+                        new AttributeValue().withN(Long.toString(before))
+                    )
+            )) {
+            found.add(item);
+        }
+        return found;
+    }
+
+}
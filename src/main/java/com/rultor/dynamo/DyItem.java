@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.AttributeValueUpdate;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Frame;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.Table;
+import java.io.IOException;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Item of the table of talks, made of attributes read by a batch request.
+ *
+ * <p>Attributes which were not read are fetched from the table, item
+ * by item, when requested, as well as all modifications go to the
+ * table directly.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@Immutable
+@ToString(of = "attrs")
+@EqualsAndHashCode(of = "attrs")
+final class DyItem implements Item {
+
+    /**
+     * Table of talks.
+     */
+    private final transient Table table;
+
+    /**
+     * Attributes read.
+     */
+    private final transient Attributes attrs;
+
+    /**
+     * Ctor.
+     * @param tbl Table of talks
+     * @param read Attributes read, including the key
+     */
+    DyItem(final Table tbl, final Map<String, AttributeValue> read) {
+        this.table = tbl;
+        this.attrs = new Attributes(read);
+    }
+
+    @Override
+    public AttributeValue get(final String attr) throws IOException {
+        final AttributeValue value;
+        if (this.attrs.containsKey(attr)) {
+            value = this.attrs.get(attr);
+        } else {
+            value = this.origin().get(attr);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean has(final String attr) {
+        return this.attrs.containsKey(attr);
+    }
+
+    @Override
+    public Map<String, AttributeValue> put(final String attr,
+        final AttributeValueUpdate value) throws IOException {
+        return this.origin().put(attr, value);
+    }
+
+    @Override
+    public Map<String, AttributeValue> put(
+        final Map<String, AttributeValueUpdate> values) throws IOException {
+        return this.origin().put(values);
+    }
+
+    @Override
+    public Frame frame() {
+        return this.table.frame();
+    }
+
+    /**
+     * The item in the table.
+     * @return The item
+     */
+    private Item origin() {
+        return this.table.frame()
+            .where(DyTalks.HASH, this.attrs.get(DyTalks.HASH).getS())
+            .iterator().next();
+    }
+
+}
@@ -0,0 +1,391 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.Region;
+import com.jcabi.dynamo.ScanValve;
+import com.jcabi.dynamo.Table;
+import com.jcabi.log.Logger;
+import com.rultor.spi.Leases;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Leases in Dynamo.
+ *
+ * <p>Talks are split into shards by hash codes of their names. Every node
+ * announces itself in the table on every renewal and holds its fair share
+ * of shards: their total number divided by the number of live nodes.
+ * Leases of a dead node expire and are taken over by others, while a node
+ * holding more than its share releases the extra ones to newcomers.</p>
+ *
+ * <p>While leases are being renewed, the shards held before stay owned,
+ * except the ones about to be released, which stop being owned right
+ * before that. The new set of shards and the new expiration time are
+ * set together, at the end.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@ToString(of = { "node", "shards" })
+@EqualsAndHashCode(of = { "region", "node" })
+public final class DyLeases implements Leases {
+
+    /**
+     * Table name.
+     */
+    public static final String TBL = "leases";
+
+    /**
+     * Unique ID of a shard or a node.
+     */
+    public static final String HASH = "id";
+
+    /**
+     * Node, which holds the lease.
+     */
+    public static final String ATTR_OWNER = "owner";
+
+    /**
+     * When the lease expires, in msec.
+     */
+    public static final String ATTR_EXPIRES = "expires";
+
+    /**
+     * Default number of shards.
+     */
+    public static final int SHARDS = Tv.SIXTY;
+
+    /**
+     * Default lifetime of a lease, in msec.
+     */
+    public static final long TTL = TimeUnit.MINUTES.toMillis(3L);
+
+    /**
+     * Prefix of IDs of shards.
+     */
+    private static final String SHARD = "shard:";
+
+    /**
+     * Prefix of IDs of nodes.
+     */
+    private static final String NODE = "node:";
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Name of this node.
+     */
+    private final transient String node;
+
+    /**
+     * Total number of shards.
+     */
+    private final transient int shards;
+
+    /**
+     * Lifetime of a lease, in msec.
+     */
+    private final transient long ttl;
+
+    /**
+     * Shards owned by this node and when they stop being ours.
+     */
+    private final transient AtomicReference<DyLeases.Held> held;
+
+    /**
+     * Ctor.
+     * @param reg Region
+     * @param name Unique name of this node
+     */
+    public DyLeases(final Region reg, final String name) {
+        this(reg, name, DyLeases.SHARDS, DyLeases.TTL);
+    }
+
+    /**
+     * Ctor.
+     * @param reg Region
+     * @param name Unique name of this node
+     * @param total Total number of shards
+     * @param msec Lifetime of a lease, in msec
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public DyLeases(final Region reg, final String name, final int total,
+        final long msec) {
+        this.region = reg;
+        this.node = name;
+        this.shards = total;
+        this.ttl = msec;
+        this.held = new AtomicReference<>(
+            new DyLeases.Held(Collections.emptySet(), 0L)
+        );
+    }
+
+    /**
+     * Renew leases.
+     *
+     * <p>Leases are renewed for {@link #ttl}, but this node considers
+     * them its own only for two thirds of it, leaving the rest as a
+     * margin for clock skew between nodes and for the work started right
+     * before that moment. It has to be called again before that,
+     * otherwise the node stops owning anything.</p>
+     */
+    @Override
+    public void renew() throws IOException {
+        final long now = System.currentTimeMillis();
+        final Set<Integer> mine = this.claim();
+        this.held.set(
+            new DyLeases.Held(
+                Collections.unmodifiableSet(mine),
+                now + this.ttl - this.ttl / 3L
+            )
+        );
+        Logger.info(
+            this, "Node \"%s\" holds %d shard(s) out of %d",
+            this.node, mine.size(), this.shards
+        );
+    }
+
+    @Override
+    public boolean owns(final String name) {
+        return this.held.get().has(
+            Math.floorMod(name.hashCode(), this.shards)
+        );
+    }
+
+    @Override
+    public boolean leads() {
+        return this.held.get().has(0);
+    }
+
+    /**
+     * Announce this node and claim its fair share of shards.
+     * @return Shards owned
+     * @throws IOException If fails
+     */
+    private Set<Integer> claim() throws IOException {
+        final long now = System.currentTimeMillis();
+        final Table table = this.region.table(DyLeases.TBL);
+        table.put(
+            new Attributes()
+                .with(DyLeases.HASH, DyLeases.NODE + this.node)
+                .with(DyLeases.ATTR_OWNER, this.node)
+                .with(DyLeases.ATTR_EXPIRES, now + this.ttl)
+        );
+        final Set<Integer> mine = new HashSet<>(0);
+        final Set<Integer> taken = new HashSet<>(0);
+        int live = 0;
+        for (final Item item : table.frame().through(new ScanValve())) {
+            final String id = item.get(DyLeases.HASH).getS();
+            final boolean alive = Long.parseLong(
+                item.get(DyLeases.ATTR_EXPIRES).getN()
+            ) > now;
+            if (id.startsWith(DyLeases.NODE)) {
+                if (alive) {
+                    ++live;
+                } else {
+                    table.delete(
+                        Collections.singletonMap(
+                            DyLeases.HASH, new AttributeValue(id)
+                        )
+                    );
+                }
+                continue;
+            }
+            final int shard = Integer.parseInt(
+                id.substring(DyLeases.SHARD.length())
+            );
+            if (!alive) {
+                continue;
+            }
+            if (item.get(DyLeases.ATTR_OWNER).getS().equals(this.node)) {
+                mine.add(shard);
+            } else {
+                taken.add(shard);
+            }
+        }
+        final int share = (this.shards + live - 1) / Math.max(live, 1);
+        final Set<Integer> kept = new HashSet<>(0);
+        for (final Integer shard : mine) {
+            if (kept.size() >= share) {
+                this.held.updateAndGet(old -> old.without(shard));
+                this.update(shard, 0L, "#owner = :me", now);
+            } else if (
+                this.update(shard, now + this.ttl, "#owner = :me", now)
+            ) {
+                kept.add(shard);
+            }
+        }
+        for (int shard = 0; shard < this.shards; ++shard) {
+            if (kept.size() >= share) {
+                break;
+            }
+            if (mine.contains(shard) || taken.contains(shard)) {
+                continue;
+            }
+            if (this.update(
+                shard, now + this.ttl,
+                "attribute_not_exists(#owner) OR #expires < :now", now
+            )) {
+                kept.add(shard);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Set the owner of the shard to this node, if the condition is met.
+     * @param shard The shard
+     * @param expires When the lease expires
+     * @param condition The condition
+     * @param now Current time
+     * @return TRUE if updated
+     * @throws IOException If fails
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private boolean update(final int shard, final long expires,
+        final String condition, final long now) throws IOException {
+        final Map<String, String> names = new HashMap<>(0);
+        names.put("#owner", DyLeases.ATTR_OWNER);
+        names.put("#expires", DyLeases.ATTR_EXPIRES);
+        final Map<String, AttributeValue> values = new HashMap<>(0);
+        values.put(":me", new AttributeValue(this.node));
+        values.put(
+            ":expires", new AttributeValue().withN(Long.toString(expires))
+        );
+        if (condition.contains(":now")) {
+            values.put(
+                ":now", new AttributeValue().withN(Long.toString(now))
+            );
+        }
+        final Table table = this.region.table(DyLeases.TBL);
+        final AmazonDynamoDB aws = table.region().aws();
+        boolean done;
+        try {
+            aws.updateItem(
+                new UpdateItemRequest()
+                    .withTableName(table.name())
+                    .withKey(
+                        Collections.singletonMap(
+                            DyLeases.HASH,
+                            new AttributeValue(
+                                String.format(
+                                    "%s%d", DyLeases.SHARD, shard
+                                )
+                            )
+                        )
+                    )
+                    .withUpdateExpression(
+                        "SET #owner = :me, #expires = :expires"
+                    )
+                    .withConditionExpression(condition)
+                    .withExpressionAttributeNames(names)
+                    .withExpressionAttributeValues(values)
+            );
+            done = true;
+        } catch (final ConditionalCheckFailedException ex) {
+            done = false;
+        } finally {
+            aws.shutdown();
+        }
+        return done;
+    }
+
+    /**
+     * Shards held, until the moment they stop being ours.
+     *
+     * @since 2.0
+     */
+    private static final class Held {
+        /**
+         * Shards.
+         */
+        private final transient Set<Integer> shards;
+
+        /**
+         * When they stop being ours, in msec.
+         */
+        private final transient long until;
+
+        /**
+         * Ctor.
+         * @param set Shards
+         * @param msec When they stop being ours
+         */
+        Held(final Set<Integer> set, final long msec) {
+            this.shards = set;
+            this.until = msec;
+        }
+
+        /**
+         * The shard is ours now?
+         * @param shard The shard
+         * @return TRUE if it is
+         */
+        public boolean has(final int shard) {
+            return System.currentTimeMillis() < this.until
+                && this.shards.contains(shard);
+        }
+
+        /**
+         * The same, but without this shard.
+         * @param shard The shard
+         * @return New one
+         */
+        public DyLeases.Held without(final int shard) {
+            final Set<Integer> rest = new HashSet<>(this.shards);
+            rest.remove(shard);
+            return new DyLeases.Held(
+                Collections.unmodifiableSet(rest), this.until
+            );
+        }
+    }
+
+}
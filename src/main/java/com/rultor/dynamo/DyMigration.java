@@ -0,0 +1,278 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeDefinition;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BillingMode;
+import com.amazonaws.services.dynamodbv2.model.CreateGlobalSecondaryIndexAction;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexDescription;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexUpdate;
+import com.amazonaws.services.dynamodbv2.model.KeySchemaElement;
+import com.amazonaws.services.dynamodbv2.model.KeyType;
+import com.amazonaws.services.dynamodbv2.model.Projection;
+import com.amazonaws.services.dynamodbv2.model.ProjectionType;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
+import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.amazonaws.services.dynamodbv2.model.UpdateTableRequest;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.dynamo.QueryValve;
+import com.jcabi.dynamo.Region;
+import com.jcabi.dynamo.Table;
+import com.jcabi.log.Logger;
+import com.rultor.spi.Talk;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Migration of talks in Dynamo to the current format of XML.
+ *
+ * <p>It scans the table once, finds talks saved in older formats (see
+ * {@link Talk#FORMAT}) and saves them again, upgraded, so that reading
+ * them later doesn't need any upgrading and validating. Talks without
+ * {@link DyTalks#ATTR_PUBLIC} are saved again too, in order to get into
+ * the index of recent talks, as well as talks without
+ * {@link DyTalks#ATTR_SUMMARY}. It is supposed to run once, in background,
+ * when the application starts.</p>
+ *
+ * <p>Before that, it creates the index {@link DyTalks#IDX_RECENT}, if
+ * the table doesn't have it yet. DynamoDB fills it in with the talks
+ * already having {@link DyTalks#ATTR_RECENT}, in background, and
+ * {@link DyTalks#recent()} fails until the index becomes active.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = "region")
+public final class DyMigration implements Runnable {
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Ctor.
+     * @param reg Region
+     */
+    public DyMigration(final Region reg) {
+        this.region = reg;
+    }
+
+    @Override
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public void run() {
+        final long start = System.currentTimeMillis();
+        int total = 0;
+        try {
+            this.index();
+            for (final String name : this.legacy()) {
+                try {
+                    if (this.talk(name).migrate()) {
+                        ++total;
+                    }
+                    // @checkstyle IllegalCatchCheck (1 line)
+                } catch (final IOException | RuntimeException ex) {
+                    Logger.warn(
+                        this, "Failed to migrate talk \"%s\": %[exception]s",
+                        name, ex
+                    );
+                }
+            }
+        } catch (final IOException ex) {
+            Logger.error(this, "Migration failed: %[exception]s", ex);
+        }
+        Logger.info(
+            this, "%d talk(s) migrated to format #%d in %[ms]s",
+            total, Talk.FORMAT, System.currentTimeMillis() - start
+        );
+    }
+
+    /**
+     * Create the index of recent talks, if it is absent.
+     * @throws IOException If fails
+     */
+    private void index() throws IOException {
+        final Table table = this.region.table(DyTalks.TBL);
+        final AmazonDynamoDB aws = table.region().aws();
+        try {
+            final TableDescription desc = aws.describeTable(table.name())
+                .getTable();
+            final Collection<GlobalSecondaryIndexDescription> indexes =
+                desc.getGlobalSecondaryIndexes();
+            if (indexes != null && indexes.stream().anyMatch(
+                idx -> DyTalks.IDX_RECENT.equals(idx.getIndexName())
+            )) {
+                return;
+            }
+            final CreateGlobalSecondaryIndexAction create =
+                new CreateGlobalSecondaryIndexAction()
+                    .withIndexName(DyTalks.IDX_RECENT)
+                    .withKeySchema(
+                        new KeySchemaElement(
+                            DyTalks.ATTR_RECENT, KeyType.HASH
+                        ),
+                        new KeySchemaElement(
+                            DyTalks.ATTR_UPDATED, KeyType.RANGE
+                        )
+                    )
+                    .withProjection(
+                        new Projection()
+                            .withProjectionType(ProjectionType.INCLUDE)
+                            .withNonKeyAttributes(
+                                DyTalks.ATTR_NUMBER, DyTalks.ATTR_SUMMARY
+                            )
+                    );
+            if (desc.getBillingModeSummary() == null
+                || !BillingMode.PAY_PER_REQUEST.toString().equals(
+                    desc.getBillingModeSummary().getBillingMode()
+                )) {
+                create.setProvisionedThroughput(
+                    new ProvisionedThroughput(1L, 1L)
+                );
+            }
+            aws.updateTable(
+                new UpdateTableRequest()
+                    .withTableName(table.name())
+                    .withAttributeDefinitions(
+                        new AttributeDefinition(
+                            DyTalks.ATTR_RECENT, ScalarAttributeType.S
+                        ),
+                        new AttributeDefinition(
+                            DyTalks.ATTR_UPDATED, ScalarAttributeType.N
+                        )
+                    )
+                    .withGlobalSecondaryIndexUpdates(
+                        Collections.singletonList(
+                            new GlobalSecondaryIndexUpdate()
+                                .withCreate(create)
+                        )
+                    )
+            );
+            Logger.info(
+                this, "Index \"%s\" is being created in \"%s\"",
+                DyTalks.IDX_RECENT, table.name()
+            );
+        } finally {
+            aws.shutdown();
+        }
+    }
+
+    /**
+     * Find names of talks saved in older formats or without attributes
+     * which were added later.
+     * @return Names
+     * @throws IOException If fails
+     */
+    private Collection<String> legacy() throws IOException {
+        final Table table = this.region.table(DyTalks.TBL);
+        final Map<String, String> names = new HashMap<>(0);
+        names.put("#name", DyTalks.HASH);
+        names.put("#format", DyTalks.ATTR_FORMAT);
+        names.put("#public", DyTalks.ATTR_PUBLIC);
+        names.put("#summary", DyTalks.ATTR_SUMMARY);
+        final Map<String, AttributeValue> values = new HashMap<>(0);
+        values.put(
+            ":format", new AttributeValue().withN(Integer.toString(Talk.FORMAT))
+        );
+        final Collection<String> found = new LinkedList<>();
+        final AmazonDynamoDB aws = table.region().aws();
+        try {
+            Map<String, AttributeValue> next = null;
+            do {
+                final ScanResult result = aws.scan(
+                    new ScanRequest()
+                        .withTableName(table.name())
+                        .withProjectionExpression("#name")
+                        .withFilterExpression(
+                            String.join(
+                                " OR ",
+                                "attribute_not_exists(#format)",
+                                "#format < :format",
+                                "attribute_not_exists(#public)",
+                                "attribute_not_exists(#summary)"
+                            )
+                        )
+                        .withExpressionAttributeNames(names)
+                        .withExpressionAttributeValues(values)
+                        .withExclusiveStartKey(next)
+                );
+                for (final Map<String, AttributeValue> item
+                    : result.getItems()) {
+                    found.add(item.get(DyTalks.HASH).getS());
+                }
+                next = result.getLastEvaluatedKey();
+            } while (next != null && !next.isEmpty());
+        } finally {
+            aws.shutdown();
+        }
+        Logger.info(
+            this, "%d talk(s) found in formats older than #%d or incomplete",
+            found.size(), Talk.FORMAT
+        );
+        return found;
+    }
+
+    /**
+     * Get the talk by name.
+     * @param name The name
+     * @return The talk
+     */
+    private DyTalk talk(final String name) {
+        return new DyTalk(
+            this.region.table(DyTalks.TBL)
+                .frame()
+                .through(
+                    new QueryValve()
+                        .withLimit(1)
+                        .withAttributesToGet(
+                            DyTalks.HASH, DyTalks.ATTR_NUMBER
+                        )
+                )
+                .where(DyTalks.HASH, name)
+                .iterator().next()
+        );
+    }
+
+}
@@ -29,32 +29,35 @@
  */
 package com.rultor.dynamo;
 
-import com.amazonaws.services.dynamodbv2.model.AttributeAction;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
-import com.amazonaws.services.dynamodbv2.model.AttributeValueUpdate;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
 import com.jcabi.aspects.Immutable;
-import com.jcabi.dynamo.AttributeUpdates;
+import com.jcabi.aspects.Tv;
 import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.Table;
+import com.jcabi.log.Logger;
 import com.jcabi.xml.StrictXML;
 import com.jcabi.xml.XML;
 import com.jcabi.xml.XMLDocument;
 import com.jcabi.xml.XSLDocument;
 import com.rultor.spi.Talk;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
-import org.apache.commons.io.IOUtils;
 import org.cactoos.list.ListOf;
 import org.w3c.dom.Node;
 import org.xembly.Directive;
+import org.xembly.Directives;
 import org.xembly.ImpossibleModificationException;
 import org.xembly.Xembler;
 
@@ -80,21 +83,36 @@ public final class DyTalk implements Talk {
     private static final int LIMIT = 399 << 10;
 
     /**
-     * UTF-8.
+     * How many times to try to save the XML, if modified concurrently.
      */
-    private static final String UTF_8 = "UTF-8";
+    private static final int ATTEMPTS = Tv.FIVE;
 
     /**
      * Item.
      */
     private final transient Item item;
 
+    /**
+     * Cold storage.
+     */
+    private final transient Vault vault;
+
     /**
      * Ctor.
      * @param itm Item
      */
     DyTalk(final Item itm) {
+        this(itm, Vault.NONE);
+    }
+
+    /**
+     * Ctor.
+     * @param itm Item
+     * @param vlt Cold storage, where the talk may be
+     */
+    DyTalk(final Item itm, final Vault vlt) {
         this.item = itm;
+        this.vault = vlt;
     }
 
     @Override
@@ -116,103 +134,563 @@ public final class DyTalk implements Talk {
 
     @Override
     public XML read() throws IOException {
-        final String xml;
-        if (this.item.has(DyTalks.ATTR_XML_ZIP)) {
-            xml = DyTalk.unzip(
-                this.item.get(DyTalks.ATTR_XML_ZIP).getB().array()
+        return DyTalk.xml(this.fetch());
+    }
+
+    /**
+     * Read its summary.
+     *
+     * <p>The summary is saved together with the XML, and it is
+     * projected into the indexes, so that a talk found by a query
+     * doesn't need to be read again. A talk not yet migrated doesn't
+     * have it, and its summary is made from the XML.</p>
+     */
+    @Override
+    public XML summary() throws IOException {
+        final XML xml;
+        if (this.item.has(DyTalks.ATTR_SUMMARY)) {
+            xml = new XMLDocument(
+                Codec.DEFLATED.decode(
+                    this.item.get(DyTalks.ATTR_SUMMARY).getB().array()
+                )
             );
         } else {
-            xml = this.item.get(DyTalks.ATTR_XML).getS();
+            xml = Talk.SUMMARY.transform(this.read());
         }
-        return new StrictXML(
-            Talk.UPGRADE.transform(new XMLDocument(xml)),
-            Talk.SCHEMA
-        );
+        return xml;
     }
 
+    /**
+     * Modify the XML.
+     *
+     * <p>The XML is saved only if nobody else modified it since it was
+     * read, which is checked by its version. Otherwise, it is read again
+     * and the directives are applied again, a few times.</p>
+     */
     @Override
     public void modify(final Iterable<Directive> dirs) throws IOException {
         if (!new ListOf<>(dirs).isEmpty()) {
-            final XML xml = this.read();
-            final Node node = xml.node();
+            boolean saved = false;
+            for (int attempt = 1; !saved; ++attempt) {
+                final Map<String, AttributeValue> attrs = this.fetch();
+                saved = this.save(
+                    attrs, DyTalk.modified(DyTalk.xml(attrs), dirs)
+                );
+                if (!saved && attempt >= DyTalk.ATTEMPTS) {
+                    throw new IllegalStateException(
+                        String.format(
+                            "Talk \"%s\" was modified concurrently %d times",
+                            this.name(), attempt
+                        )
+                    );
+                }
+                if (!saved) {
+                    Logger.info(
+                        this, "Talk \"%s\" modified concurrently, retrying",
+                        this.name()
+                    );
+                }
+            }
+        }
+    }
+
+    /**
+     * Make it active or inactive.
+     *
+     * <p>An inactive talk gets into the index of recent ones, if it is
+     * public, which is checked by the condition of the update.</p>
+     */
+    @Override
+    public void active(final boolean yes) throws IOException {
+        if (yes || !this.activate(false, true)) {
+            this.activate(yes, false);
+        }
+    }
+
+    /**
+     * Save the XML again in the current format, if it is not yet.
+     * @return TRUE if it was saved
+     * @throws IOException If fails
+     */
+    boolean migrate() throws IOException {
+        final Map<String, AttributeValue> attrs = this.fetch();
+        boolean saved = false;
+        if (!DyTalk.current(attrs)
+            || !attrs.containsKey(DyTalks.ATTR_PUBLIC)
+            || !attrs.containsKey(DyTalks.ATTR_SUMMARY)) {
+            saved = this.save(
+                attrs, DyTalk.modified(DyTalk.xml(attrs), new Directives())
+            );
+        }
+        return saved;
+    }
+
+    /**
+     * Move the talk into the cold storage, leaving a tombstone.
+     *
+     * <p>The tombstone keeps everything but the XML: the summary, the
+     * number, the date of update, etc., while the talk drops out of the
+     * index of active talks. The talk is moved only if it is inactive
+     * since that time and nobody modified it since it was read.</p>
+     *
+     * @param before Time, in msec, it must be inactive since
+     * @return TRUE if moved
+     * @throws IOException If fails
+     */
+    boolean freeze(final long before) throws IOException {
+        final Map<String, AttributeValue> attrs = this.load();
+        boolean frozen = false;
+        if (!attrs.containsKey(DyTalks.ATTR_COLD) && DyTalk.current(attrs)
+            && attrs.containsKey(DyTalks.ATTR_VERSION)) {
+            final Map<String, String> names = new HashMap<>(0);
+            names.put("#cold", DyTalks.ATTR_COLD);
+            names.put("#version", DyTalks.ATTR_VERSION);
+            names.put("#active", DyTalks.ATTR_ACTIVE);
+            names.put("#updated", DyTalks.ATTR_UPDATED);
+            final Collection<String> removes = new LinkedList<>();
+            removes.add("#active");
+            for (final String attr : Sections.attributes()) {
+                if (attrs.containsKey(attr)) {
+                    final String name = String.format("#s%d", names.size());
+                    names.put(name, attr);
+                    removes.add(name);
+                }
+            }
+            final long version = Long.parseLong(
+                attrs.get(DyTalks.ATTR_VERSION).getN()
+            );
+            final Map<String, AttributeValue> values = new HashMap<>(0);
+            values.put(
+                ":cold",
+                new AttributeValue(
+                    this.vault.put(this.number(), DyTalk.xml(attrs))
+                )
+            );
+            values.put(
+                ":version", new AttributeValue().withN(Long.toString(version))
+            );
+            values.put(
+                ":next",
+                new AttributeValue().withN(Long.toString(version + 1L))
+            );
+            values.put(
+                ":false", new AttributeValue(Boolean.toString(false))
+            );
+            values.put(
+                ":before", new AttributeValue().withN(Long.toString(before))
+            );
+            final Table table = this.item.frame().table();
+            final AmazonDynamoDB aws = table.region().aws();
             try {
-                new Xembler(dirs).apply(node);
-            } catch (final ImpossibleModificationException ex) {
-                throw new IllegalStateException(
-                    String.format(
-                        "failed to apply %s to %s",
-                        dirs.toString(), xml
-                    ),
-                    ex
+                aws.updateItem(
+                    new UpdateItemRequest()
+                        .withTableName(table.name())
+                        .withKey(this.key())
+                        .withUpdateExpression(
+                            String.format(
+                                "SET #cold = :cold, #version = :next REMOVE %s",
+                                String.join(", ", removes)
+                            )
+                        )
+                        .withConditionExpression(
+                            String.join(
+                                " AND ",
+                                "#version = :version",
+                                "#active = :false",
+                                "#updated < :before"
+                            )
+                        )
+                        .withExpressionAttributeNames(names)
+                        .withExpressionAttributeValues(values)
                 );
+                frozen = true;
+            } catch (final ConditionalCheckFailedException ex) {
+                frozen = false;
+            } finally {
+                aws.shutdown();
             }
-            final byte[] body = DyTalk.zip(
-                XSLDocument.STRIP.transform(
-                    new StrictXML(new XMLDocument(node), Talk.SCHEMA)
-                ).toString()
+        }
+        return frozen;
+    }
+
+    /**
+     * Make it active or inactive and mark as updated.
+     * @param yes TRUE if active
+     * @param recent TRUE if it has to get into the index of recent ones,
+     *  but only if it is public
+     * @return TRUE if updated, FALSE if it is not public
+     * @throws IOException If fails
+     */
+    private boolean activate(final boolean yes, final boolean recent)
+        throws IOException {
+        final Map<String, String> names = new HashMap<>(0);
+        names.put("#active", DyTalks.ATTR_ACTIVE);
+        names.put("#updated", DyTalks.ATTR_UPDATED);
+        names.put("#recent", DyTalks.ATTR_RECENT);
+        final Map<String, AttributeValue> values = new HashMap<>(0);
+        values.put(
+            ":active", new AttributeValue().withS(Boolean.toString(yes))
+        );
+        values.put(
+            ":updated",
+            new AttributeValue().withN(
+                Long.toString(System.currentTimeMillis())
+            )
+        );
+        final UpdateItemRequest request = new UpdateItemRequest()
+            .withKey(this.key())
+            .withExpressionAttributeNames(names)
+            .withExpressionAttributeValues(values);
+        if (recent) {
+            names.put("#public", DyTalks.ATTR_PUBLIC);
+            values.put(
+                ":true", new AttributeValue().withS(Boolean.toString(true))
+            );
+            request.withUpdateExpression(
+                "SET #active = :active, #updated = :updated, #recent = :true"
+            ).withConditionExpression("#public = :true");
+        } else {
+            request.withUpdateExpression(
+                "SET #active = :active, #updated = :updated REMOVE #recent"
             );
-            if (body.length > DyTalk.LIMIT) {
-                throw new IllegalArgumentException(
+        }
+        final Table table = this.item.frame().table();
+        final AmazonDynamoDB aws = table.region().aws();
+        boolean updated;
+        try {
+            aws.updateItem(request.withTableName(table.name()));
+            updated = true;
+        } catch (final ConditionalCheckFailedException ex) {
+            updated = false;
+        } finally {
+            aws.shutdown();
+        }
+        return updated;
+    }
+
+    /**
+     * Read the XML and its version, getting the talk back from the
+     * cold storage, if it is there.
+     * @return Attributes of the item
+     * @throws IOException If fails
+     */
+    private Map<String, AttributeValue> fetch() throws IOException {
+        Map<String, AttributeValue> attrs = this.load();
+        for (int attempt = 1; attrs.containsKey(DyTalks.ATTR_COLD);
+            ++attempt) {
+            if (attempt > DyTalk.ATTEMPTS) {
+                throw new IllegalStateException(
                     String.format(
-                        // @checkstyle LineLength (1 line)
-                        "XML is too big (%d bytes, maximum is %d), even after ZIP, in \"%s\"",
-                        body.length, DyTalk.LIMIT,
-                        this.item.get(DyTalks.HASH).getS()
+                        "Talk \"%s\" can't be taken from the vault",
+                        this.name()
                     )
                 );
             }
-            final AttributeValue value = new AttributeValue();
-            value.setB(ByteBuffer.wrap(body));
-            this.item.put(
-                new AttributeUpdates()
-                    .with(DyTalks.ATTR_UPDATED, System.currentTimeMillis())
-                    .with(
-                        DyTalks.ATTR_XML_ZIP,
-                        new AttributeValueUpdate(value, AttributeAction.PUT)
+            final String key = attrs.get(DyTalks.ATTR_COLD).getS();
+            if (this.save(attrs, this.vault.get(key))) {
+                Logger.info(
+                    this, "Talk \"%s\" taken back from %s",
+                    this.name(), key
+                );
+            }
+            attrs = this.load();
+        }
+        return attrs;
+    }
+
+    /**
+     * Read the item, in one consistent read.
+     * @return Attributes of the item
+     * @throws IOException If fails
+     */
+    private Map<String, AttributeValue> load() throws IOException {
+        final Table table = this.item.frame().table();
+        final AmazonDynamoDB aws = table.region().aws();
+        try {
+            final Map<String, AttributeValue> attrs = aws.getItem(
+                new GetItemRequest()
+                    .withTableName(table.name())
+                    .withKey(this.key())
+                    .withConsistentRead(true)
+                    .withAttributesToGet(DyTalk.attributes())
+            ).getItem();
+            if (attrs == null) {
+                throw new IllegalStateException(
+                    String.format("Talk \"%s\" is absent", this.name())
+                );
+            }
+            return attrs;
+        } finally {
+            aws.shutdown();
+        }
+    }
+
+    /**
+     * Save the XML, if its version is still the same.
+     *
+     * <p>Only the sections which are different from the saved ones
+     * are written, while the summary is always written. A talk taken
+     * back from the cold storage keeps its time of update.</p>
+     *
+     * @param attrs Attributes of the item, as they were read
+     * @param xml The modified XML
+     * @return TRUE if saved, FALSE if somebody modified it already
+     * @throws IOException If fails
+     */
+    private boolean save(final Map<String, AttributeValue> attrs,
+        final XML xml) throws IOException {
+        final Sections after = new Sections(xml);
+        final Sections before = DyTalk.saved(attrs);
+        final Map<String, String> names = new HashMap<>(0);
+        final Map<String, AttributeValue> values = new HashMap<>(0);
+        final Collection<String> sets = new LinkedList<>();
+        final Collection<String> removes = new LinkedList<>();
+        final Collection<String> changed = after.changed(before);
+        final byte[] summary = Codec.DEFLATED.encode(
+            Talk.SUMMARY.transform(xml).toString()
+        );
+        long size = summary.length;
+        for (final String attr : changed) {
+            final byte[] body = Codec.DEFLATED.encode(after.text(attr));
+            size += body.length;
+            final String name = String.format("#s%d", names.size());
+            names.put(name, attr);
+            values.put(
+                String.format(":s%d", values.size()),
+                new AttributeValue().withB(ByteBuffer.wrap(body))
+            );
+            sets.add(String.format("%s = :s%d", name, values.size() - 1));
+        }
+        for (final String attr : Sections.attributes()) {
+            if (attr.equals(DyTalks.ATTR_XML) || !attrs.containsKey(attr)
+                || changed.contains(attr)) {
+                continue;
+            }
+            if (after.text(attr) == null) {
+                final String name = String.format("#s%d", names.size());
+                names.put(name, attr);
+                removes.add(name);
+            } else {
+                size += attrs.get(attr).getB().remaining();
+            }
+        }
+        if (size > DyTalk.LIMIT) {
+            throw new IllegalArgumentException(
+                String.format(
+                    // @checkstyle LineLength (1 line)
+                    "XML is too big (%d bytes, maximum is %d), even encoded, in \"%s\"",
+                    size, DyTalk.LIMIT, this.name()
+                )
+            );
+        }
+        final boolean cold = attrs.containsKey(DyTalks.ATTR_COLD);
+        names.put("#version", DyTalks.ATTR_VERSION);
+        names.put("#format", DyTalks.ATTR_FORMAT);
+        names.put("#codec", DyTalks.ATTR_CODEC);
+        names.put("#summary", DyTalks.ATTR_SUMMARY);
+        names.put("#plain", DyTalks.ATTR_XML);
+        removes.add("#plain");
+        names.put("#public", DyTalks.ATTR_PUBLIC);
+        names.put("#recent", DyTalks.ATTR_RECENT);
+        final boolean pub = new XMLDocument(
+            after.text(DyTalks.ATTR_XML_ZIP)
+        ).nodes("/talk[@public='false']").isEmpty();
+        values.put(
+            ":public", new AttributeValue().withS(Boolean.toString(pub))
+        );
+        sets.add("#public = :public");
+        final boolean inactive;
+        if (attrs.containsKey(DyTalks.ATTR_ACTIVE)) {
+            inactive = !Boolean.parseBoolean(
+                attrs.get(DyTalks.ATTR_ACTIVE).getS()
+            );
+        } else {
+            inactive = cold;
+        }
+        if (cold) {
+            names.put("#cold", DyTalks.ATTR_COLD);
+            removes.add("#cold");
+        }
+        if (cold && !attrs.containsKey(DyTalks.ATTR_ACTIVE)) {
+            names.put("#active", DyTalks.ATTR_ACTIVE);
+            values.put(
+                ":active", new AttributeValue().withS(Boolean.toString(false))
+            );
+            sets.add("#active = :active");
+        }
+        if (pub && inactive) {
+            values.put(
+                ":recent", new AttributeValue().withS(Boolean.toString(true))
+            );
+            sets.add("#recent = :recent");
+        } else {
+            removes.add("#recent");
+        }
+        values.put(
+            ":format", new AttributeValue().withN(Integer.toString(Talk.FORMAT))
+        );
+        values.put(":codec", new AttributeValue().withS(Codec.DEFLATED.id()));
+        if (!cold) {
+            names.put("#updated", DyTalks.ATTR_UPDATED);
+            values.put(
+                ":updated",
+                new AttributeValue().withN(
+                    Long.toString(System.currentTimeMillis())
+                )
+            );
+            sets.add("#updated = :updated");
+        }
+        sets.add("#version = :next");
+        sets.add("#format = :format");
+        sets.add("#codec = :codec");
+        values.put(
+            ":summary", new AttributeValue().withB(ByteBuffer.wrap(summary))
+        );
+        sets.add("#summary = :summary");
+        final String condition;
+        long version = 0L;
+        if (attrs.containsKey(DyTalks.ATTR_VERSION)) {
+            version = Long.parseLong(attrs.get(DyTalks.ATTR_VERSION).getN());
+            values.put(
+                ":version", new AttributeValue().withN(Long.toString(version))
+            );
+            condition = "#version = :version";
+        } else {
+            condition = "attribute_not_exists(#version)";
+        }
+        values.put(
+            ":next", new AttributeValue().withN(Long.toString(version + 1L))
+        );
+        final Table table = this.item.frame().table();
+        final AmazonDynamoDB aws = table.region().aws();
+        boolean saved;
+        try {
+            aws.updateItem(
+                new UpdateItemRequest()
+                    .withTableName(table.name())
+                    .withKey(this.key())
+                    .withUpdateExpression(
+                        String.format(
+                            "SET %s REMOVE %s",
+                            String.join(", ", sets),
+                            String.join(", ", removes)
+                        )
                     )
+                    .withConditionExpression(condition)
+                    .withExpressionAttributeNames(names)
+                    .withExpressionAttributeValues(values)
             );
+            saved = true;
+        } catch (final ConditionalCheckFailedException ex) {
+            saved = false;
+        } finally {
+            aws.shutdown();
         }
+        return saved;
     }
 
-    @Override
-    public void active(final boolean yes) throws IOException {
-        this.item.put(
-            new AttributeUpdates()
-                .with(DyTalks.ATTR_ACTIVE, yes)
-                .with(DyTalks.ATTR_UPDATED, System.currentTimeMillis())
+    /**
+     * Apply directives to the XML, validate and strip it.
+     * @param xml The XML
+     * @param dirs Directives to apply
+     * @return The modified XML
+     */
+    static XML modified(final XML xml, final Iterable<Directive> dirs) {
+        final Node node = xml.node();
+        try {
+            new Xembler(dirs).apply(node);
+        } catch (final ImpossibleModificationException ex) {
+            throw new IllegalStateException(
+                String.format(
+                    "failed to apply %s to %s",
+                    dirs.toString(), xml
+                ),
+                ex
+            );
+        }
+        return XSLDocument.STRIP.transform(
+            new StrictXML(new XMLDocument(node), Talk.SCHEMA)
         );
     }
 
     /**
-     * Zip the XML.
-     * @param xml The XML content
-     * @return Zipped content
+     * Sections, as they are saved in the item now.
+     *
+     * <p>Sections saved with another codec or in an older format are
+     * all rewritten, as if nothing was saved.</p>
+     *
+     * @param attrs Attributes of the item
+     * @return Sections
      * @throws IOException If fails
      */
-    private static byte[] zip(final String xml) throws IOException {
-        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        final OutputStream output = new GZIPOutputStream(baos);
-        IOUtils.copy(
-            IOUtils.toInputStream(xml, Charset.forName(UTF_8)),
-            output
-        );
-        output.close();
-        return baos.toByteArray();
+    static Sections saved(final Map<String, AttributeValue> attrs)
+        throws IOException {
+        Map<String, AttributeValue> current = Collections.emptyMap();
+        if (DyTalk.current(attrs)
+            && Sections.codec(attrs).equals(Codec.DEFLATED)) {
+            current = attrs;
+        }
+        return new Sections(current);
+    }
+
+    /**
+     * Names of attributes to read, in order to make the XML.
+     * @return Names of attributes
+     */
+    static Collection<String> attributes() {
+        final Collection<String> attrs = Sections.attributes();
+        attrs.add(DyTalks.ATTR_ACTIVE);
+        attrs.add(DyTalks.ATTR_PUBLIC);
+        attrs.add(DyTalks.ATTR_VERSION);
+        attrs.add(DyTalks.ATTR_FORMAT);
+        attrs.add(DyTalks.ATTR_CODEC);
+        attrs.add(DyTalks.ATTR_SUMMARY);
+        attrs.add(DyTalks.ATTR_COLD);
+        return attrs;
     }
 
     /**
-     * Unzip the XML.
-     * @param bytes The XML content
-     * @return Unzipped content
+     * Key of the item.
+     * @return The key
      * @throws IOException If fails
      */
-    private static String unzip(final byte[] bytes) throws IOException {
-        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        IOUtils.copy(
-            new GZIPInputStream(new ByteArrayInputStream(bytes)),
-            baos
+    private Map<String, AttributeValue> key() throws IOException {
+        return Collections.singletonMap(
+            DyTalks.HASH, new AttributeValue().withS(this.name())
         );
-        return new String(baos.toByteArray(), Charset.forName(UTF_8));
+    }
+
+    /**
+     * Make XML from attributes of the item.
+     *
+     * <p>XML saved in the current format was validated when it was
+     * written, so it is neither upgraded nor validated again.</p>
+     *
+     * @param attrs Attributes
+     * @return The XML, upgraded and validated if necessary
+     * @throws IOException If fails
+     */
+    static XML xml(final Map<String, AttributeValue> attrs)
+        throws IOException {
+        final XML text = new Sections(attrs).xml();
+        final XML xml;
+        if (DyTalk.current(attrs)) {
+            xml = text;
+        } else {
+            xml = new StrictXML(Talk.UPGRADE.transform(text), Talk.SCHEMA);
+        }
+        return xml;
+    }
+
+    /**
+     * XML is saved in the current format?
+     * @param attrs Attributes of the item
+     * @return TRUE if it needs no upgrading
+     */
+    static boolean current(final Map<String, AttributeValue> attrs) {
+        return attrs.containsKey(DyTalks.ATTR_FORMAT)
+            && Integer.parseInt(attrs.get(DyTalks.ATTR_FORMAT).getN())
+            >= Talk.FORMAT;
     }
 
 }
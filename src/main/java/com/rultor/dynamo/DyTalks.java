@@ -30,26 +30,48 @@
 package com.rultor.dynamo;
 
 import co.stateful.Counter;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
 import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
 import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
 import com.amazonaws.services.dynamodbv2.model.Select;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Tv;
 import com.jcabi.dynamo.Attributes;
 import com.jcabi.dynamo.Conditions;
+import com.jcabi.dynamo.Item;
 import com.jcabi.dynamo.QueryValve;
 import com.jcabi.dynamo.Region;
+import com.jcabi.dynamo.Table;
+import com.jcabi.xml.XML;
 import com.rultor.spi.Talk;
 import com.rultor.spi.Talks;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.cactoos.iterable.Filtered;
 import org.cactoos.iterable.HeadOf;
 import org.cactoos.iterable.Mapped;
+import org.cactoos.list.ListOf;
 
 /**
  * Talks in Dynamo.
@@ -88,6 +110,12 @@ public final class DyTalks implements Talks {
      */
     public static final String IDX_SIBLINGS = "siblings";
 
+    /**
+     * Index name, sparse, only with inactive public talks.
+     * @since 2.0
+     */
+    public static final String IDX_RECENT = "recent";
+
     /**
      * Talk unique name.
      */
@@ -120,11 +148,73 @@ public final class DyTalks implements Talks {
      */
     public static final String ATTR_XML_ZIP = "zipxml";
 
+    /**
+     * Version of the XML, incremented on every modification.
+     * @since 2.0
+     */
+    public static final String ATTR_VERSION = "version";
+
+    /**
+     * Format of the XML, see {@link Talk#FORMAT}.
+     * @since 2.0
+     */
+    public static final String ATTR_FORMAT = "format";
+
+    /**
+     * Codec of the zipped XML, absent when it is GZIP.
+     * @since 2.0
+     */
+    public static final String ATTR_CODEC = "codec";
+
+    /**
+     * Is it public, the same as <code>/talk/@public</code>.
+     * @since 2.0
+     */
+    public static final String ATTR_PUBLIC = "public";
+
+    /**
+     * Present only if the talk is public and inactive, so that it gets
+     * into the sparse index {@link #IDX_RECENT}.
+     * @since 2.0
+     */
+    public static final String ATTR_RECENT = "recent";
+
+    /**
+     * Summary of the talk, see {@link Talk#SUMMARY}, encoded
+     * by {@link Codec#DEFLATED}.
+     * @since 2.0
+     */
+    public static final String ATTR_SUMMARY = "summary";
+
+    /**
+     * Key of the talk in the cold storage, present only when the talk
+     * is moved there and the item is just a tombstone, see {@link Vault}.
+     * @since 2.0
+     */
+    public static final String ATTR_COLD = "cold";
+
     /**
      * When updated.
      */
     public static final String ATTR_UPDATED = "updated";
 
+    /**
+     * Default size of a page, when listing active talks.
+     * @since 2.0
+     */
+    public static final int PAGE = Tv.FIFTY;
+
+    /**
+     * How many talks to read in one batch (the limit of DynamoDB).
+     * @since 2.0
+     */
+    public static final int BATCH = Tv.HUNDRED;
+
+    /**
+     * How many times to request keys left unprocessed in a batch.
+     */
+    private static final int ATTEMPTS = Tv.FIVE;
+
     /**
      * Region we're in.
      */
@@ -135,33 +225,96 @@ public final class DyTalks implements Talks {
      */
     private final transient Counter counter;
 
+    /**
+     * How many talks to fetch from DynamoDB in one query.
+     */
+    private final transient int page;
+
+    /**
+     * Cold storage of talks.
+     */
+    private final transient Vault vault;
+
     /**
      * Public ctor.
      * @param reg Region
      * @param cnt Counter of talks
      */
     public DyTalks(final Region reg, final Counter cnt) {
+        this(reg, cnt, DyTalks.PAGE);
+    }
+
+    /**
+     * Public ctor.
+     * @param reg Region
+     * @param cnt Counter of talks
+     * @param size How many talks to fetch in one query
+     * @since 2.0
+     */
+    public DyTalks(final Region reg, final Counter cnt, final int size) {
+        this(reg, cnt, size, Vault.NONE);
+    }
+
+    /**
+     * Public ctor.
+     * @param reg Region
+     * @param cnt Counter of talks
+     * @param size How many talks to fetch in one query
+     * @param vlt Cold storage of talks, which are moved there by
+     *  {@link DyFreezer}
+     * @since 2.0
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public DyTalks(final Region reg, final Counter cnt, final int size,
+        final Vault vlt) {
+        if (size < 1) {
+            throw new IllegalArgumentException(
+                String.format("Page size %d is too small", size)
+            );
+        }
         this.region = reg;
         this.counter = cnt;
+        this.page = size;
+        this.vault = vlt;
     }
 
     @Override
     public boolean exists(final long number) {
-        return this.region.table(DyTalks.TBL)
-            .frame()
-            .through(
-                new QueryValve()
-                    .withLimit(1)
-                    .withIndexName(DyTalks.IDX_NUMBERS)
-                    .withConsistentRead(false)
-            )
-            .where(DyTalks.ATTR_NUMBER, Conditions.equalTo(number))
-            .iterator().hasNext();
+        return this.find(number).isPresent();
     }
 
     @Override
     public Talk get(final long number) {
-        return new DyTalk(
+        return this.find(number).orElseThrow(
+            () -> new IllegalArgumentException(
+                String.format("Talk #%d not found", number)
+            )
+        );
+    }
+
+    @Override
+    public boolean exists(final String name) {
+        return this.find(name).isPresent();
+    }
+
+    @Override
+    public Talk get(final String name) {
+        return this.find(name).orElseThrow(
+            () -> new IllegalArgumentException(
+                String.format("Talk \"%s\" not found", name)
+            )
+        );
+    }
+
+    /**
+     * Find a talk by its number, in the index {@link #IDX_NUMBERS}.
+     *
+     * <p>The index has keys only, which is enough to make a talk
+     * out of it.</p>
+     */
+    @Override
+    public Optional<Talk> find(final long number) {
+        return this.first(
             this.region.table(DyTalks.TBL)
                 .frame()
                 .through(
@@ -173,34 +326,83 @@ public final class DyTalks implements Talks {
                         .withAttributesToGet(DyTalks.HASH, DyTalks.ATTR_NUMBER)
                 )
                 .where(DyTalks.ATTR_NUMBER, Conditions.equalTo(number))
-                .iterator().next()
         );
     }
 
     @Override
-    public boolean exists(final String name) {
-        return this.region.table(DyTalks.TBL)
-            .frame()
-            .through(new QueryValve().withLimit(1))
-            .where(DyTalks.HASH, name)
-            .iterator().hasNext();
-    }
-
-    @Override
-    public Talk get(final String name) {
-        return new DyTalk(
+    public Optional<Talk> find(final String name) {
+        return this.first(
             this.region.table(DyTalks.TBL)
                 .frame()
                 .through(
                     new QueryValve()
                         .withLimit(1)
-                        .withAttributesToGet(DyTalks.ATTR_NUMBER)
+                        .withAttributesToGet(
+                            DyTalks.HASH, DyTalks.ATTR_NUMBER
+                        )
                 )
                 .where(DyTalks.HASH, name)
-                .iterator().next()
         );
     }
 
+    /**
+     * Find talks by names.
+     *
+     * <p>They are read by {@code BatchGetItem}, keys and numbers only,
+     * in chunks of {@link #BATCH} keys.</p>
+     *
+     * @param names The names
+     * @return Talks by names
+     * @throws IOException If fails
+     */
+    @Override
+    public Map<String, Talk> named(final Iterable<String> names)
+        throws IOException {
+        final List<Map<String, AttributeValue>> keys = new LinkedList<>();
+        for (final String name : new HashSet<>(new ListOf<>(names))) {
+            keys.add(
+                Collections.singletonMap(
+                    DyTalks.HASH, new AttributeValue().withS(name)
+                )
+            );
+        }
+        final Table table = this.region.table(DyTalks.TBL);
+        final Map<String, Talk> found = new HashMap<>(0);
+        for (final List<Map<String, AttributeValue>> chunk
+            : Lists.partition(keys, DyTalks.BATCH)) {
+            final Collection<Map<String, AttributeValue>> items =
+                new LinkedList<>();
+            this.batch(
+                chunk, Arrays.asList(DyTalks.HASH, DyTalks.ATTR_NUMBER), items
+            );
+            for (final Map<String, AttributeValue> attrs : items) {
+                found.put(
+                    attrs.get(DyTalks.HASH).getS(),
+                    new DyTalk(new DyItem(table, attrs), this.vault)
+                );
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Find talks by numbers.
+     *
+     * <p>The index {@link #IDX_NUMBERS} can't be read in batches, that's
+     * why every number is a separate query.</p>
+     *
+     * @param numbers The numbers
+     * @return Talks by numbers
+     */
+    @Override
+    public Map<Long, Talk> numbered(final Iterable<Long> numbers) {
+        final Map<Long, Talk> found = new HashMap<>(0);
+        for (final Long number : numbers) {
+            this.find(number).ifPresent(talk -> found.put(number, talk));
+        }
+        return found;
+    }
+
     @Override
     public void delete(final String name) {
         Iterables.removeIf(
@@ -216,6 +418,11 @@ public final class DyTalks implements Talks {
     public void create(final String repo, final String name)
         throws IOException {
         final long number = this.counter.incrementAndGet(1L);
+        final byte[] summary = Codec.DEFLATED.encode(
+            String.format(
+                "<talk name='%s' number='%d' public='true'/>", name, number
+            )
+        );
         this.region.table(DyTalks.TBL).put(
             new Attributes()
                 .with(DyTalks.HASH, name)
@@ -223,73 +430,84 @@ public final class DyTalks implements Talks {
                 .with(DyTalks.ATTR_REPO, repo)
                 .with(DyTalks.ATTR_NUMBER, number)
                 .with(DyTalks.ATTR_UPDATED, System.currentTimeMillis())
+                .with(DyTalks.ATTR_PUBLIC, Boolean.toString(true))
                 .with(
                     DyTalks.ATTR_XML,
                     String.format("<talk name='%s' number='%d'/>", name, number)
                 )
+                .with(
+                    DyTalks.ATTR_SUMMARY,
+                    new AttributeValue().withB(ByteBuffer.wrap(summary))
+                )
         );
     }
 
+    /**
+     * Active talks.
+     *
+     * <p>All of them are returned, page by page: the next query
+     * to DynamoDB is made, starting from the last evaluated key of the
+     * previous one, only when the iterator gets to the end of the page.
+     * An iterator may be kept for a while in order to continue
+     * where it stopped.</p>
+     */
     @Override
     public Iterable<Talk> active() {
         return new Mapped<>(
-            DyTalk::new,
-            new HeadOf<>(
-                Tv.TEN,
-                this.region.table(DyTalks.TBL)
-                    .frame()
-                    .through(
-                        new QueryValve()
-                            .withIndexName(DyTalks.IDX_ACTIVE)
-                            .withConsistentRead(false)
-                            .withSelect(Select.SPECIFIC_ATTRIBUTES)
-                            .withAttributesToGet(
-                                DyTalks.HASH, DyTalks.ATTR_NUMBER
-                            )
-                    )
-                    .where(DyTalks.ATTR_ACTIVE, Boolean.toString(true))
-            )
+            item -> new DyTalk(item, this.vault),
+            this.region.table(DyTalks.TBL)
+                .frame()
+                .through(
+                    new QueryValve()
+                        .withIndexName(DyTalks.IDX_ACTIVE)
+                        .withConsistentRead(false)
+                        .withLimit(this.page)
+                        .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                        .withAttributesToGet(
+                            DyTalks.HASH, DyTalks.ATTR_NUMBER
+                        )
+                )
+                .where(DyTalks.ATTR_ACTIVE, Boolean.toString(true))
         );
     }
 
+    /**
+     * Recent public talks, which are not active any more.
+     *
+     * <p>They are found in the sparse index {@link #IDX_RECENT}, where
+     * only public talks are, so nothing has to be filtered out.</p>
+     */
     @Override
     public Iterable<Talk> recent() {
         return new HeadOf<>(
             Tv.FIVE,
-            new Filtered<>(
-                input -> {
-                    try {
-                        return !input.read().nodes(
-                            "/talk[@public='true']"
-                        ).isEmpty();
-                    } catch (final IOException ex) {
-                        throw new IllegalStateException(ex);
-                    }
-                },
-                new Mapped<>(
-                    DyTalk::new,
-                    this.region.table(DyTalks.TBL)
-                        .frame()
-                        .through(
-                            new QueryValve()
-                                .withIndexName(DyTalks.IDX_ACTIVE)
-                                .withScanIndexForward(false)
-                                .withConsistentRead(false)
-                                .withLimit(Tv.FIVE)
-                                .withSelect(Select.ALL_PROJECTED_ATTRIBUTES)
-                        )
-                        .where(
-                            DyTalks.ATTR_ACTIVE, Boolean.toString(false)
-                        )
-                )
+            new Mapped<>(
+                item -> new DyTalk(item, this.vault),
+                this.region.table(DyTalks.TBL)
+                    .frame()
+                    .through(
+                        new QueryValve()
+                            .withIndexName(DyTalks.IDX_RECENT)
+                            .withScanIndexForward(false)
+                            .withConsistentRead(false)
+                            .withLimit(Tv.FIVE)
+                            .withSelect(Select.ALL_PROJECTED_ATTRIBUTES)
+                    )
+                    .where(DyTalks.ATTR_RECENT, Boolean.toString(true))
             )
         );
     }
 
+    /**
+     * Siblings of the talk, found in the index {@link #IDX_SIBLINGS}.
+     *
+     * <p>Only the keys and {@link #ATTR_SUMMARY} are fetched, which is
+     * enough to render them without reading their XML.</p>
+     */
     @Override
     public Iterable<Talk> siblings(final String repo, final Date since) {
         return new Mapped<>(
-            DyTalk::new,
+            item -> new DyTalk(item, this.vault),
             this.region.table(DyTalks.TBL)
                 .frame()
                 .through(
@@ -298,7 +516,11 @@ public final class DyTalks implements Talks {
                         .withScanIndexForward(false)
                         .withConsistentRead(false)
                         .withLimit(Tv.TWENTY)
-                        .withSelect(Select.ALL_PROJECTED_ATTRIBUTES)
+                        .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                        .withAttributesToGet(
+                            DyTalks.HASH, DyTalks.ATTR_NUMBER,
+                            DyTalks.ATTR_UPDATED, DyTalks.ATTR_SUMMARY
+                        )
                 )
                 .where(DyTalks.ATTR_REPO, repo)
                 .where(
@@ -313,4 +535,157 @@ public final class DyTalks implements Talks {
                 )
         );
     }
+
+    /**
+     * Read XML of a few talks at once.
+     *
+     * <p>Talks are read by {@code BatchGetItem}, in chunks of
+     * {@link #BATCH} keys, which are fetched in parallel. Keys
+     * left unprocessed by DynamoDB are requested again, a few times,
+     * with a growing delay.</p>
+     *
+     * @param list The talks
+     * @return XML of them, by names
+     * @throws IOException If fails
+     */
+    @Override
+    public Map<String, XML> read(final Iterable<Talk> list)
+        throws IOException {
+        final List<Map<String, AttributeValue>> keys = new LinkedList<>();
+        for (final Talk talk : list) {
+            keys.add(
+                Collections.singletonMap(
+                    DyTalks.HASH, new AttributeValue().withS(talk.name())
+                )
+            );
+        }
+        final Map<String, XML> bodies = new ConcurrentHashMap<>(0);
+        Lists.partition(keys, DyTalks.BATCH).parallelStream().forEach(
+            chunk -> {
+                final Collection<Map<String, AttributeValue>> items =
+                    new LinkedList<>();
+                try {
+                    this.batch(chunk, DyTalks.attributes(), items);
+                    for (final Map<String, AttributeValue> attrs : items) {
+                        bodies.put(
+                            attrs.get(DyTalks.HASH).getS(), this.xml(attrs)
+                        );
+                    }
+                } catch (final IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        );
+        return bodies;
+    }
+
+    /**
+     * Read one chunk of talks.
+     * @param chunk Keys of the talks
+     * @param attributes Names of attributes to read
+     * @param items Where to put attributes of them
+     * @throws IOException If fails
+     */
+    private void batch(final List<Map<String, AttributeValue>> chunk,
+        final Collection<String> attributes,
+        final Collection<Map<String, AttributeValue>> items)
+        throws IOException {
+        final Table table = this.region.table(DyTalks.TBL);
+        final AmazonDynamoDB aws = table.region().aws();
+        try {
+            Map<String, KeysAndAttributes> request = Collections.singletonMap(
+                table.name(),
+                new KeysAndAttributes()
+                    .withKeys(chunk)
+                    .withConsistentRead(true)
+                    .withAttributesToGet(attributes)
+            );
+            for (int attempt = 1; !request.isEmpty(); ++attempt) {
+                if (attempt > DyTalks.ATTEMPTS) {
+                    throw new IOException(
+                        String.format(
+                            "%d keys left unprocessed after %d attempts",
+                            request.get(table.name()).getKeys().size(),
+                            DyTalks.ATTEMPTS
+                        )
+                    );
+                }
+                if (attempt > 1) {
+                    DyTalks.pause(attempt);
+                }
+                final BatchGetItemResult result = aws.batchGetItem(
+                    new BatchGetItemRequest().withRequestItems(request)
+                );
+                items.addAll(
+                    result.getResponses().getOrDefault(
+                        table.name(), Collections.emptyList()
+                    )
+                );
+                request = result.getUnprocessedKeys();
+            }
+        } finally {
+            aws.shutdown();
+        }
+    }
+
+    /**
+     * Make XML of the talk read in a batch.
+     *
+     * <p>A talk in the cold storage is read again, one by one, in order
+     * to get it back from there.</p>
+     *
+     * @param attrs Attributes of the item
+     * @return The XML
+     * @throws IOException If fails
+     */
+    private XML xml(final Map<String, AttributeValue> attrs)
+        throws IOException {
+        final XML xml;
+        if (attrs.containsKey(DyTalks.ATTR_COLD)) {
+            xml = new DyTalk(
+                new DyItem(this.region.table(DyTalks.TBL), attrs), this.vault
+            ).read();
+        } else {
+            xml = DyTalk.xml(attrs);
+        }
+        return xml;
+    }
+
+    /**
+     * The first talk found, if any.
+     * @param items Items found
+     * @return The talk or empty
+     */
+    private Optional<Talk> first(final Iterable<Item> items) {
+        final Iterator<Item> iterator = items.iterator();
+        Optional<Talk> found = Optional.empty();
+        if (iterator.hasNext()) {
+            found = Optional.of(new DyTalk(iterator.next(), this.vault));
+        }
+        return found;
+    }
+
+    /**
+     * Names of attributes to read in a batch.
+     * @return Names of attributes
+     */
+    private static Collection<String> attributes() {
+        final Collection<String> attrs = DyTalk.attributes();
+        attrs.add(DyTalks.HASH);
+        return attrs;
+    }
+
+    /**
+     * Wait before the next attempt.
+     * @param attempt Number of the attempt
+     * @throws IOException If interrupted
+     */
+    private static void pause(final int attempt) throws IOException {
+        try {
+            TimeUnit.MILLISECONDS.sleep((long) Tv.FIFTY << attempt);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+    }
 }
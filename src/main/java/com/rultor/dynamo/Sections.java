@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Top-level sections of a talk, each one in its own attribute.
+ *
+ * <p>The talk without these sections is kept in
+ * {@link DyTalks#ATTR_XML_ZIP}, while every section is kept in the
+ * attribute named after it (for example, <code>zipwire</code>). This
+ * way, a modification of one section doesn't rewrite the others.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@EqualsAndHashCode
+final class Sections {
+
+    /**
+     * Names of sections kept apart.
+     */
+    private static final Collection<String> NAMES = Arrays.asList(
+        "wire", "request", "daemon", "shell", "archive"
+    );
+
+    /**
+     * Texts of the sections, by the names of their attributes.
+     */
+    private final transient Map<String, String> texts;
+
+    /**
+     * Ctor.
+     * @param xml The talk, stripped of whitespace
+     */
+    Sections(final XML xml) {
+        this.texts = Sections.split(xml);
+    }
+
+    /**
+     * Ctor.
+     * @param attrs Attributes of the item
+     * @throws IOException If fails
+     */
+    Sections(final Map<String, AttributeValue> attrs) throws IOException {
+        this.texts = Sections.decode(attrs);
+    }
+
+    /**
+     * Names of all attributes, which keep the talk.
+     * @return Names of attributes
+     */
+    static Collection<String> attributes() {
+        final Collection<String> attrs = new LinkedList<>();
+        attrs.add(DyTalks.ATTR_XML);
+        attrs.add(DyTalks.ATTR_XML_ZIP);
+        for (final String name : Sections.NAMES) {
+            attrs.add(Sections.attribute(name));
+        }
+        return attrs;
+    }
+
+    /**
+     * Codec of the encoded attributes.
+     * @param attrs Attributes of the item
+     * @return The codec, GZIP if it is not specified
+     */
+    static Codec codec(final Map<String, AttributeValue> attrs) {
+        String id = null;
+        if (attrs.containsKey(DyTalks.ATTR_CODEC)) {
+            id = attrs.get(DyTalks.ATTR_CODEC).getS();
+        }
+        return Codec.of(id);
+    }
+
+
+    /**
+     * Join all sections into the talk.
+     * @return The talk
+     */
+    XML xml() {
+        final Document doc = Document.class.cast(
+            new XMLDocument(this.texts.get(DyTalks.ATTR_XML_ZIP)).node()
+        );
+        final Element root = doc.getDocumentElement();
+        for (final String name : Sections.NAMES) {
+            final String text = this.texts.get(Sections.attribute(name));
+            if (text != null) {
+                root.appendChild(
+                    doc.importNode(
+                        Document.class.cast(new XMLDocument(text).node())
+                            .getDocumentElement(),
+                        true
+                    )
+                );
+            }
+        }
+        return new XMLDocument(doc);
+    }
+
+    /**
+     * Text of the attribute.
+     * @param attr Name of the attribute
+     * @return The text
+     */
+    String text(final String attr) {
+        return this.texts.get(attr);
+    }
+
+    /**
+     * Attributes which are new or different from the previous ones.
+     * @param before Previous sections
+     * @return Names of attributes
+     */
+    Collection<String> changed(final Sections before) {
+        final Collection<String> attrs = new LinkedList<>();
+        for (final Map.Entry<String, String> ent : this.texts.entrySet()) {
+            if (!ent.getValue().equals(before.texts.get(ent.getKey()))) {
+                attrs.add(ent.getKey());
+            }
+        }
+        return attrs;
+    }
+
+    /**
+     * Name of the attribute of the section.
+     * @param name Name of the section
+     * @return Name of the attribute
+     */
+    private static String attribute(final String name) {
+        return String.format("zip%s", name);
+    }
+
+    /**
+     * Split the talk into sections.
+     * @param xml The talk
+     * @return Texts by attributes
+     */
+    private static Map<String, String> split(final XML xml) {
+        final Document doc = Document.class.cast(xml.node());
+        final Element root = doc.getDocumentElement();
+        final Map<String, String> texts = new HashMap<>(0);
+        for (final String name : Sections.NAMES) {
+            final String xpath = String.format("/talk/%s", name);
+            for (final XML section : xml.nodes(xpath)) {
+                texts.put(Sections.attribute(name), section.toString());
+            }
+        }
+        for (Node node = root.getFirstChild(); node != null;) {
+            final Node next = node.getNextSibling();
+            if (Sections.NAMES.contains(node.getNodeName())) {
+                root.removeChild(node);
+            }
+            node = next;
+        }
+        texts.put(DyTalks.ATTR_XML_ZIP, new XMLDocument(doc).toString());
+        return texts;
+    }
+
+    /**
+     * Decode sections from attributes of the item.
+     * @param attrs Attributes
+     * @return Texts by attributes
+     * @throws IOException If fails
+     */
+    private static Map<String, String> decode(
+        final Map<String, AttributeValue> attrs) throws IOException {
+        final Map<String, String> texts = new HashMap<>(0);
+        if (attrs.containsKey(DyTalks.ATTR_XML_ZIP)) {
+            final Codec codec = Sections.codec(attrs);
+            for (final String attr : Sections.attributes()) {
+                if (attrs.containsKey(attr) && attrs.get(attr).getB() != null) {
+                    texts.put(
+                        attr, codec.decode(attrs.get(attr).getB().array())
+                    );
+                }
+            }
+        } else if (attrs.containsKey(DyTalks.ATTR_XML)) {
+            texts.put(DyTalks.ATTR_XML_ZIP, attrs.get(DyTalks.ATTR_XML).getS());
+        }
+        return texts;
+    }
+
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Region;
+import com.jcabi.s3.retry.ReRegion;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Cold storage of talks, which are not active for a long time.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@Immutable
+public interface Vault {
+
+    /**
+     * No storage at all.
+     */
+    Vault NONE = new Vault() {
+        @Override
+        public String put(final long number, final XML xml) {
+            throw new IllegalStateException(
+                String.format("There is no vault for talk #%d", number)
+            );
+        }
+        @Override
+        public XML get(final String key) {
+            throw new IllegalStateException(
+                String.format("There is no vault to get \"%s\" from", key)
+            );
+        }
+    };
+
+    /**
+     * Put the talk into the storage.
+     * @param number Number of the talk
+     * @param xml Its XML
+     * @return The key to get it back
+     * @throws IOException If fails
+     */
+    String put(long number, XML xml) throws IOException;
+
+    /**
+     * Get the talk from the storage.
+     * @param key The key
+     * @return Its XML
+     * @throws IOException If fails
+     */
+    XML get(String key) throws IOException;
+
+    /**
+     * Talks in S3 objects, encoded by {@link Codec#DEFLATED}.
+     *
+     * <p>The key of the object ends with the ID of the codec, which
+     * is used to decode it.</p>
+     */
+    @Immutable
+    @ToString
+    @EqualsAndHashCode(of = "bucket")
+    final class S3 implements Vault {
+        /**
+         * Bucket.
+         */
+        private final transient Bucket bucket;
+        /**
+         * Ctor.
+         * @param key AWS key
+         * @param secret AWS secret
+         * @param name Name of the bucket
+         */
+        public S3(final String key, final String secret, final String name) {
+            this(new ReRegion(new Region.Simple(key, secret)).bucket(name));
+        }
+        /**
+         * Ctor.
+         * @param bkt Bucket
+         */
+        public S3(final Bucket bkt) {
+            this.bucket = bkt;
+        }
+        @Override
+        public String put(final long number, final XML xml)
+            throws IOException {
+            final byte[] body = Codec.DEFLATED.encode(xml.toString());
+            final ObjectMetadata meta = new ObjectMetadata();
+            meta.setContentType("application/octet-stream");
+            meta.setContentLength(body.length);
+            final String key = String.format(
+                "talks/%d.xml.%s", number, Codec.DEFLATED.id()
+            );
+            this.bucket.ocket(key).write(new ByteArrayInputStream(body), meta);
+            return key;
+        }
+        @Override
+        public XML get(final String key) throws IOException {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            this.bucket.ocket(key).read(baos);
+            return new XMLDocument(
+                Codec.of(StringUtils.substringAfterLast(key, ".")).decode(
+                    baos.toByteArray()
+                )
+            );
+        }
+    }
+
+}
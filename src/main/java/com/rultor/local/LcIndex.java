@@ -0,0 +1,610 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.local;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Index of talks in a local file.
+ *
+ * <p>All rows are kept in memory: by names, by numbers, active ones and
+ * all of them ordered by the time of update, in total and per
+ * repository. Every change is appended to the file as a line with the
+ * entire row, while a deleted talk is a line with its number only. At
+ * startup the file is read from top to bottom, the latest line of a
+ * talk wins, and the file is compacted to one line per talk. The last
+ * line without the end of line is skipped, since it's a line torn by a
+ * crash in the middle of writing it.</p>
+ *
+ * <p>A row also says whether the talk is public, so that recent public
+ * talks are found without reading their XML. Rows written before that
+ * column was added are listed by {@link #legacy()}, until the flag is
+ * set by {@link #publish(long, boolean)}.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "file")
+@EqualsAndHashCode(of = "file")
+@SuppressWarnings("PMD.TooManyMethods")
+final class LcIndex {
+
+    /**
+     * Separator of columns in a line.
+     */
+    private static final String TAB = "\t";
+
+    /**
+     * The file is compacted when it has this many lines per talk.
+     */
+    private static final int WASTE = Tv.FOUR;
+
+    /**
+     * Newer rows first.
+     */
+    private static final Comparator<LcIndex.Row> NEWER = Comparator
+        .comparingLong(LcIndex.Row::updated)
+        .thenComparingLong(LcIndex.Row::number)
+        .reversed();
+
+    /**
+     * The file.
+     */
+    private final transient File file;
+
+    /**
+     * Rows by names.
+     */
+    private final transient Map<String, LcIndex.Row> names;
+
+    /**
+     * Rows by numbers, only active ones.
+     */
+    private final transient Map<Long, LcIndex.Row> active;
+
+    /**
+     * All rows, newer first.
+     */
+    private final transient NavigableSet<LcIndex.Row> all;
+
+    /**
+     * Rows of repositories, newer first.
+     */
+    private final transient Map<String, NavigableSet<LcIndex.Row>> repos;
+
+    /**
+     * Rows by numbers.
+     */
+    private final transient Map<Long, LcIndex.Row> rows;
+
+    /**
+     * Locks of talks, by numbers.
+     */
+    private final transient Map<Long, Object> locks;
+
+    /**
+     * Numbers of rows read from the file without the public flag.
+     */
+    private final transient Collection<Long> unknown;
+
+    /**
+     * The biggest number ever used, numbers of deleted talks included.
+     */
+    private transient long max;
+
+    /**
+     * Lines in the file.
+     */
+    private transient int lines;
+
+    /**
+     * Ctor.
+     * @param path The file, which may be absent
+     * @throws IOException If fails
+     */
+    LcIndex(final File path) throws IOException {
+        this.file = path;
+        this.names = new HashMap<>(0);
+        this.active = new TreeMap<>();
+        this.all = new TreeSet<>(LcIndex.NEWER);
+        this.repos = new HashMap<>(0);
+        this.rows = new HashMap<>(0);
+        this.locks = new ConcurrentHashMap<>(0);
+        this.unknown = new TreeSet<>();
+        if (this.file.exists()) {
+            final String text = new String(
+                Files.readAllBytes(this.file.toPath()), StandardCharsets.UTF_8
+            );
+            final List<String> all = new ArrayList<>(
+                Arrays.asList(text.split("\n"))
+            );
+            if (!text.isEmpty() && !text.endsWith("\n")) {
+                Logger.warn(
+                    this, "The last line of %s is torn, skipped: \"%s\"",
+                    this.file, all.remove(all.size() - 1)
+                );
+            }
+            for (final String line : all) {
+                if (!line.isEmpty()) {
+                    this.replay(line);
+                    ++this.lines;
+                }
+            }
+        }
+        this.compact();
+        Logger.info(
+            this, "%d talk(s) indexed in %s, %d of them active",
+            this.rows.size(), this.file, this.active.size()
+        );
+    }
+
+    /**
+     * Find a row by the name.
+     * @param name Name of the talk
+     * @return The row or NULL if it's absent
+     */
+    synchronized LcIndex.Row get(final String name) {
+        return this.names.get(name);
+    }
+
+    /**
+     * Find a row by the number.
+     * @param number Number of the talk
+     * @return The row or NULL if it's absent
+     */
+    synchronized LcIndex.Row get(final long number) {
+        return this.rows.get(number);
+    }
+
+    /**
+     * Lock of the talk, to modify it exclusively.
+     * @param number Number of the talk
+     * @return The lock
+     */
+    Object lock(final long number) {
+        return this.locks.computeIfAbsent(number, key -> new Object());
+    }
+
+    /**
+     * Add a new talk.
+     * @param repo Name of the repository
+     * @param name Name of the talk
+     * @return The row
+     * @throws IOException If fails
+     */
+    synchronized LcIndex.Row add(final String repo, final String name)
+        throws IOException {
+        if (this.names.containsKey(name)) {
+            throw new IllegalArgumentException(
+                String.format("Talk \"%s\" already exists", name)
+            );
+        }
+        final LcIndex.Row row = new LcIndex.Row(
+            this.max + 1L, name, repo, true, false, System.currentTimeMillis()
+        );
+        this.save(row);
+        return row;
+    }
+
+    /**
+     * Mark the talk as updated now.
+     * @param number Number of the talk
+     * @param pub TRUE if it's public now
+     * @throws IOException If fails
+     */
+    synchronized void touch(final long number, final boolean pub)
+        throws IOException {
+        final LcIndex.Row row = this.existing(number);
+        this.save(
+            new LcIndex.Row(
+                number, row.name(), row.repo(), row.isActive(), pub,
+                System.currentTimeMillis()
+            )
+        );
+    }
+
+    /**
+     * Set the public flag of the talk, without marking it as updated.
+     * @param number Number of the talk
+     * @param pub TRUE if it's public
+     * @throws IOException If fails
+     */
+    synchronized void publish(final long number, final boolean pub)
+        throws IOException {
+        final LcIndex.Row row = this.existing(number);
+        this.save(
+            new LcIndex.Row(
+                number, row.name(), row.repo(), row.isActive(), pub,
+                row.updated()
+            )
+        );
+    }
+
+    /**
+     * Numbers of talks read from the file without the public flag.
+     * @return Numbers
+     */
+    synchronized List<Long> legacy() {
+        return new ArrayList<>(this.unknown);
+    }
+
+    /**
+     * Make the talk active or inactive, and mark it as updated now.
+     * @param number Number of the talk
+     * @param yes TRUE if active
+     * @throws IOException If fails
+     */
+    synchronized void activate(final long number, final boolean yes)
+        throws IOException {
+        final LcIndex.Row row = this.existing(number);
+        this.save(
+            new LcIndex.Row(
+                number, row.name(), row.repo(), yes, row.isPublic(),
+                System.currentTimeMillis()
+            )
+        );
+    }
+
+    /**
+     * Delete the talk.
+     * @param number Number of the talk
+     * @throws IOException If fails
+     */
+    synchronized void delete(final long number) throws IOException {
+        this.existing(number);
+        this.append(Long.toString(number));
+        this.forget(number);
+    }
+
+    /**
+     * Active talks, by numbers.
+     * @return Rows
+     */
+    synchronized List<LcIndex.Row> active() {
+        return new ArrayList<>(this.active.values());
+    }
+
+    /**
+     * All talks, newer first.
+     * @return Rows
+     */
+    synchronized List<LcIndex.Row> all() {
+        return new ArrayList<>(this.all);
+    }
+
+    /**
+     * Public talks, which are not active, newer first.
+     * @param max Maximum number of them
+     * @return Rows
+     */
+    synchronized List<LcIndex.Row> recent(final int max) {
+        final List<LcIndex.Row> list = new ArrayList<>(max);
+        for (final LcIndex.Row row : this.all) {
+            if (list.size() >= max) {
+                break;
+            }
+            if (!row.isActive() && row.isPublic()) {
+                list.add(row);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Talks of the repository, updated before the time, newer first.
+     * @param repo Name of the repository
+     * @param before Time in msec
+     * @return Rows
+     */
+    synchronized List<LcIndex.Row> siblings(final String repo,
+        final long before) {
+        final NavigableSet<LcIndex.Row> set = this.repos.get(repo);
+        final List<LcIndex.Row> list;
+        if (set == null) {
+            list = Collections.emptyList();
+        } else {
+            list = new ArrayList<>(
+                set.tailSet(
+                    new LcIndex.Row(
+                        Long.MIN_VALUE, "", repo, false, false, before
+                    ),
+                    false
+                )
+            );
+        }
+        return list;
+    }
+
+    /**
+     * Find an existing row.
+     * @param number Number of the talk
+     * @return The row
+     */
+    private LcIndex.Row existing(final long number) {
+        final LcIndex.Row row = this.rows.get(number);
+        if (row == null) {
+            throw new IllegalArgumentException(
+                String.format("Talk #%d not found", number)
+            );
+        }
+        return row;
+    }
+
+    /**
+     * Save the row to the file and to memory.
+     * @param row The row
+     * @throws IOException If fails
+     */
+    private void save(final LcIndex.Row row) throws IOException {
+        this.append(row.line());
+        this.remember(row);
+        if (this.lines > LcIndex.WASTE * Math.max(this.rows.size(), Tv.TEN)) {
+            this.compact();
+        }
+    }
+
+    /**
+     * Apply a line of the file to memory.
+     * @param line The line
+     */
+    private void replay(final String line) {
+        final String[] parts = line.split(LcIndex.TAB, -1);
+        final long number = Long.parseLong(parts[0]);
+        this.max = Math.max(this.max, number);
+        if (parts.length == 1) {
+            this.forget(number);
+        } else if (parts.length == Tv.FIVE) {
+            this.remember(
+                new LcIndex.Row(
+                    number, parts[1], parts[2],
+                    Boolean.parseBoolean(parts[3]), false,
+                    Long.parseLong(parts[4])
+                )
+            );
+            this.unknown.add(number);
+        } else {
+            this.remember(
+                new LcIndex.Row(
+                    number, parts[1], parts[2],
+                    Boolean.parseBoolean(parts[3]),
+                    Boolean.parseBoolean(parts[Tv.FIVE]),
+                    Long.parseLong(parts[4])
+                )
+            );
+        }
+    }
+
+    /**
+     * Put the row into memory, instead of the previous one.
+     * @param row The row
+     */
+    private void remember(final LcIndex.Row row) {
+        this.forget(row.number());
+        this.rows.put(row.number(), row);
+        this.names.put(row.name(), row);
+        this.max = Math.max(this.max, row.number());
+        if (row.isActive()) {
+            this.active.put(row.number(), row);
+        }
+        this.all.add(row);
+        this.repos.computeIfAbsent(
+            row.repo(), repo -> new TreeSet<>(LcIndex.NEWER)
+        ).add(row);
+    }
+
+    /**
+     * Remove the row from memory.
+     * @param number Number of the talk
+     */
+    private void forget(final long number) {
+        this.unknown.remove(number);
+        final LcIndex.Row row = this.rows.remove(number);
+        if (row != null) {
+            this.names.remove(row.name());
+            this.active.remove(number);
+            this.all.remove(row);
+            this.repos.get(row.repo()).remove(row);
+        }
+    }
+
+    /**
+     * Append a line to the file.
+     * @param line The line
+     * @throws IOException If fails
+     */
+    private void append(final String line) throws IOException {
+        Files.write(
+            this.file.toPath(),
+            Collections.singletonList(line),
+            StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND
+        );
+        ++this.lines;
+    }
+
+    /**
+     * Rewrite the file with one line per talk, replacing it atomically.
+     * @throws IOException If fails
+     */
+    private void compact() throws IOException {
+        final Collection<String> text = new ArrayList<>(this.rows.size());
+        for (final LcIndex.Row row : this.rows.values()) {
+            text.add(row.line());
+        }
+        if (this.max > 0L && !this.rows.containsKey(this.max)) {
+            text.add(Long.toString(this.max));
+        }
+        final File temp = new File(
+            this.file.getParentFile(),
+            String.format("%s.tmp", this.file.getName())
+        );
+        Files.write(temp.toPath(), text, StandardCharsets.UTF_8);
+        Files.move(
+            temp.toPath(), this.file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE
+        );
+        this.lines = text.size();
+    }
+
+    /**
+     * Row of the index.
+     */
+    @ToString
+    @EqualsAndHashCode
+    static final class Row {
+        /**
+         * Number of the talk.
+         */
+        private final transient long num;
+        /**
+         * Name of the talk.
+         */
+        private final transient String label;
+        /**
+         * Name of the repository.
+         */
+        private final transient String rep;
+        /**
+         * Is it active?
+         */
+        private final transient boolean act;
+        /**
+         * Is it public?
+         */
+        private final transient boolean pub;
+        /**
+         * When updated, in msec.
+         */
+        private final transient long time;
+        /**
+         * Ctor.
+         * @param number Number of the talk
+         * @param name Name of the talk
+         * @param repo Name of the repository
+         * @param yes TRUE if it's active
+         * @param open TRUE if it's public
+         * @param updated When updated, in msec
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Row(final long number, final String name, final String repo,
+            final boolean yes, final boolean open, final long updated) {
+            if (name.contains(LcIndex.TAB) || name.contains("\n")
+                || repo.contains(LcIndex.TAB) || repo.contains("\n")) {
+                throw new IllegalArgumentException(
+                    String.format("Invalid name of talk \"%s\"", name)
+                );
+            }
+            this.num = number;
+            this.label = name;
+            this.rep = repo;
+            this.act = yes;
+            this.pub = open;
+            this.time = updated;
+        }
+        /**
+         * Number of the talk.
+         * @return Number
+         */
+        long number() {
+            return this.num;
+        }
+        /**
+         * Name of the talk.
+         * @return Name
+         */
+        String name() {
+            return this.label;
+        }
+        /**
+         * Name of the repository.
+         * @return Name
+         */
+        String repo() {
+            return this.rep;
+        }
+        /**
+         * Is it active?
+         * @return TRUE if active
+         */
+        boolean isActive() {
+            return this.act;
+        }
+        /**
+         * Is it public?
+         * @return TRUE if public
+         */
+        boolean isPublic() {
+            return this.pub;
+        }
+        /**
+         * When updated.
+         * @return Time in msec
+         */
+        long updated() {
+            return this.time;
+        }
+        /**
+         * Line of the file.
+         * @return The line
+         */
+        String line() {
+            return String.join(
+                LcIndex.TAB,
+                Long.toString(this.num), this.label, this.rep,
+                Boolean.toString(this.act), Long.toString(this.time),
+                Boolean.toString(this.pub)
+            );
+        }
+    }
+
+}
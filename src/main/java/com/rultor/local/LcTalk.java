@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.local;
+
+import com.jcabi.xml.StrictXML;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import com.jcabi.xml.XSLDocument;
+import com.rultor.spi.Talk;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.cactoos.list.ListOf;
+import org.w3c.dom.Node;
+import org.xembly.Directive;
+import org.xembly.ImpossibleModificationException;
+import org.xembly.Xembler;
+
+/**
+ * Talk in a local file.
+ *
+ * <p>The XML is validated when it is saved, so it is read as is. The
+ * file is replaced atomically, so a reader never sees it half-written.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "num")
+@EqualsAndHashCode(of = { "dir", "num" })
+public final class LcTalk implements Talk {
+
+    /**
+     * Index.
+     */
+    private final transient LcIndex index;
+
+    /**
+     * Directory with files.
+     */
+    private final transient File dir;
+
+    /**
+     * Number of the talk.
+     */
+    private final transient long num;
+
+    /**
+     * Ctor.
+     * @param idx Index
+     * @param path Directory with files
+     * @param number Number of the talk
+     */
+    LcTalk(final LcIndex idx, final File path, final long number) {
+        this.index = idx;
+        this.dir = path;
+        this.num = number;
+    }
+
+    @Override
+    public Long number() {
+        return this.num;
+    }
+
+    @Override
+    public String name() {
+        return this.row().name();
+    }
+
+    @Override
+    public Date updated() {
+        return new Date(this.row().updated());
+    }
+
+    @Override
+    public XML read() throws IOException {
+        return new XMLDocument(
+            new String(
+                Files.readAllBytes(this.file().toPath()),
+                StandardCharsets.UTF_8
+            )
+        );
+    }
+
+    @Override
+    public XML summary() throws IOException {
+        return Talk.SUMMARY.transform(this.read());
+    }
+
+    @Override
+    public void modify(final Iterable<Directive> dirs) throws IOException {
+        if (!new ListOf<>(dirs).isEmpty()) {
+            synchronized (this.index.lock(this.num)) {
+                final Node node = this.read().node();
+                try {
+                    new Xembler(dirs).apply(node);
+                } catch (final ImpossibleModificationException ex) {
+                    throw new IllegalStateException(
+                        String.format(
+                            "failed to apply %s to %s",
+                            dirs.toString(), this.num
+                        ),
+                        ex
+                    );
+                }
+                final XML xml = XSLDocument.STRIP.transform(
+                    new StrictXML(new XMLDocument(node), Talk.SCHEMA)
+                );
+                this.save(xml);
+                this.index.touch(this.num, LcTalk.isPublic(xml));
+            }
+        }
+    }
+
+    @Override
+    public void active(final boolean yes) throws IOException {
+        this.index.activate(this.num, yes);
+    }
+
+    /**
+     * Is the talk public?
+     * @param xml XML of the talk
+     * @return TRUE if public
+     */
+    static boolean isPublic(final XML xml) {
+        return !xml.nodes("/talk[@public='true']").isEmpty();
+    }
+
+    /**
+     * Save the XML, replacing the file atomically.
+     * @param xml The XML
+     * @throws IOException If fails
+     */
+    void save(final XML xml) throws IOException {
+        final File file = this.file();
+        final File temp = new File(
+            this.dir, String.format("%s.tmp", file.getName())
+        );
+        Files.write(
+            temp.toPath(), xml.toString().getBytes(StandardCharsets.UTF_8)
+        );
+        Files.move(
+            temp.toPath(), file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE
+        );
+    }
+
+    /**
+     * Delete the file.
+     * @throws IOException If fails
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(this.file().toPath());
+    }
+
+    /**
+     * The file with XML.
+     * @return File
+     */
+    private File file() {
+        return new File(this.dir, String.format("%d.xml", this.num));
+    }
+
+    /**
+     * The row in the index.
+     * @return Row
+     */
+    private LcIndex.Row row() {
+        final LcIndex.Row row = this.index.get(this.num);
+        if (row == null) {
+            throw new IllegalStateException(
+                String.format("Talk #%d is deleted", this.num)
+            );
+        }
+        return row;
+    }
+
+}
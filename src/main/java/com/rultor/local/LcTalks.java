@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.local;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.jcabi.xml.StrictXML;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import com.rultor.spi.Talk;
+import com.rultor.spi.Talks;
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.cactoos.iterable.Mapped;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Talks in local files, for a single node, without DynamoDB.
+ *
+ * <p>Every talk is a file in the directory, named by its number, while
+ * the index of all talks is kept in memory and in the file
+ * <code>index.txt</code> in the same directory (see {@link LcIndex}).
+ * All lookups are done in memory. When the index was written before it
+ * had the public flag of talks, the flag is taken from their XML once,
+ * at startup.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "dir")
+@EqualsAndHashCode(of = "dir")
+public final class LcTalks implements Talks {
+
+    /**
+     * Directory with files.
+     */
+    private final transient File dir;
+
+    /**
+     * Index.
+     */
+    private final transient LcIndex index;
+
+    /**
+     * Ctor.
+     * @param path Directory with files, which is created if absent
+     * @throws IOException If fails
+     */
+    public LcTalks(final File path) throws IOException {
+        if (!path.isDirectory() && !path.mkdirs()) {
+            throw new IOException(
+                String.format("Can't create directory %s", path)
+            );
+        }
+        this.dir = path;
+        this.index = new LcIndex(new File(path, "index.txt"));
+        for (final Long number : this.index.legacy()) {
+            final XML xml = this.talk(this.index.get(number)).read();
+            this.index.publish(number, LcTalk.isPublic(xml));
+        }
+    }
+
+    @Override
+    public boolean exists(final long number) {
+        return this.index.get(number) != null;
+    }
+
+    @Override
+    public Talk get(final long number) {
+        final LcIndex.Row row = this.index.get(number);
+        if (row == null) {
+            throw new IllegalArgumentException(
+                String.format("Talk #%d not found", number)
+            );
+        }
+        return this.talk(row);
+    }
+
+    @Override
+    public boolean exists(final String name) {
+        return this.index.get(name) != null;
+    }
+
+    @Override
+    public Talk get(final String name) {
+        final LcIndex.Row row = this.index.get(name);
+        if (row == null) {
+            throw new IllegalArgumentException(
+                String.format("Talk \"%s\" not found", name)
+            );
+        }
+        return this.talk(row);
+    }
+
+    @Override
+    public Optional<Talk> find(final long number) {
+        return Optional.ofNullable(this.index.get(number))
+            .<Talk>map(this::talk);
+    }
+
+    @Override
+    public Optional<Talk> find(final String name) {
+        return Optional.ofNullable(this.index.get(name))
+            .<Talk>map(this::talk);
+    }
+
+    @Override
+    public Map<String, Talk> named(final Iterable<String> names) {
+        final Map<String, Talk> found = new HashMap<>(0);
+        for (final String name : names) {
+            this.find(name).ifPresent(talk -> found.put(name, talk));
+        }
+        return found;
+    }
+
+    @Override
+    public Map<Long, Talk> numbered(final Iterable<Long> numbers) {
+        final Map<Long, Talk> found = new HashMap<>(0);
+        for (final Long number : numbers) {
+            this.find(number).ifPresent(talk -> found.put(number, talk));
+        }
+        return found;
+    }
+
+    @Override
+    public void delete(final String name) {
+        final LcTalk talk = LcTalk.class.cast(this.get(name));
+        try {
+            this.index.delete(talk.number());
+            talk.delete();
+        } catch (final IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public void create(final String repo, final String name)
+        throws IOException {
+        final LcIndex.Row row = this.index.add(repo, name);
+        this.talk(row).save(
+            new StrictXML(
+                new XMLDocument(
+                    new Xembler(
+                        new Directives().add("talk")
+                            .attr("name", name)
+                            .attr("number", Long.toString(row.number()))
+                            .attr("later", Boolean.toString(false))
+                    ).xmlQuietly()
+                ),
+                Talk.SCHEMA
+            )
+        );
+        Logger.info(this, "Talk #%d \"%s\" created", row.number(), name);
+    }
+
+    @Override
+    public Iterable<Talk> active() {
+        return new Mapped<>(this::talk, this.index.active());
+    }
+
+    @Override
+    public Iterable<Talk> recent() {
+        return new Mapped<>(this::talk, this.index.recent(Tv.FIVE));
+    }
+
+    @Override
+    public Iterable<Talk> siblings(final String repo, final Date since) {
+        return new Mapped<>(
+            this::talk, this.index.siblings(repo, since.getTime())
+        );
+    }
+
+    @Override
+    public Map<String, XML> read(final Iterable<Talk> list)
+        throws IOException {
+        final Map<String, XML> bodies = new HashMap<>(0);
+        for (final Talk talk : list) {
+            if (this.exists(talk.name())) {
+                bodies.put(talk.name(), talk.read());
+            }
+        }
+        return bodies;
+    }
+
+    /**
+     * Make a talk of the row.
+     * @param row The row
+     * @return Talk
+     */
+    private LcTalk talk(final LcIndex.Row row) {
+        return new LcTalk(this.index, this.dir, row.number());
+    }
+
+}
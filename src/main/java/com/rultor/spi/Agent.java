@@ -31,6 +31,7 @@ package com.rultor.spi;
 
 import com.jcabi.aspects.Immutable;
 import com.jcabi.immutable.Array;
+import com.jcabi.xml.XML;
 import java.io.IOException;
 import java.util.Arrays;
 import lombok.EqualsAndHashCode;
@@ -53,8 +54,28 @@ public interface Agent {
      */
     void execute(Talk talk) throws IOException;
 
+    /**
+     * Agent that does nothing unless all its XPath conditions
+     * retrieve something from the XML of the talk.
+     *
+     * @since 2.0
+     */
+    @Immutable
+    interface Conditional extends Agent {
+        /**
+         * XPath expressions, joined with a logical AND.
+         * @return Conditions, empty if the agent must always be executed
+         */
+        Iterable<String> conditions();
+    }
+
     /**
      * Iterative.
+     *
+     * <p>Agents, whose conditions are not met by the talk, are skipped
+     * without executing them. Every version of the XML of the talk is
+     * checked in one pass, which starts again only when the talk returns
+     * a different XML (after a modification, if the talk caches it).</p>
      */
     @Immutable
     @ToString
@@ -64,6 +85,10 @@ public interface Agent {
          * Agents to run.
          */
         private final transient Array<Agent> children;
+        /**
+         * Preconditions of them.
+         */
+        private final transient Preconditions preconditions;
         /**
          * Ctor.
          * @param list List of them
@@ -77,11 +102,25 @@ public interface Agent {
          */
         public Iterative(final Iterable<Agent> list) {
             this.children = new Array<>(list);
+            this.preconditions = new Preconditions(this.children);
         }
         @Override
+        @SuppressWarnings("PMD.CompareObjectsWithEquals")
         public void execute(final Talk talk) throws IOException {
-            for (final Agent agent : this.children) {
-                agent.execute(talk);
+            XML seen = null;
+            Preconditions.Pass pass = null;
+            for (int idx = 0; idx < this.children.size(); ++idx) {
+                if (this.preconditions.guarded(idx)) {
+                    final XML xml = talk.read();
+                    if (xml != seen) {
+                        pass = this.preconditions.pass(xml);
+                        seen = xml;
+                    }
+                    if (!pass.ready(idx)) {
+                        continue;
+                    }
+                }
+                this.children.get(idx).execute(talk);
             }
         }
     }
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.spi;
+
+import com.jcabi.aspects.Immutable;
+import java.io.IOException;
+
+/**
+ * Big fragments of talks (like tails of logs), which are kept out of
+ * the talks themselves.
+ *
+ * <p>A fragment saved here is referenced from the talk by its key, in
+ * the <code>ref</code> attribute of an empty element, and is loaded only
+ * by those who need it. This way, the talk stays small, no matter how
+ * big its logs are.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@Immutable
+public interface Fragments {
+
+    /**
+     * Nowhere to keep fragments, all of them stay in talks.
+     */
+    Fragments INLINE = new Fragments() {
+        @Override
+        public boolean put(final String talk, final String key,
+            final String text) {
+            return false;
+        }
+        @Override
+        public String get(final String talk, final String key) {
+            throw new IllegalStateException(
+                String.format(
+                    "Fragment \"%s\" of \"%s\" can't be out of the talk",
+                    key, talk
+                )
+            );
+        }
+    };
+
+    /**
+     * Save the fragment.
+     * @param talk Name of the talk
+     * @param key Unique key of the fragment in the talk
+     * @param text The text
+     * @return TRUE if saved, FALSE if it has to stay in the talk
+     * @throws IOException If fails
+     */
+    boolean put(String talk, String key, String text) throws IOException;
+
+    /**
+     * Load the fragment.
+     * @param talk Name of the talk
+     * @param key Unique key of the fragment in the talk
+     * @return The text, empty if it is already gone
+     * @throws IOException If fails
+     */
+    String get(String talk, String key) throws IOException;
+
+}
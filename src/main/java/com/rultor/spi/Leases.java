@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.spi;
+
+import java.io.IOException;
+
+/**
+ * Leases on talks, which are shared among a few nodes.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public interface Leases {
+
+    /**
+     * All talks belong to this node, which is the only one.
+     */
+    Leases ALL = new Leases() {
+        @Override
+        public void renew() {
+            // nothing to renew
+        }
+        @Override
+        public boolean owns(final String name) {
+            return true;
+        }
+        @Override
+        public boolean leads() {
+            return true;
+        }
+    };
+
+    /**
+     * Renew leases of this node and take over leases of dead ones.
+     *
+     * <p>It has to be called regularly, on its own timer, not between
+     * cycles of processing talks, since a cycle may take longer than
+     * the lifetime of a lease.</p>
+     *
+     * @throws IOException If fails
+     */
+    void renew() throws IOException;
+
+    /**
+     * This talk belongs to this node?
+     * @param name Name of the talk
+     * @return TRUE if this node has to process it
+     */
+    boolean owns(String name);
+
+    /**
+     * This node has to do the work, which is not related to any talk
+     * (like starting new talks or closing old ones)?
+     * @return TRUE if it's the leader
+     */
+    boolean leads();
+
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.spi;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.immutable.Array;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XPathContext;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Dispatch table of agent preconditions.
+ *
+ * <p>Every XPath expression is compiled only once per thread
+ * (compiled expressions are not thread-safe) and agents of a chain
+ * are checked in one pass over a single DOM of the talk, see
+ * {@link Preconditions.Pass}.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = "conditions")
+final class Preconditions {
+
+    /**
+     * Compiled expressions, per thread.
+     */
+    private static final ThreadLocal<Map<String, XPathExpression>> COMPILED =
+        ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * Conditions of every agent, in the order of agents.
+     */
+    private final transient Array<Array<String>> conditions;
+
+    /**
+     * Ctor.
+     * @param agents Agents of the chain
+     */
+    Preconditions(final Iterable<Agent> agents) {
+        final List<Array<String>> list = new LinkedList<>();
+        for (final Agent agent : agents) {
+            if (agent instanceof Agent.Conditional) {
+                list.add(
+                    new Array<>(((Agent.Conditional) agent).conditions())
+                );
+            } else {
+                list.add(new Array<>());
+            }
+        }
+        this.conditions = new Array<>(list);
+    }
+
+    /**
+     * Does this agent have any preconditions?
+     * @param idx Position of the agent in the chain
+     * @return TRUE if it can be skipped without executing it
+     */
+    public boolean guarded(final int idx) {
+        return !this.conditions.get(idx).isEmpty();
+    }
+
+    /**
+     * Start checking agents against a version of the XML of the talk.
+     * @param xml The XML of the talk
+     * @return Pass through the chain, valid while the XML stays the same
+     */
+    public Preconditions.Pass pass(final XML xml) {
+        return new Preconditions.Pass(this.conditions, xml);
+    }
+
+    /**
+     * XPath finds something in the DOM?
+     * @param dom The DOM
+     * @param xpath The XPath
+     * @return TRUE if at least one node found
+     */
+    private static boolean found(final Node dom, final String xpath) {
+        try {
+            return ((NodeList) Preconditions.compiled(xpath).evaluate(
+                dom, XPathConstants.NODESET
+            )).getLength() > 0;
+        } catch (final XPathExpressionException ex) {
+            throw new IllegalArgumentException(
+                String.format("Invalid XPath \"%s\"", xpath),
+                ex
+            );
+        }
+    }
+
+    /**
+     * Compile XPath, or take it from the cache.
+     * @param xpath The XPath
+     * @return Compiled expression
+     * @throws XPathExpressionException If fails
+     */
+    private static XPathExpression compiled(final String xpath)
+        throws XPathExpressionException {
+        final Map<String, XPathExpression> cache = Preconditions.COMPILED.get();
+        XPathExpression expr = cache.get(xpath);
+        if (expr == null) {
+            final XPath compiler = XPathFactory.newInstance().newXPath();
+            compiler.setNamespaceContext(new XPathContext());
+            expr = compiler.compile(xpath);
+            cache.put(xpath, expr);
+        }
+        return expr;
+    }
+
+    /**
+     * One pass through the chain, against one version of the XML.
+     *
+     * <p>The DOM is taken from the XML only once and every expression
+     * is evaluated at most once, even if a few agents share it. Agents
+     * already checked are remembered in a bitmap.</p>
+     *
+     * @since 2.0
+     */
+    static final class Pass {
+        /**
+         * Conditions of every agent.
+         */
+        private final transient Array<Array<String>> conditions;
+        /**
+         * The XML.
+         */
+        private final transient XML xml;
+        /**
+         * Results of expressions evaluated so far.
+         */
+        private final transient Map<String, Boolean> results;
+        /**
+         * Agents checked so far.
+         */
+        private final transient BitSet checked;
+        /**
+         * Agents ready to run.
+         */
+        private final transient BitSet ready;
+        /**
+         * The DOM, or NULL if not taken yet.
+         */
+        private transient Node dom;
+        /**
+         * Ctor.
+         * @param cnds Conditions
+         * @param doc The XML
+         */
+        Pass(final Array<Array<String>> cnds, final XML doc) {
+            this.conditions = cnds;
+            this.xml = doc;
+            this.results = new HashMap<>(0);
+            this.checked = new BitSet(cnds.size());
+            this.ready = new BitSet(cnds.size());
+        }
+        /**
+         * All conditions of this agent are met?
+         * @param idx Position of the agent in the chain
+         * @return TRUE if the agent has to be executed
+         */
+        public boolean ready(final int idx) {
+            if (!this.checked.get(idx)) {
+                boolean good = true;
+                for (final String xpath : this.conditions.get(idx)) {
+                    good = this.results.computeIfAbsent(
+                        xpath, key -> Preconditions.found(this.dom(), key)
+                    );
+                    if (!good) {
+                        break;
+                    }
+                }
+                this.ready.set(idx, good);
+                this.checked.set(idx);
+            }
+            return this.ready.get(idx);
+        }
+        /**
+         * Get the DOM.
+         * @return The DOM
+         */
+        private Node dom() {
+            if (this.dom == null) {
+                this.dom = this.xml.node();
+            }
+            return this.dom;
+        }
+    }
+
+}
@@ -91,6 +91,22 @@ public interface Talk {
         )
     );
 
+    /**
+     * Format of the XML, which is the number of XSL stylesheets in
+     * {@link #UPGRADE}: XML of this format needs no upgrading.
+     * @since 2.0
+     */
+    int FORMAT = 2;
+
+    /**
+     * Summary XSL, which keeps only the attributes of the talk,
+     * the link to its wire and its archive.
+     * @since 2.0
+     */
+    XSL SUMMARY = XSLDocument.make(
+        Talk.class.getResourceAsStream("summary.xsl")
+    );
+
     /**
      * Its unique number.
      * @return Its number
@@ -120,6 +136,15 @@ public interface Talk {
      */
     XML read() throws IOException;
 
+    /**
+     * Read its summary, which is the content without anything
+     * but the attributes of the talk, wire/href, and archive.
+     * @return Summary, see {@link #SUMMARY}
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    XML summary() throws IOException;
+
     /**
      * Modify its content.
      * @param dirs Directives
@@ -206,6 +231,10 @@ public interface Talk {
             );
         }
         @Override
+        public XML summary() throws IOException {
+            return Talk.SUMMARY.transform(this.read());
+        }
+        @Override
         public void modify(final Iterable<Directive> dirs) throws IOException {
             if (dirs.iterator().hasNext()) {
                 final Node node = this.read().node();
@@ -32,6 +32,7 @@ package com.rultor.spi;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.log.Logger;
 import com.jcabi.xml.StrictXML;
+import com.jcabi.xml.XML;
 import com.jcabi.xml.XMLDocument;
 import java.io.File;
 import java.io.IOException;
@@ -39,7 +40,10 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import org.apache.commons.io.FileUtils;
 import org.cactoos.iterable.Filtered;
 import org.cactoos.iterable.Mapped;
@@ -88,6 +92,42 @@ public interface Talks {
      */
     Talk get(String name);
 
+    /**
+     * Find a talk by its number, in one lookup.
+     * @param number The number
+     * @return The talk or empty, if it's absent
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    Optional<Talk> find(long number) throws IOException;
+
+    /**
+     * Find a talk by its name, in one lookup.
+     * @param name The name
+     * @return The talk or empty, if it's absent
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    Optional<Talk> find(String name) throws IOException;
+
+    /**
+     * Find a few talks by their names, in as few round-trips as possible.
+     * @param names The names
+     * @return Talks by names (talks which are absent are skipped)
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    Map<String, Talk> named(Iterable<String> names) throws IOException;
+
+    /**
+     * Find a few talks by their numbers, in as few round-trips as possible.
+     * @param numbers The numbers
+     * @return Talks by numbers (talks which are absent are skipped)
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    Map<Long, Talk> numbered(Iterable<Long> numbers) throws IOException;
+
     /**
      * Delete an existing talk (runtime exception if it's absent).
      * @param name The name
@@ -122,6 +162,15 @@ public interface Talks {
      */
     Iterable<Talk> siblings(String repo, Date since);
 
+    /**
+     * Read XML of a few talks at once, in as few round-trips as possible.
+     * @param list The talks
+     * @return XML of them, by names (talks which are absent are skipped)
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    Map<String, XML> read(Iterable<Talk> list) throws IOException;
+
     /**
      * In directory.
      */
@@ -177,6 +226,46 @@ public interface Talks {
             ).iterator().next();
         }
         @Override
+        public Optional<Talk> find(final long number) throws IOException {
+            Optional<Talk> found = Optional.empty();
+            for (final Talk talk : this.active()) {
+                if (talk.number() == number) {
+                    found = Optional.of(talk);
+                    break;
+                }
+            }
+            return found;
+        }
+        @Override
+        public Optional<Talk> find(final String name) throws IOException {
+            Optional<Talk> found = Optional.empty();
+            for (final Talk talk : this.active()) {
+                if (talk.name().equals(name)) {
+                    found = Optional.of(talk);
+                    break;
+                }
+            }
+            return found;
+        }
+        @Override
+        public Map<String, Talk> named(final Iterable<String> names)
+            throws IOException {
+            final Map<String, Talk> found = new HashMap<>(0);
+            for (final String name : names) {
+                this.find(name).ifPresent(talk -> found.put(name, talk));
+            }
+            return found;
+        }
+        @Override
+        public Map<Long, Talk> numbered(final Iterable<Long> numbers)
+            throws IOException {
+            final Map<Long, Talk> found = new HashMap<>(0);
+            for (final Long number : numbers) {
+                this.find(number).ifPresent(talk -> found.put(number, talk));
+            }
+            return found;
+        }
+        @Override
         public void delete(final String name) {
             FileUtils.deleteQuietly(new File(new File(this.path), name));
         }
@@ -232,5 +321,14 @@ public interface Talks {
         public Iterable<Talk> siblings(final String repo, final Date since) {
             return this.active();
         }
+        @Override
+        public Map<String, XML> read(final Iterable<Talk> list)
+            throws IOException {
+            final Map<String, XML> bodies = new HashMap<>(0);
+            for (final Talk talk : list) {
+                bodies.put(talk.name(), talk.read());
+            }
+            return bodies;
+        }
     }
 }
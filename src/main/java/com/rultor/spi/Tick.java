@@ -56,6 +56,16 @@ public final class Tick {
      */
     private final transient int talks;
 
+    /**
+     * Talks left waiting in the backlog.
+     */
+    private final transient int queue;
+
+    /**
+     * The longest wait of a talk in the backlog, in msec.
+     */
+    private final transient long longest;
+
     /**
      * Ctor.
      * @param date When
@@ -64,9 +74,26 @@ public final class Tick {
      */
     public Tick(final long date, final long duration,
         final int total) {
+        this(date, duration, total, 0, 0L);
+    }
+
+    /**
+     * Ctor.
+     * @param date When
+     * @param duration Duration in msec
+     * @param total Total processed or negative if failed
+     * @param depth Talks left waiting in the backlog
+     * @param wait The longest wait in the backlog, in msec
+     * @checkstyle ParameterNumberCheck (4 lines)
+     * @since 2.0
+     */
+    public Tick(final long date, final long duration,
+        final int total, final int depth, final long wait) {
         this.when = date;
         this.msec = duration;
         this.talks = total;
+        this.queue = depth;
+        this.longest = wait;
     }
 
     /**
@@ -93,4 +120,22 @@ public final class Tick {
         return this.talks;
     }
 
+    /**
+     * Talks left waiting in the backlog.
+     * @return Number of talks
+     * @since 2.0
+     */
+    public int queue() {
+        return this.queue;
+    }
+
+    /**
+     * The longest wait of a talk in the backlog.
+     * @return Milliseconds
+     * @since 2.0
+     */
+    public long waiting() {
+        return this.longest;
+    }
+
 }
@@ -31,7 +31,9 @@ package com.rultor.web;
 
 import com.jcabi.manifests.Manifests;
 import com.rultor.Toggles;
+import com.rultor.cached.CdCache;
 import com.rultor.spi.Pulse;
+import com.rultor.spi.Signals;
 import com.rultor.spi.Talks;
 import java.nio.charset.Charset;
 import org.takes.Take;
@@ -71,7 +73,7 @@ public final class TkApp extends TkWrap {
      */
     public TkApp(final Talks talks, final Pulse pulse,
         final Toggles toggles) {
-        super(TkApp.make(talks, pulse, toggles));
+        this(talks, pulse, toggles, Signals.EMPTY);
     }
 
     /**
@@ -79,10 +81,41 @@ public final class TkApp extends TkWrap {
      * @param talks Talks
      * @param pulse Pulse
      * @param toggles Toggles
+     * @param signals Signals to post to, when talks are changed
+     * @since 2.0
+     */
+    public TkApp(final Talks talks, final Pulse pulse,
+        final Toggles toggles, final Signals signals) {
+        this(talks, pulse, toggles, signals, new CdCache());
+    }
+
+    /**
+     * Ctor.
+     * @param talks Talks
+     * @param pulse Pulse
+     * @param toggles Toggles
+     * @param signals Signals to post to, when talks are changed
+     * @param cache Cache of talks, to report its statistics
+     * @since 2.0
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public TkApp(final Talks talks, final Pulse pulse,
+        final Toggles toggles, final Signals signals, final CdCache cache) {
+        super(TkApp.make(talks, pulse, toggles, signals, cache));
+    }
+
+    /**
+     * Ctor.
+     * @param talks Talks
+     * @param pulse Pulse
+     * @param toggles Toggles
+     * @param signals Signals
+     * @param cache Cache
      * @return Takes
+     * @checkstyle ParameterNumberCheck (3 lines)
      */
-    private static Take make(final Talks talks,
-        final Pulse pulse, final Toggles toggles) {
+    private static Take make(final Talks talks, final Pulse pulse,
+        final Toggles toggles, final Signals signals, final CdCache cache) {
         if (!"UTF-8".equals(Charset.defaultCharset().name())) {
             throw new IllegalStateException(
                 String.format(
@@ -98,7 +131,10 @@ public final class TkApp extends TkWrap {
                             new TkAppFallback(
                                 new TkAppAuth(
                                     new TkForward(
-                                        TkApp.regex(talks, pulse, toggles)
+                                        TkApp.regex(
+                                            talks, pulse, toggles, signals,
+                                            cache
+                                        )
                                     )
                                 )
                             )
@@ -116,14 +152,17 @@ public final class TkApp extends TkWrap {
      * @param talks Talks
      * @param pulse Pulse
      * @param toggles Toggles
+     * @param signals Signals
+     * @param cache Cache
      * @return Takes
+     * @checkstyle ParameterNumberCheck (3 lines)
      */
-    private static Take regex(final Talks talks,
-        final Pulse pulse, final Toggles toggles) {
+    private static Take regex(final Talks talks, final Pulse pulse,
+        final Toggles toggles, final Signals signals, final CdCache cache) {
         return new TkFork(
             new FkRegex("/robots.txt", ""),
             new FkRegex("/ticks", new TkTicks(pulse)),
-            new FkRegex("/status", new TkStatus(pulse)),
+            new FkRegex("/status", new TkStatus(pulse, cache)),
             new FkRegex("/s/.*", new TkRedirect()),
             new FkRegex("/sitemap", new TkSitemap(talks)),
             new FkRegex(
@@ -145,8 +184,12 @@ public final class TkApp extends TkWrap {
             new FkAdminOnly(
                 new TkFork(
                     new FkRegex("/t/([0-9]+)", new TkTalk(talks)),
-                    new FkRegex("/t/([0-9]+)/kill", new TkTalkKill(talks)),
-                    new FkRegex("/t/([0-9]+)/delete", new TkTalkDelete(talks)),
+                    new FkRegex(
+                        "/t/([0-9]+)/kill", new TkTalkKill(talks, signals)
+                    ),
+                    new FkRegex(
+                        "/t/([0-9]+)/delete", new TkTalkDelete(talks, signals)
+                    ),
                     new FkRegex("/toggles/read-only", new TkToggles(toggles))
                 )
             )
@@ -42,6 +42,7 @@ import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.logging.Level;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.ProxyReader;
@@ -80,7 +81,8 @@ final class TkDaemon implements TkRegex {
     @Override
     public Response act(final RqRegex req) throws IOException {
         final long number = Long.parseLong(req.matcher().group(1));
-        if (!this.talks.exists(number)) {
+        final Optional<Talk> found = this.talks.find(number);
+        if (!found.isPresent()) {
             throw new RsForward(
                 new RsFlash(
                     "There is no such page here",
@@ -89,7 +91,8 @@ final class TkDaemon implements TkRegex {
             );
         }
         final RqUser user = new RqUser(req);
-        if (!user.canSee(this.talks.get(number))) {
+        final Talk talk = found.get();
+        if (!user.canSee(talk)) {
             throw new RsForward(
                 new RsFlash(
                     String.format(
@@ -104,7 +107,7 @@ final class TkDaemon implements TkRegex {
         final String hash = req.matcher().group(2);
         return new RsFluent()
             .withStatus(HttpURLConnection.HTTP_OK)
-            .withBody(this.html(number, hash))
+            .withBody(this.html(talk, hash))
             .withType("text/html; charset=utf-8")
             .withHeader(
                 "X-Rultor-Daemon",
@@ -114,14 +117,13 @@ final class TkDaemon implements TkRegex {
 
     /**
      * Get HTML.
-     * @param number Number
+     * @param talk The talk
      * @param hash Hash
      * @return HTML
      * @throws IOException If fails
      */
-    private InputStream html(final long number, final String hash)
+    private InputStream html(final Talk talk, final String hash)
         throws IOException {
-        final Talk talk = this.talks.get(number);
         final String head = IOUtils.toString(
             this.getClass().getResourceAsStream("daemon/head.html"),
             StandardCharsets.UTF_8
@@ -97,11 +97,10 @@ final class TkHome implements Take {
         for (final Talk talk : new HeadOf<>(Tv.FIVE, this.talks.recent())) {
             dirs.add("talk").set(talk.name())
                 .attr("timeago", pretty.format(talk.updated()));
-            final XML xml = talk.read();
+            final XML xml = talk.summary();
             if (!xml.nodes("/talk/wire/href").isEmpty()) {
                 dirs.attr(
-                    "href",
-                    talk.read().xpath("/talk/wire/href/text()").get(0)
+                    "href", xml.xpath("/talk/wire/href/text()").get(0)
                 );
             }
             dirs.up();
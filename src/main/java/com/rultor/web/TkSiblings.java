@@ -159,7 +159,7 @@ final class TkSiblings implements TkRegex {
      * @throws IOException If fails
      */
     private Iterable<Directive> dirs(final Talk talk) throws IOException {
-        final XML xml = talk.read();
+        final XML xml = talk.summary();
         final Directives dirs = new Directives().add("talk").add("archive");
         for (final XML log : xml.nodes("/talk/archive/log")) {
             dirs.append(TkSiblings.log(xml, log));
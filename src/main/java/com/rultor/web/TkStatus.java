@@ -31,6 +31,8 @@ package com.rultor.web;
 
 import com.jcabi.aspects.Tv;
 import com.jcabi.log.Logger;
+import com.rultor.agents.shells.SshPool;
+import com.rultor.cached.CdCache;
 import com.rultor.spi.Pulse;
 import com.rultor.spi.Tick;
 import java.net.HttpURLConnection;
@@ -63,12 +65,19 @@ final class TkStatus implements Take {
      */
     private final transient Pulse pulse;
 
+    /**
+     * Cache of talks.
+     */
+    private final transient CdCache cache;
+
     /**
      * Ctor.
      * @param pls Pulse
+     * @param cch Cache of talks
      */
-    TkStatus(final Pulse pls) {
+    TkStatus(final Pulse pls, final CdCache cch) {
         this.pulse = pls;
+        this.cache = cch;
         this.start = System.currentTimeMillis();
     }
 
@@ -87,8 +96,8 @@ final class TkStatus implements Take {
             response = new RsWithStatus(HttpURLConnection.HTTP_OK);
             msg.append("There is no activity yet, refresh in a few seconds");
         } else {
-            final long age = System.currentTimeMillis()
-                - ticks.get(ticks.size() - 1).start();
+            final Tick last = ticks.get(ticks.size() - 1);
+            final long age = System.currentTimeMillis() - last.start();
             if (age > TimeUnit.MINUTES.toMillis((long) Tv.FIVE)) {
                 response = new RsWithStatus(
                     HttpURLConnection.HTTP_INTERNAL_ERROR
@@ -111,7 +120,15 @@ final class TkStatus implements Take {
                     )
                 );
             }
+            msg.append(
+                Logger.format(
+                    "\n%d talk(s) in the backlog, the oldest waits for %[ms]s",
+                    last.queue(), last.waiting()
+                )
+            );
         }
+        msg.append('\n').append(this.cache.stats());
+        msg.append('\n').append(SshPool.INSTANCE.stats());
         for (final Throwable error : this.pulse.error()) {
             msg.append(Logger.format("\n\n%[exception]s", error));
         }
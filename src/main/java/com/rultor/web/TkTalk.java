@@ -32,6 +32,7 @@ package com.rultor.web;
 import com.rultor.spi.Talk;
 import com.rultor.spi.Talks;
 import java.io.IOException;
+import java.util.Optional;
 import java.util.logging.Level;
 import org.takes.Response;
 import org.takes.facets.flash.RsFlash;
@@ -66,7 +67,8 @@ final class TkTalk implements TkRegex {
     @Override
     public Response act(final RqRegex req) throws IOException {
         final long number = Long.parseLong(req.matcher().group(1));
-        if (!this.talks.exists(number)) {
+        final Optional<Talk> found = this.talks.find(number);
+        if (!found.isPresent()) {
             throw new RsForward(
                 new RsFlash(
                     "There is no such page here",
@@ -74,7 +76,7 @@ final class TkTalk implements TkRegex {
                 )
             );
         }
-        final Talk talk = this.talks.get(number);
+        final Talk talk = found.get();
         return new RsPage(
             "/xsl/talk.xsl",
             req,
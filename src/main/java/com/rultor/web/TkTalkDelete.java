@@ -29,9 +29,11 @@
  */
 package com.rultor.web;
 
+import com.rultor.spi.Signals;
 import com.rultor.spi.Talk;
 import com.rultor.spi.Talks;
 import java.io.IOException;
+import java.util.Optional;
 import java.util.logging.Level;
 import org.takes.Response;
 import org.takes.facets.flash.RsFlash;
@@ -53,18 +55,26 @@ final class TkTalkDelete implements TkRegex {
      */
     private final transient Talks talks;
 
+    /**
+     * Signals to post to.
+     */
+    private final transient Signals signals;
+
     /**
      * Ctor.
      * @param tks Talks
+     * @param sgnls Signals to post to
      */
-    TkTalkDelete(final Talks tks) {
+    TkTalkDelete(final Talks tks, final Signals sgnls) {
         this.talks = tks;
+        this.signals = sgnls;
     }
 
     @Override
     public Response act(final RqRegex req) throws IOException {
         final long number = Long.parseLong(req.matcher().group(1));
-        if (!this.talks.exists(number)) {
+        final Optional<Talk> found = this.talks.find(number);
+        if (!found.isPresent()) {
             throw new RsForward(
                 new RsFlash(
                     "there is no such page here",
@@ -72,8 +82,9 @@ final class TkTalkDelete implements TkRegex {
                 )
             );
         }
-        final Talk talk = this.talks.get(number);
+        final Talk talk = found.get();
         this.talks.delete(talk.name());
+        this.signals.post(talk.name());
         return new RsForward(
             new RsFlash(String.format("talk #%d deleted", number))
         );
@@ -30,9 +30,11 @@
 package com.rultor.web;
 
 import com.rultor.agents.daemons.KillsDaemon;
+import com.rultor.spi.Signals;
 import com.rultor.spi.Talk;
 import com.rultor.spi.Talks;
 import java.io.IOException;
+import java.util.Optional;
 import java.util.logging.Level;
 import org.takes.Response;
 import org.takes.facets.flash.RsFlash;
@@ -54,18 +56,26 @@ final class TkTalkKill implements TkRegex {
      */
     private final transient Talks talks;
 
+    /**
+     * Signals to post to.
+     */
+    private final transient Signals signals;
+
     /**
      * Ctor.
      * @param tks Talks
+     * @param sgnls Signals to post to
      */
-    TkTalkKill(final Talks tks) {
+    TkTalkKill(final Talks tks, final Signals sgnls) {
         this.talks = tks;
+        this.signals = sgnls;
     }
 
     @Override
     public Response act(final RqRegex req) throws IOException {
         final long number = Long.parseLong(req.matcher().group(1));
-        if (!this.talks.exists(number)) {
+        final Optional<Talk> found = this.talks.find(number);
+        if (!found.isPresent()) {
             throw new RsForward(
                 new RsFlash(
                     "there is no such page here",
@@ -73,8 +83,9 @@ final class TkTalkKill implements TkRegex {
                 )
             );
         }
-        final Talk talk = this.talks.get(number);
+        final Talk talk = found.get();
         new KillsDaemon().process(talk.read());
+        this.signals.post(talk.name());
         return new RsForward(
             new RsFlash(
                 String.format(
@@ -132,6 +132,8 @@ final class TkTicks implements Take {
                 .attr("total", Integer.toString(tick.total()))
                 .attr("start", Long.toString(tick.start() - now))
                 .attr("msec", Long.toString(tick.duration()))
+                .attr("queue", Integer.toString(tick.queue()))
+                .attr("waiting", Long.toString(tick.waiting()))
                 .up();
         }
         return new XMLDocument(new Xembler(dirs).xmlQuietly());
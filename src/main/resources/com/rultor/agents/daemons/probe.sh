@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+set -e
+
+# Checks the daemon in one round-trip. The first line printed is "alive"
+# if the daemon is still running. Otherwise, it's "dead", followed by the
+# exit code, the size of "stdout" in bytes, the number of highlights, the
+# highlights (lines of "stdout" starting with the prefix, without it) and
+# the last lines of "stdout".
+
+lines=$1
+prefix=$2
+bytes=$3
+
+function alive {
+  if [ ! -e pid ]; then
+    echo "'pid' file is absent on the server after the end of operation; it seems that we didn't manage to start Docker container correctly"
+    return 1
+  fi
+  pid=$(cat pid)
+  if ps -p "${pid}" >/dev/null; then
+    return
+  fi
+  if [ ! -e cid ]; then
+    echo "'cid' file is absent, most probably the Docker container wasn't started correctly"
+    return 1
+  fi
+  cid=$(cat cid)
+  if docker ps -qa --no-trunc | grep --quiet "${cid}"; then
+    echo "container ${cid} is alive"
+  else
+    echo "container ${cid} is dead"
+    date
+    return 1
+  fi
+}
+
+if alive </dev/null >>stdout 2>&1; then
+  echo alive
+  exit
+fi
+
+echo dead
+if [ -e status ]; then
+  head -1 status | tr -cd '0-9'
+  echo
+else
+  echo 127
+fi
+stat -c%s stdout
+highlights=$(awk -v p="${prefix}" 'index($0, p) == 1 { print substr($0, length(p) + 1) }' stdout)
+if [ -z "${highlights}" ]; then
+  echo 0
+else
+  echo "${highlights}" | wc -l
+  echo "${highlights}"
+fi
+tail -n "${lines}" stdout | tail -c "${bytes}"
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor;
+
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import com.rultor.spi.Talk;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.cactoos.iterable.Mapped;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.xembly.Directives;
+
+/**
+ * Test case for {@link Backlog}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class BacklogTest {
+
+    /**
+     * Backlog can put the most urgent talks first.
+     * @throws Exception If fails
+     */
+    @Test
+    public void ordersTalksByUrgency() throws Exception {
+        final Talk idle = BacklogTest.talk("idle", 1);
+        final Talk later = BacklogTest.talk("later", 2);
+        later.modify(new Directives().xpath("/talk").attr("later", "true"));
+        final Talk daemon = BacklogTest.talk("daemon", 3);
+        daemon.modify(
+            new Directives().xpath("/talk").add("daemon")
+                .attr("id", "abc")
+                .add("title").set("merge").up()
+                .add("script").set("ls")
+        );
+        final Talk request = BacklogTest.talk("request", 4);
+        request.modify(
+            new Directives().xpath("/talk").add("request")
+                .attr("id", "a1b2c3")
+                .add("author").set("yegor256").up()
+                .add("type").set("merge").up()
+                .add("args")
+        );
+        MatcherAssert.assertThat(
+            BacklogTest.names(
+                new Backlog().next(
+                    Arrays.asList(idle, later, daemon, request),
+                    BacklogTest.bodies(idle, later, daemon, request), 3
+                )
+            ),
+            Matchers.contains("request", "daemon", "later")
+        );
+    }
+
+    /**
+     * Backlog can report talks left waiting.
+     * @throws Exception If fails
+     */
+    @Test
+    public void reportsDepth() throws Exception {
+        final Backlog backlog = new Backlog();
+        final Talk[] talks = {
+            BacklogTest.talk("first", 1),
+            BacklogTest.talk("second", 2),
+            BacklogTest.talk("third", 3),
+        };
+        backlog.next(Arrays.asList(talks), BacklogTest.bodies(talks), 1);
+        MatcherAssert.assertThat(backlog.depth(), Matchers.equalTo(2));
+    }
+
+    /**
+     * Backlog can let waiting talks go first, in the next cycle.
+     * @throws Exception If fails
+     */
+    @Test
+    public void doesNotStarveTalks() throws Exception {
+        final Backlog backlog = new Backlog();
+        final List<Talk> talks = Arrays.asList(
+            BacklogTest.talk("alpha", 1),
+            BacklogTest.talk("beta", 2)
+        );
+        final Map<String, XML> bodies = BacklogTest.bodies(
+            talks.toArray(new Talk[0])
+        );
+        final String first = backlog.next(talks, bodies, 1).get(0).name();
+        Thread.sleep(2L);
+        MatcherAssert.assertThat(
+            backlog.next(talks, bodies, 1).get(0).name(),
+            Matchers.not(Matchers.equalTo(first))
+        );
+        MatcherAssert.assertThat(
+            backlog.oldest(),
+            Matchers.greaterThan(0L)
+        );
+    }
+
+    /**
+     * Backlog can rank talks without reading them.
+     * @throws Exception If fails
+     */
+    @Test
+    public void ranksTalksWithoutReadingThem() throws Exception {
+        final Talk daemon = Mockito.mock(Talk.class);
+        Mockito.doReturn("daemon").when(daemon).name();
+        final Talk absent = Mockito.mock(Talk.class);
+        Mockito.doReturn("absent").when(absent).name();
+        final Talk later = Mockito.mock(Talk.class);
+        Mockito.doReturn("later").when(later).name();
+        final Map<String, XML> bodies = new HashMap<>(0);
+        bodies.put(
+            "daemon", new XMLDocument("<talk><daemon id='a'/></talk>")
+        );
+        bodies.put("later", new XMLDocument("<talk later='true'/>"));
+        MatcherAssert.assertThat(
+            BacklogTest.names(
+                new Backlog().next(
+                    Arrays.asList(absent, later, daemon), bodies, 3
+                )
+            ),
+            Matchers.contains("daemon", "later", "absent")
+        );
+        Mockito.verify(daemon, Mockito.never()).read();
+        Mockito.verify(absent, Mockito.never()).read();
+        Mockito.verify(later, Mockito.never()).read();
+    }
+
+    /**
+     * Make a talk.
+     * @param name Name
+     * @param number Number
+     * @return Talk
+     * @throws Exception If fails
+     */
+    private static Talk talk(final String name, final int number)
+        throws Exception {
+        return new Talk.InFile(
+            String.format(
+                "<talk later='false' name='%s' number='%d'/>",
+                name, number
+            )
+        );
+    }
+
+    /**
+     * Read XML of talks.
+     * @param talks Talks
+     * @return XML by names
+     * @throws Exception If fails
+     */
+    private static Map<String, XML> bodies(final Talk... talks)
+        throws Exception {
+        final Map<String, XML> bodies = new HashMap<>(0);
+        for (final Talk talk : talks) {
+            bodies.put(talk.name(), talk.read());
+        }
+        return bodies;
+    }
+
+    /**
+     * Names of talks.
+     * @param talks Talks
+     * @return Names
+     */
+    private static Iterable<String> names(final Iterable<Talk> talks) {
+        return new Mapped<>(Talk::name, talks);
+    }
+
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor;
+
+import com.rultor.spi.Talk;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link Lanes}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class LanesTest {
+
+    /**
+     * Lanes can process talks in parallel.
+     * @throws Exception If fails
+     */
+    @Test
+    public void processesTalksInParallel() throws Exception {
+        final int total = 3;
+        final CountDownLatch latch = new CountDownLatch(total);
+        try (Lanes lanes = new Lanes(total)) {
+            MatcherAssert.assertThat(
+                lanes.process(
+                    LanesTest.talks("a", "b", "c"),
+                    talk -> {
+                        latch.countDown();
+                        if (!latch.await(1L, TimeUnit.MINUTES)) {
+                            throw new IllegalStateException("not parallel");
+                        }
+                    }
+                ),
+                Matchers.equalTo(total)
+            );
+        }
+    }
+
+    /**
+     * Lanes can process all talks, even if one of them fails.
+     * @throws Exception If fails
+     */
+    @Test
+    public void processesAllTalksDespiteFailure() throws Exception {
+        final Collection<String> done = new ConcurrentLinkedQueue<>();
+        try (Lanes lanes = new Lanes(1)) {
+            final IOException error = Assertions.assertThrows(
+                IOException.class,
+                () -> lanes.process(
+                    LanesTest.talks("x", "y", "z"),
+                    talk -> {
+                        if ("y".equals(talk.name())) {
+                            throw new IllegalArgumentException("oops");
+                        }
+                        done.add(talk.name());
+                    }
+                )
+            );
+            MatcherAssert.assertThat(
+                error.getCause().getMessage(),
+                Matchers.equalTo("oops")
+            );
+        }
+        MatcherAssert.assertThat(done, Matchers.containsInAnyOrder("x", "z"));
+    }
+
+    /**
+     * Lanes can skip a talk which is still busy.
+     * @throws Exception If fails
+     */
+    @Test
+    public void skipsBusyTalk() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try (Lanes lanes = new Lanes(2)) {
+            final Thread first = new Thread(
+                () -> {
+                    try {
+                        lanes.process(
+                            LanesTest.talks("busy"),
+                            talk -> {
+                                started.countDown();
+                                release.await();
+                            }
+                        );
+                    } catch (final IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            );
+            first.start();
+            started.await();
+            MatcherAssert.assertThat(
+                lanes.process(LanesTest.talks("busy"), talk -> { }),
+                Matchers.equalTo(0)
+            );
+            release.countDown();
+            first.join();
+        }
+    }
+
+    /**
+     * Make talks with the given names.
+     * @param names Names
+     * @return Talks
+     * @throws IOException If fails
+     */
+    private static Iterable<Talk> talks(final String... names)
+        throws IOException {
+        final Talk[] talks = new Talk[names.length];
+        for (int idx = 0; idx < names.length; ++idx) {
+            talks[idx] = new Talk.InFile(
+                String.format(
+                    "<talk later='false' name='%s' number='%d'/>",
+                    names[idx], idx + 1
+                )
+            );
+        }
+        return Arrays.asList(talks);
+    }
+
+}
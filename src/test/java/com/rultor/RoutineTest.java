@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor;
+
+import co.stateful.mock.MkSttc;
+import com.jcabi.github.mock.MkGithub;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import com.rultor.spi.Fragments;
+import com.rultor.spi.Leases;
+import com.rultor.spi.Pulse;
+import com.rultor.spi.Talk;
+import com.rultor.spi.Talks;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link Routine}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class RoutineTest {
+
+    /**
+     * Routine can read all talks of a cycle in one batch, without
+     * reading any of them one by one.
+     * @throws Exception If fails
+     */
+    @Test
+    public void readsTalksOfCycleInOneBatch() throws Exception {
+        final List<Talk> active = new ArrayList<>(0);
+        final Map<String, XML> bodies = new HashMap<>(0);
+        // @checkstyle MagicNumber (1 line)
+        for (int idx = 1; idx <= 5; ++idx) {
+            final String name = String.format("talk-%d", idx);
+            final Talk talk = Mockito.mock(Talk.class);
+            Mockito.doReturn(name).when(talk).name();
+            Mockito.doReturn((long) idx).when(talk).number();
+            bodies.put(
+                name,
+                new XMLDocument(
+                    String.format(
+                        "<talk later='false' name='%s' number='%d'/>",
+                        name, idx
+                    )
+                )
+            );
+            active.add(talk);
+        }
+        final Talks talks = Mockito.mock(Talks.class);
+        Mockito.doReturn(active).when(talks).active();
+        Mockito.doReturn(bodies).when(talks).read(ArgumentMatchers.any());
+        final Leases leases = Mockito.mock(Leases.class);
+        Mockito.doReturn(true).when(leases).owns(ArgumentMatchers.any());
+        final Pulse pulse = Mockito.mock(Pulse.class);
+        final Routine routine = new Routine(
+            talks, pulse, new MkGithub(), new MkSttc(), 2,
+            new Wakeups(), leases, Fragments.INLINE
+        );
+        try {
+            // @checkstyle MagicNumber (1 line)
+            Mockito.verify(pulse, Mockito.timeout(10_000L))
+                .add(ArgumentMatchers.any());
+        } finally {
+            routine.close();
+        }
+        Mockito.verify(talks, Mockito.times(1)).read(ArgumentMatchers.any());
+        for (final Talk talk : active) {
+            Mockito.verify(talk, Mockito.never()).read();
+        }
+    }
+
+    /**
+     * Routine on a node that doesn't lead waits for the next check of
+     * mentions, instead of waking up on every run.
+     * @throws Exception If fails
+     */
+    @Test
+    public void waitsForMentionsWhenNotLeading() throws Exception {
+        final Talks talks = Mockito.mock(Talks.class);
+        Mockito.doReturn(new ArrayList<Talk>(0)).when(talks).active();
+        final Leases leases = Mockito.mock(Leases.class);
+        final Wakeups wakeups = Mockito.spy(new Wakeups());
+        final Routine routine = new Routine(
+            talks, Mockito.mock(Pulse.class), new MkGithub(), new MkSttc(),
+            1, wakeups, leases, Fragments.INLINE
+        );
+        try {
+            // @checkstyle MagicNumber (2 lines)
+            Mockito.verify(wakeups, Mockito.timeout(10_000L)).await(
+                ArgumentMatchers.longThat(msec -> msec > 5_000L)
+            );
+        } finally {
+            routine.close();
+        }
+        Mockito.verify(leases, Mockito.atLeastOnce()).leads();
+    }
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor;
+
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link Wakeups}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class WakeupsTest {
+
+    /**
+     * Wakeups can return signaled talks.
+     * @throws Exception If fails
+     */
+    @Test
+    public void returnsSignaledTalks() throws Exception {
+        final Wakeups wakeups = new Wakeups();
+        wakeups.post("a/b#1");
+        wakeups.post("c/d#2");
+        wakeups.post("a/b#1");
+        MatcherAssert.assertThat(
+            wakeups.await(TimeUnit.MINUTES.toMillis(1L)),
+            Matchers.containsInAnyOrder("a/b#1", "c/d#2")
+        );
+        MatcherAssert.assertThat(
+            wakeups.due(),
+            Matchers.emptyIterable()
+        );
+    }
+
+    /**
+     * Wakeups can return talks with expired timers.
+     * @throws Exception If fails
+     */
+    @Test
+    public void returnsTalksByTimers() throws Exception {
+        final Wakeups wakeups = new Wakeups();
+        wakeups.schedule("soon", 1L);
+        wakeups.schedule("later", TimeUnit.HOURS.toMillis(1L));
+        MatcherAssert.assertThat(
+            wakeups.await(TimeUnit.MINUTES.toMillis(1L)),
+            Matchers.contains("soon")
+        );
+    }
+
+    /**
+     * Wakeups can forget timers.
+     * @throws Exception If fails
+     */
+    @Test
+    public void forgetsTimers() throws Exception {
+        final Wakeups wakeups = new Wakeups();
+        wakeups.schedule("gone", 0L);
+        wakeups.forget("gone");
+        MatcherAssert.assertThat(
+            wakeups.await(1L),
+            Matchers.emptyIterable()
+        );
+    }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import com.rultor.spi.Agent;
+import com.rultor.spi.Talk;
+import java.io.IOException;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.xembly.Directives;
+
+/**
+ * Tests for ${@link CheckpointAgent}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class CheckpointAgentTest {
+
+    /**
+     * CheckpointAgent can save the record of a side effect, even if
+     * the final write of the session fails.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void savesSideEffectWhenFinalFlushFails() throws Exception {
+        final Talk origin = Mockito.spy(new Talk.InFile());
+        Mockito.doCallRealMethod()
+            .doThrow(new IOException("conflict"))
+            .when(origin).modify(ArgumentMatchers.any());
+        final Agent agent = new Agent.Iterative(
+            new CheckpointAgent(
+                talk -> talk.modify(
+                    new Directives().xpath("/talk").add("daemon")
+                        .attr("id", "abc")
+                        .add("title").set("merge").up()
+                        .add("script").set("ls")
+                )
+            ),
+            talk -> talk.modify(
+                new Directives().xpath("/talk").attr("later", "true")
+            )
+        );
+        Assertions.assertThrows(
+            IOException.class,
+            () -> {
+                try (TalkSession session = new TalkSession(origin)) {
+                    agent.execute(session);
+                }
+            }
+        );
+        MatcherAssert.assertThat(
+            origin.read(),
+            XhtmlMatchers.hasXPath("/talk/daemon[@id='abc']")
+        );
+    }
+
+}
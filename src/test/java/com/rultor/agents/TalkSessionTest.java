@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import com.rultor.spi.Leases;
+import com.rultor.spi.Talk;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.w3c.dom.Node;
+import org.xembly.Directive;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Tests for ${@link TalkSession}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class TalkSessionTest {
+
+    /**
+     * TalkSession can use the XML read before, without reading the origin.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void usesLoadedXml() throws Exception {
+        final Talk origin = Mockito.mock(Talk.class);
+        try (TalkSession session = new TalkSession(
+            origin, new XMLDocument("<talk later='true' name='x' number='2'/>")
+        )) {
+            MatcherAssert.assertThat(
+                session.read(),
+                XhtmlMatchers.hasXPath("/talk[@name='x']")
+            );
+        }
+        Mockito.verify(origin, Mockito.never()).read();
+    }
+
+    /**
+     * TalkSession can read the origin once and write it once.
+     * @throws Exception In case of error.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void readsAndWritesOnce() throws Exception {
+        final Talk origin = Mockito.mock(Talk.class);
+        final XML xml = new XMLDocument(
+            "<talk later='false' name='abc' number='1'/>"
+        );
+        Mockito.doReturn(xml).when(origin).read();
+        try (TalkSession session = new TalkSession(origin)) {
+            session.modify(
+                new Directives().xpath("/talk").add("wire")
+                    .add("href").set("http://example.com")
+            );
+            MatcherAssert.assertThat(
+                session.read(),
+                XhtmlMatchers.hasXPath("/talk/wire/href")
+            );
+            session.modify(
+                new Directives().xpath("/talk").attr("later", "true")
+            );
+            MatcherAssert.assertThat(
+                session.read(),
+                XhtmlMatchers.hasXPath("/talk[@later='true']")
+            );
+            MatcherAssert.assertThat(session.reads(), Matchers.equalTo(3));
+            MatcherAssert.assertThat(session.writes(), Matchers.equalTo(1));
+        }
+        Mockito.verify(origin, Mockito.times(1)).read();
+        final ArgumentCaptor<Iterable<Directive>> dirs =
+            ArgumentCaptor.forClass(Iterable.class);
+        Mockito.verify(origin, Mockito.times(1)).modify(dirs.capture());
+        final Node node = xml.node();
+        new Xembler(dirs.getValue()).apply(node);
+        MatcherAssert.assertThat(
+            new XMLDocument(node),
+            XhtmlMatchers.hasXPath("/talk[@later='true']/wire/href")
+        );
+    }
+
+    /**
+     * TalkSession can ignore empty modifications.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void ignoresEmptyModifications() throws Exception {
+        final Talk origin = Mockito.spy(new Talk.InFile());
+        try (TalkSession session = new TalkSession(origin)) {
+            session.modify(new Directives());
+        }
+        Mockito.verify(origin, Mockito.never())
+            .modify(ArgumentMatchers.any());
+    }
+
+    /**
+     * TalkSession can reject a modification that breaks the schema,
+     * keeping the ones made before it.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void rejectsInvalidModification() throws Exception {
+        final Talk origin = new Talk.InFile();
+        try (TalkSession session = new TalkSession(origin)) {
+            session.modify(
+                new Directives().xpath("/talk").attr("later", "true")
+            );
+            Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> session.modify(
+                    new Directives().xpath("/talk").add("unknown")
+                )
+            );
+        }
+        MatcherAssert.assertThat(
+            origin.read(),
+            Matchers.allOf(
+                XhtmlMatchers.hasXPath("/talk[@later='true']"),
+                Matchers.not(XhtmlMatchers.hasXPath("/talk/unknown"))
+            )
+        );
+    }
+
+    /**
+     * TalkSession can refuse to write a talk, which belongs to another
+     * node now.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void refusesToWriteTalkOfAnotherNode() throws Exception {
+        final Talk origin = Mockito.spy(new Talk.InFile());
+        final Leases leases = Mockito.mock(Leases.class);
+        final TalkSession session = new TalkSession(origin, null, leases);
+        session.modify(new Directives().xpath("/talk").attr("later", "true"));
+        Assertions.assertThrows(IllegalStateException.class, session::flush);
+        Mockito.verify(origin, Mockito.never())
+            .modify(ArgumentMatchers.any());
+    }
+
+}
@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.jcabi.log.Logger;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Region;
+import com.jcabi.ssh.Shell;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link ArchivesDaemon}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class ArchivesDaemonTest {
+
+    /**
+     * ArchivesDaemon can archive a big log, without keeping it in memory
+     * or on disk.
+     *
+     * <p>It's a benchmark, which takes a few seconds, so it runs only
+     * when asked for: {@code mvn test -Drun-benchmarks=true}. Time, peak
+     * of heap and bytes uploaded are logged, but not asserted, since they
+     * depend on the machine and the JVM.</p>
+     *
+     * @throws Exception In case of error
+     */
+    @Test
+    public void archivesBigLog() throws Exception {
+        Assumptions.assumeTrue(
+            "true".equalsIgnoreCase(System.getProperty("run-benchmarks"))
+        );
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        int lines = 0;
+        while (baos.size() < 1 << 20) {
+            baos.write(
+                String.format(
+                    "[INFO] Compiling source %d of the module, see %x%n",
+                    lines, lines * 31
+                ).getBytes(StandardCharsets.UTF_8)
+            );
+            ++lines;
+        }
+        final byte[] block = baos.toByteArray();
+        final int blocks = 500;
+        final Shell shell = (command, stdin, stdout, stderr) -> {
+            for (int idx = 0; idx < blocks; ++idx) {
+                stdout.write(block);
+            }
+            return 0;
+        };
+        final AtomicLong uploaded = new AtomicLong();
+        final AmazonS3 aws = ArchivesDaemonTest.aws(uploaded);
+        final ArchivesDaemon daemon = new ArchivesDaemon(
+            ArchivesDaemonTest.bucket(aws)
+        );
+        final Path tmp = Paths.get(System.getProperty("java.io.tmpdir"));
+        final Set<Path> before = ArchivesDaemonTest.files(tmp);
+        System.gc();
+        ArchivesDaemonTest.heap(true);
+        final long start = System.currentTimeMillis();
+        final long total = daemon.upload(shell, "/tmp", "big.txt");
+        final long msec = System.currentTimeMillis() - start;
+        final long heap = ArchivesDaemonTest.heap(false);
+        final Set<Path> created = ArchivesDaemonTest.files(tmp);
+        created.removeAll(before);
+        Logger.info(
+            this,
+            // @checkstyle LineLength (1 line)
+            "%d Mb of log with %d lines archived in %[ms]s, heap peak: %d Mb, uploaded: %d Mb, new temporary files: %d",
+            (long) block.length * blocks >> 20, total, msec,
+            heap >> 20, uploaded.get() >> 20, created.size()
+        );
+        MatcherAssert.assertThat(
+            total, Matchers.equalTo((long) lines * blocks)
+        );
+        MatcherAssert.assertThat(
+            created,
+            Matchers.not(
+                Matchers.hasItem(
+                    Matchers.hasToString(Matchers.endsWith(".txt"))
+                )
+            )
+        );
+        Mockito.verify(aws).completeMultipartUpload(
+            Mockito.any(CompleteMultipartUploadRequest.class)
+        );
+    }
+
+    /**
+     * ArchivesDaemon can abort the upload when the command fails.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void abortsUploadWhenCommandFails() throws Exception {
+        final AmazonS3 aws = ArchivesDaemonTest.aws(new AtomicLong());
+        final Bucket bucket = ArchivesDaemonTest.bucket(aws);
+        final byte[] noise = new byte[12 << 20];
+        new Random(0L).nextBytes(noise);
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new ArchivesDaemon(bucket).upload(
+                (command, stdin, stdout, stderr) -> {
+                    stdout.write(noise);
+                    return 1;
+                },
+                "/tmp", "broken.txt"
+            )
+        );
+        Mockito.verify(aws).abortMultipartUpload(
+            Mockito.any(AbortMultipartUploadRequest.class)
+        );
+        Mockito.verify(aws, Mockito.never()).completeMultipartUpload(
+            Mockito.any(CompleteMultipartUploadRequest.class)
+        );
+    }
+
+    /**
+     * Make a bucket.
+     * @param aws AWS client
+     * @return Bucket
+     */
+    private static Bucket bucket(final AmazonS3 aws) {
+        final Region region = Mockito.mock(Region.class);
+        Mockito.doReturn(aws).when(region).aws();
+        final Bucket bucket = Mockito.mock(Bucket.class);
+        Mockito.doReturn(region).when(bucket).region();
+        Mockito.doReturn("logs").when(bucket).name();
+        return bucket;
+    }
+
+    /**
+     * Make an AWS client, which counts bytes uploaded.
+     * @param bytes Bytes uploaded
+     * @return Client
+     */
+    private static AmazonS3 aws(final AtomicLong bytes) {
+        final AmazonS3 aws = Mockito.mock(AmazonS3.class);
+        final InitiateMultipartUploadResult init =
+            new InitiateMultipartUploadResult();
+        init.setUploadId("upload-2");
+        Mockito.doReturn(init).when(aws).initiateMultipartUpload(
+            Mockito.any(InitiateMultipartUploadRequest.class)
+        );
+        Mockito.doAnswer(
+            inv -> {
+                final UploadPartRequest req = inv.getArgument(0);
+                bytes.addAndGet(
+                    IOUtils.consume(req.getInputStream())
+                );
+                final UploadPartResult part = new UploadPartResult();
+                part.setPartNumber(req.getPartNumber());
+                part.setETag("etag");
+                return part;
+            }
+        ).when(aws).uploadPart(Mockito.any(UploadPartRequest.class));
+        return aws;
+    }
+
+    /**
+     * Files in the directory.
+     * @param dir Directory
+     * @return Files
+     * @throws IOException If fails
+     */
+    private static Set<Path> files(final Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Peak of used heap, in bytes.
+     * @param reset Reset it first
+     * @return Bytes
+     */
+    private static long heap(final boolean reset) {
+        long total = 0L;
+        for (final MemoryPoolMXBean pool
+            : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) {
+                continue;
+            }
+            if (reset) {
+                pool.resetPeakUsage();
+            }
+            total += pool.getPeakUsage().getUsed();
+        }
+        return total;
+    }
+
+}
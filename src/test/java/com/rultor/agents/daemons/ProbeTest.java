@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.rultor.agents.shells.LocalShell;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test case for {@link Probe}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class ProbeTest {
+
+    /**
+     * Probe can report a running daemon.
+     * @param dir Working directory
+     * @throws Exception In case of error
+     */
+    @Test
+    public void reportsAliveDaemon(@TempDir final Path dir) throws Exception {
+        ProbeTest.write(
+            dir, "pid",
+            ManagementFactory.getRuntimeMXBean().getName().split("@")[0]
+        );
+        MatcherAssert.assertThat(
+            new Probe(new LocalShell(dir), dir.toString()).lines(),
+            Matchers.contains("alive")
+        );
+    }
+
+    /**
+     * Probe can report exit code, highlights and tail of a dead daemon.
+     * @param dir Working directory
+     * @throws Exception In case of error
+     */
+    @Test
+    public void reportsDeadDaemon(@TempDir final Path dir) throws Exception {
+        ProbeTest.write(dir, "status", "3\n");
+        ProbeTest.write(
+            dir, "stdout",
+            String.format(
+                "first\n%1$sone\nsecond\n%1$stwo\nthird\n",
+                EndsDaemon.HIGHLIGHTS_PREFIX
+            )
+        );
+        final List<String> lines = new Probe(
+            new LocalShell(dir), dir.toString()
+        ).lines();
+        MatcherAssert.assertThat(
+            lines.subList(0, 2),
+            Matchers.contains("dead", "3")
+        );
+        MatcherAssert.assertThat(
+            lines.subList(2 + 1, lines.size() - 1),
+            Matchers.contains(
+                "2", "one", "two",
+                "first", String.format("%sone", EndsDaemon.HIGHLIGHTS_PREFIX),
+                "second", String.format("%stwo", EndsDaemon.HIGHLIGHTS_PREFIX),
+                "third"
+            )
+        );
+        MatcherAssert.assertThat(
+            lines.get(lines.size() - 1),
+            Matchers.startsWith("'pid' file is absent")
+        );
+    }
+
+    /**
+     * Write a file.
+     * @param dir Directory
+     * @param name File name
+     * @param content Content
+     * @throws IOException If fails
+     */
+    private static void write(final Path dir, final String name,
+        final String content) throws IOException {
+        Files.write(
+            dir.resolve(name), content.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Ocket;
+import com.jcabi.s3.Region;
+import com.jcabi.s3.fake.FkBucket;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link S3Output}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class S3OutputTest {
+
+    /**
+     * S3Output can write small content in one piece.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void writesSmallContent() throws Exception {
+        final Bucket bucket = new FkBucket();
+        try (OutputStream output = new S3Output(
+            bucket, "a/b.txt", new ObjectMetadata()
+        )) {
+            output.write("hello".getBytes(StandardCharsets.UTF_8));
+        }
+        MatcherAssert.assertThat(
+            new Ocket.Text(bucket.ocket("a/b.txt")).read(),
+            Matchers.equalTo("hello")
+        );
+    }
+
+    /**
+     * S3Output can upload big content in parts.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void uploadsInParts() throws Exception {
+        final AmazonS3 aws = S3OutputTest.aws();
+        try (OutputStream output = new S3Output(
+            S3OutputTest.bucket(aws), "c.txt", new ObjectMetadata(), 4
+        )) {
+            output.write("0123456789".getBytes(StandardCharsets.UTF_8));
+        }
+        Mockito.verify(aws, Mockito.times(2 + 1)).uploadPart(
+            Mockito.any(UploadPartRequest.class)
+        );
+        Mockito.verify(aws).completeMultipartUpload(
+            Mockito.any(CompleteMultipartUploadRequest.class)
+        );
+    }
+
+    /**
+     * S3Output can abort the upload.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void abortsUpload() throws Exception {
+        final AmazonS3 aws = S3OutputTest.aws();
+        final S3Output output = new S3Output(
+            S3OutputTest.bucket(aws), "d.txt", new ObjectMetadata(), 2
+        );
+        output.write("abc".getBytes(StandardCharsets.UTF_8));
+        output.abort();
+        Mockito.verify(aws).abortMultipartUpload(
+            Mockito.any(AbortMultipartUploadRequest.class)
+        );
+        Mockito.verify(aws, Mockito.never()).completeMultipartUpload(
+            Mockito.any(CompleteMultipartUploadRequest.class)
+        );
+    }
+
+    /**
+     * S3Output can abort the upload with a new client, when it fails
+     * to complete it.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void abortsUploadAfterFailedClose() throws Exception {
+        final AmazonS3 first = S3OutputTest.aws();
+        Mockito.doThrow(new AmazonServiceException("broken"))
+            .when(first).completeMultipartUpload(
+                Mockito.any(CompleteMultipartUploadRequest.class)
+            );
+        final AmazonS3 second = S3OutputTest.aws();
+        final Bucket bucket = S3OutputTest.bucket(first);
+        final Region region = bucket.region();
+        Mockito.doReturn(first, second).when(region).aws();
+        final S3Output output = new S3Output(
+            bucket, "e.txt", new ObjectMetadata(), 2
+        );
+        output.write("abc".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertThrows(AmazonServiceException.class, output::close);
+        output.abort();
+        Mockito.verify(first, Mockito.never()).abortMultipartUpload(
+            Mockito.any(AbortMultipartUploadRequest.class)
+        );
+        Mockito.verify(second).abortMultipartUpload(
+            Mockito.any(AbortMultipartUploadRequest.class)
+        );
+        Mockito.verify(second).shutdown();
+    }
+
+    /**
+     * S3Output can ignore everything after the upload is aborted.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void ignoresWritesAfterAbort() throws Exception {
+        final AmazonS3 aws = S3OutputTest.aws();
+        final S3Output output = new S3Output(
+            S3OutputTest.bucket(aws), "f.txt", new ObjectMetadata(), 2
+        );
+        output.write("abc".getBytes(StandardCharsets.UTF_8));
+        output.abort();
+        output.write("defgh".getBytes(StandardCharsets.UTF_8));
+        output.close();
+        Mockito.verify(aws).uploadPart(Mockito.any(UploadPartRequest.class));
+        Mockito.verify(aws, Mockito.never()).completeMultipartUpload(
+            Mockito.any(CompleteMultipartUploadRequest.class)
+        );
+    }
+
+    /**
+     * S3Output can do nothing on abort after the upload is completed.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void doesNotAbortCompletedUpload() throws Exception {
+        final AmazonS3 aws = S3OutputTest.aws();
+        final S3Output output = new S3Output(
+            S3OutputTest.bucket(aws), "g.txt", new ObjectMetadata(), 2
+        );
+        output.write("abc".getBytes(StandardCharsets.UTF_8));
+        output.close();
+        output.abort();
+        Mockito.verify(aws, Mockito.never()).abortMultipartUpload(
+            Mockito.any(AbortMultipartUploadRequest.class)
+        );
+        Mockito.verify(aws).shutdown();
+    }
+
+    /**
+     * Make a bucket.
+     * @param aws AWS client
+     * @return Bucket
+     */
+    private static Bucket bucket(final AmazonS3 aws) {
+        final Region region = Mockito.mock(Region.class);
+        Mockito.doReturn(aws).when(region).aws();
+        final Bucket bucket = Mockito.mock(Bucket.class);
+        Mockito.doReturn(region).when(bucket).region();
+        Mockito.doReturn("logs").when(bucket).name();
+        return bucket;
+    }
+
+    /**
+     * Make an AWS client.
+     * @return Client
+     */
+    private static AmazonS3 aws() {
+        final AmazonS3 aws = Mockito.mock(AmazonS3.class);
+        final InitiateMultipartUploadResult init =
+            new InitiateMultipartUploadResult();
+        init.setUploadId("upload-1");
+        Mockito.doReturn(init).when(aws).initiateMultipartUpload(
+            Mockito.any(InitiateMultipartUploadRequest.class)
+        );
+        final UploadPartResult part = new UploadPartResult();
+        part.setPartNumber(1);
+        part.setETag("etag");
+        Mockito.doReturn(part).when(aws).uploadPart(
+            Mockito.any(UploadPartRequest.class)
+        );
+        return aws;
+    }
+
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.ssh.Shell;
+import com.rultor.agents.shells.LocalShell;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test case for {@link Stdout}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class StdoutTest {
+
+    /**
+     * Stdout can fetch only new bytes.
+     * @param dir Working directory
+     * @throws Exception In case of error
+     */
+    @Test
+    public void fetchesOnlyNewBytes(@TempDir final Path dir) throws Exception {
+        final List<String> commands = new LinkedList<>();
+        final Shell shell = StdoutTest.local(dir, commands);
+        final Stdout stdout = new Stdout();
+        StdoutTest.append(dir, "first\nsec");
+        MatcherAssert.assertThat(
+            stdout.read(shell, dir.toString()),
+            Matchers.equalTo("first\n")
+        );
+        StdoutTest.append(dir, "ond\nthird\n");
+        MatcherAssert.assertThat(
+            stdout.read(shell, dir.toString()),
+            Matchers.equalTo("first\nsecond\nthird\n")
+        );
+        MatcherAssert.assertThat(
+            commands.get(1),
+            Matchers.containsString("start=6;")
+        );
+    }
+
+    /**
+     * Stdout can show a multi-byte character, written in two parts.
+     * @param dir Working directory
+     * @throws Exception In case of error
+     */
+    @Test
+    public void keepsCharactersSplitBetweenReads(@TempDir final Path dir)
+        throws Exception {
+        final Shell shell = StdoutTest.local(dir, new LinkedList<>());
+        final Stdout stdout = new Stdout();
+        final byte[] bytes = "caf\u00e9\n".getBytes(StandardCharsets.UTF_8);
+        StdoutTest.append(dir, "x\n");
+        StdoutTest.append(dir, Arrays.copyOfRange(bytes, 0, bytes.length - 2));
+        stdout.read(shell, dir.toString());
+        StdoutTest.append(
+            dir, Arrays.copyOfRange(bytes, bytes.length - 2, bytes.length)
+        );
+        MatcherAssert.assertThat(
+            stdout.read(shell, dir.toString()),
+            Matchers.equalTo("x\ncaf\u00e9\n")
+        );
+    }
+
+    /**
+     * Stdout can show a long line, even if it is not finished yet.
+     * @param dir Working directory
+     * @throws Exception In case of error
+     */
+    @Test
+    public void showsVeryLongLine(@TempDir final Path dir) throws Exception {
+        final char[] line = new char[Tv.FOUR * Tv.MILLION];
+        Arrays.fill(line, 'z');
+        StdoutTest.append(dir, new String(line));
+        MatcherAssert.assertThat(
+            new Stdout().read(
+                StdoutTest.local(dir, new LinkedList<>()), dir.toString()
+            ).length(),
+            Matchers.equalTo(line.length)
+        );
+    }
+
+    /**
+     * Stdout can keep only the latest lines.
+     * @param dir Working directory
+     * @throws Exception In case of error
+     */
+    @Test
+    public void keepsLatestLines(@TempDir final Path dir) throws Exception {
+        final Stdout stdout = new Stdout(2);
+        StdoutTest.append(dir, "a\nb\nc\n");
+        MatcherAssert.assertThat(
+            stdout.read(
+                StdoutTest.local(dir, new LinkedList<>()), dir.toString()
+            ),
+            Matchers.endsWith("only the last 2 lines)\nb\nc\n")
+        );
+    }
+
+    /**
+     * Stdout can start over when the file is truncated.
+     * @param dir Working directory
+     * @throws Exception In case of error
+     */
+    @Test
+    public void startsOverOnTruncation(@TempDir final Path dir)
+        throws Exception {
+        final Shell shell = StdoutTest.local(dir, new LinkedList<>());
+        final Stdout stdout = new Stdout();
+        StdoutTest.append(dir, "some long line\n");
+        stdout.read(shell, dir.toString());
+        Files.delete(dir.resolve("stdout"));
+        StdoutTest.append(dir, "new\n");
+        MatcherAssert.assertThat(
+            stdout.read(shell, dir.toString()),
+            Matchers.equalTo("new\n")
+        );
+    }
+
+    /**
+     * Append text to stdout.
+     * @param dir Directory
+     * @param text Text
+     * @throws IOException If fails
+     */
+    private static void append(final Path dir, final String text)
+        throws IOException {
+        StdoutTest.append(dir, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Append bytes to stdout.
+     * @param dir Directory
+     * @param bytes Bytes
+     * @throws IOException If fails
+     */
+    private static void append(final Path dir, final byte[] bytes)
+        throws IOException {
+        Files.write(
+            dir.resolve("stdout"), bytes,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND
+        );
+    }
+
+    /**
+     * Shell that runs commands locally, where {@code col} may be absent.
+     * @param dir Home directory
+     * @param commands Commands executed
+     * @return Shell
+     */
+    private static Shell local(final Path dir, final List<String> commands) {
+        final Shell shell = new LocalShell(dir, commands);
+        return (command, stdin, stdout, stderr) -> shell.exec(
+            String.format("col() { cat; }; %s", command),
+            stdin, stdout, stderr
+        );
+    }
+
+}
@@ -35,11 +35,14 @@ import com.jcabi.github.mock.MkGithub;
 import com.jcabi.log.Logger;
 import com.jcabi.matchers.XhtmlMatchers;
 import com.rultor.spi.Agent;
+import com.rultor.spi.Fragments;
 import com.rultor.spi.Talk;
 import java.io.IOException;
 import java.util.ResourceBundle;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.xembly.Directives;
 
 /**
@@ -123,6 +126,31 @@ public final class ReportsTest {
         );
     }
 
+    /**
+     * Reports can report a tail, which is kept out of the talk.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void reportsTailOutOfTalk() throws Exception {
+        final Repo repo = new MkGithub().randomRepo();
+        final Talk talk = ReportsTest.example(
+            repo, repo.issues().create("", "")
+        );
+        talk.modify(
+            new Directives().xpath("/talk/request/success").set("false")
+                .up().add("tail").attr("ref", "abcd-tail")
+        );
+        final Fragments fragments = Mockito.mock(Fragments.class);
+        Mockito.doReturn("BUILD FAILURE").when(fragments).get(
+            Mockito.anyString(), Mockito.eq("abcd-tail")
+        );
+        new Reports(repo.github(), fragments).execute(talk);
+        MatcherAssert.assertThat(
+            repo.issues().get(1).comments().get(1).json().getString("body"),
+            Matchers.containsString("```\nBUILD FAILURE\n```")
+        );
+    }
+
     /**
      * Create Talk, that will be used to test Reports.
      * @param repo Repository
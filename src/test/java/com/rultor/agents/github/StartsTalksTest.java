@@ -31,9 +31,21 @@ package com.rultor.agents.github;
 
 import com.jcabi.github.Issue;
 import com.jcabi.github.Repo;
+import com.jcabi.github.RtGithub;
 import com.jcabi.github.mock.MkGithub;
+import com.jcabi.http.request.JdkRequest;
+import com.rultor.Time;
+import com.rultor.spi.Signals;
 import com.rultor.spi.SuperAgent;
 import com.rultor.spi.Talks;
+import com.sun.net.httpserver.HttpServer;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Disabled;
@@ -67,4 +79,71 @@ public final class StartsTalksTest {
         );
     }
 
+    /**
+     * StartsTalks can look for mentions as far back as told.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void looksBackAsFarAsTold() throws Exception {
+        final Collection<String> queries = new ConcurrentLinkedQueue<>();
+        final HttpServer server = HttpServer.create(
+            new InetSocketAddress("localhost", 0), 0
+        );
+        server.createContext(
+            "/",
+            exchange -> {
+                final byte[] body;
+                if ("GET".equals(exchange.getRequestMethod())) {
+                    queries.add(exchange.getRequestURI().getQuery());
+                    body = "[]".getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(
+                        HttpURLConnection.HTTP_OK, body.length
+                    );
+                } else {
+                    body = new byte[0];
+                    exchange.sendResponseHeaders(
+                        HttpURLConnection.HTTP_RESET, -1L
+                    );
+                }
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            }
+        );
+        server.start();
+        try {
+            final long before = System.currentTimeMillis();
+            new StartsTalks(
+                new RtGithub(
+                    new JdkRequest(
+                        String.format(
+                            "http://localhost:%d",
+                            server.getAddress().getPort()
+                        )
+                    )
+                ),
+                Signals.EMPTY, TimeUnit.SECONDS.toMillis(20L)
+            ).execute(new Talks.InDir());
+            MatcherAssert.assertThat(
+                before - new Time(
+                    URLDecoder.decode(
+                        queries.iterator().next().replaceAll(
+                            ".*since=([^&]+).*", "$1"
+                        ),
+                        StandardCharsets.UTF_8.name()
+                    )
+                ).msec(),
+                Matchers.allOf(
+                    Matchers.greaterThanOrEqualTo(
+                        TimeUnit.SECONDS.toMillis(19L)
+                    ),
+                    Matchers.lessThanOrEqualTo(
+                        TimeUnit.SECONDS.toMillis(21L)
+                    )
+                )
+            );
+        } finally {
+            server.stop(0);
+        }
+    }
+
 }
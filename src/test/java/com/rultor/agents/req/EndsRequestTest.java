@@ -74,4 +74,35 @@ public final class EndsRequestTest {
         );
     }
 
+    /**
+     * EndsRequest can copy references to fragments out of the talk.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void copiesReferencesToFragments() throws Exception {
+        final Talk talk = new Talk.InFile();
+        talk.modify(
+            new Directives().xpath("/talk")
+                .add("daemon").attr("id", "abcd")
+                .add("title").set("merge").up()
+                .add("script").set("ls").up()
+                .add("code").set("1").up()
+                .add("started").set("2013-01-01T11:35:09Z").up()
+                .add("ended").set("2013-01-01T12:35:09Z").up()
+                .add("highlights").set("nothing").up()
+                .add("tail").attr("ref", "abcd-tail").up().up()
+                .add("request").attr("id", "1")
+                .add("type").set("merge").up()
+                .add("args")
+        );
+        new EndsRequest().execute(talk);
+        MatcherAssert.assertThat(
+            talk.read(),
+            XhtmlMatchers.hasXPaths(
+                "/talk/request/tail[@ref='abcd-tail' and .='']",
+                "/talk/request/highlights[not(@ref) and .='nothing']"
+            )
+        );
+    }
+
 }
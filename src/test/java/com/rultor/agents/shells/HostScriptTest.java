@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.shells;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.ssh.Shell;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.output.NullOutputStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test case for {@link HostScript}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class HostScriptTest {
+
+    /**
+     * HostScript can upload the script only once.
+     * @param home Home directory
+     * @throws Exception In case of error
+     */
+    @Test
+    public void installsOnlyOnce(@TempDir final Path home) throws Exception {
+        final List<String> commands = new LinkedList<>();
+        final Shell shell = new LocalShell(home, commands);
+        final HostScript script = new HostScript(
+            "hello.sh", "echo \"Hello, $1!\"\n"
+        );
+        final OutputStream stderr = NullOutputStream.NULL_OUTPUT_STREAM;
+        final ByteArrayOutputStream first = new ByteArrayOutputStream();
+        script.exec(shell, ".", "Jeff", first, stderr);
+        final ByteArrayOutputStream second = new ByteArrayOutputStream();
+        script.exec(shell, ".", "Ann", second, stderr);
+        MatcherAssert.assertThat(
+            new String(first.toByteArray(), StandardCharsets.UTF_8),
+            Matchers.equalTo("Hello, Jeff!\n")
+        );
+        MatcherAssert.assertThat(
+            new String(second.toByteArray(), StandardCharsets.UTF_8),
+            Matchers.equalTo("Hello, Ann!\n")
+        );
+        MatcherAssert.assertThat(
+            commands,
+            Matchers.hasSize(Tv.FIVE)
+        );
+        MatcherAssert.assertThat(
+            home.resolve(".rultor/scripts").toFile().list(),
+            Matchers.arrayContaining(Matchers.endsWith("-hello.sh"))
+        );
+    }
+
+    /**
+     * HostScript can return any exit code of the script, even the one
+     * it uses itself when the script is absent.
+     * @param home Home directory
+     * @throws Exception In case of error
+     */
+    @Test
+    public void returnsExitCodeOfScript(@TempDir final Path home)
+        throws Exception {
+        final List<String> commands = new LinkedList<>();
+        final Shell shell = new LocalShell(home, commands);
+        final HostScript script = new HostScript(
+            "fail.sh", "echo 'failed'\nexit 254\n"
+        );
+        final OutputStream stderr = NullOutputStream.NULL_OUTPUT_STREAM;
+        for (int idx = 0; idx < 2; ++idx) {
+            final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+            MatcherAssert.assertThat(
+                script.exec(shell, ".", "", stdout, stderr),
+                // @checkstyle MagicNumber (1 line)
+                Matchers.equalTo(254)
+            );
+            MatcherAssert.assertThat(
+                new String(stdout.toByteArray(), StandardCharsets.UTF_8),
+                Matchers.equalTo("failed\n")
+            );
+        }
+        MatcherAssert.assertThat(
+            commands,
+            Matchers.hasSize(Tv.FIVE)
+        );
+    }
+
+    /**
+     * HostScript can execute the script from many threads at once,
+     * while it is being installed.
+     * @param home Home directory
+     * @throws Exception In case of error
+     */
+    @Test
+    public void executesConcurrently(@TempDir final Path home)
+        throws Exception {
+        final Shell shell = new LocalShell(home);
+        final HostScript script = new HostScript(
+            "hi.sh", "echo \"Hi, $1!\"\n"
+        );
+        final int threads = Tv.EIGHT;
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService service = Executors.newFixedThreadPool(threads);
+        try {
+            final Collection<Future<String>> futures = new LinkedList<>();
+            for (int idx = 0; idx < threads; ++idx) {
+                final String name = String.format("t%d", idx);
+                futures.add(
+                    service.submit(
+                        () -> {
+                            start.await();
+                            final ByteArrayOutputStream stdout =
+                                new ByteArrayOutputStream();
+                            MatcherAssert.assertThat(
+                                script.exec(
+                                    shell, ".", name, stdout,
+                                    NullOutputStream.NULL_OUTPUT_STREAM
+                                ),
+                                Matchers.equalTo(0)
+                            );
+                            return new String(
+                                stdout.toByteArray(), StandardCharsets.UTF_8
+                            );
+                        }
+                    )
+                );
+            }
+            start.countDown();
+            int idx = 0;
+            for (final Future<String> future : futures) {
+                MatcherAssert.assertThat(
+                    future.get(1L, TimeUnit.MINUTES),
+                    Matchers.equalTo(String.format("Hi, t%d!\n", idx))
+                );
+                ++idx;
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    /**
+     * HostScript can install new versions next to the old ones.
+     */
+    @Test
+    public void namesScriptsByContent() {
+        MatcherAssert.assertThat(
+            new HostScript("a.sh", "ls").path(),
+            Matchers.not(new HostScript("a.sh", "pwd").path())
+        );
+    }
+
+}
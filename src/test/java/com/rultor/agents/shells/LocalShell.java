@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.shells;
+
+import com.jcabi.ssh.Shell;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedList;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Shell that runs commands locally, in bash, for tests.
+ *
+ * <p>The home directory is both the working directory of commands and
+ * their {@code $HOME}. All commands executed are remembered.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class LocalShell implements Shell {
+
+    /**
+     * Home directory.
+     */
+    private final transient Path home;
+
+    /**
+     * Commands executed.
+     */
+    private final transient Collection<String> commands;
+
+    /**
+     * Ctor.
+     * @param dir Home directory
+     */
+    public LocalShell(final Path dir) {
+        this(dir, new LinkedList<>());
+    }
+
+    /**
+     * Ctor.
+     * @param dir Home directory
+     * @param cmds Where to remember commands executed
+     */
+    public LocalShell(final Path dir, final Collection<String> cmds) {
+        this.home = dir;
+        this.commands = cmds;
+    }
+
+    @Override
+    public int exec(final String command, final InputStream stdin,
+        final OutputStream stdout, final OutputStream stderr)
+        throws IOException {
+        synchronized (this.commands) {
+            this.commands.add(command);
+        }
+        final ProcessBuilder builder = new ProcessBuilder(
+            "/bin/bash", "-c", command
+        ).directory(this.home.toFile());
+        builder.environment().put("HOME", this.home.toString());
+        final Process proc = builder.start();
+        IOUtils.copy(stdin, proc.getOutputStream());
+        proc.getOutputStream().close();
+        IOUtils.copy(proc.getInputStream(), stdout);
+        IOUtils.copy(proc.getErrorStream(), stderr);
+        try {
+            return proc.waitFor();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.shells;
+
+import com.jcraft.jsch.Session;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link SshPool}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class SshPoolTest {
+
+    /**
+     * SshPool can use the same session again.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void reusesSessions() throws Exception {
+        final AtomicInteger opened = new AtomicInteger();
+        final SshPool pool = SshPoolTest.pool(opened, 2);
+        final SshPool.Target target = SshPoolTest.target("alpha");
+        final Session first = pool.acquire(target);
+        final Session second = pool.acquire(target);
+        pool.release(target, first, true);
+        pool.release(target, second, true);
+        pool.release(target, pool.acquire(target), true);
+        MatcherAssert.assertThat(second, Matchers.sameInstance(first));
+        MatcherAssert.assertThat(opened.get(), Matchers.equalTo(1));
+        MatcherAssert.assertThat(
+            pool.stats(),
+            Matchers.startsWith(
+                "1 SSH session(s) open, 1 handshake(s), 2 reuse(s) (67%)"
+            )
+        );
+    }
+
+    /**
+     * SshPool can open a new session when channels are busy.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void opensSessionsWhenChannelsAreBusy() throws Exception {
+        final AtomicInteger opened = new AtomicInteger();
+        final SshPool pool = SshPoolTest.pool(opened, 1);
+        final SshPool.Target target = SshPoolTest.target("beta");
+        final Session first = pool.acquire(target);
+        final Session second = pool.acquire(target);
+        MatcherAssert.assertThat(second, Matchers.not(first));
+        MatcherAssert.assertThat(opened.get(), Matchers.equalTo(2));
+    }
+
+    /**
+     * SshPool can separate sessions of different logins.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void separatesTargets() throws Exception {
+        final AtomicInteger opened = new AtomicInteger();
+        final SshPool pool = SshPoolTest.pool(opened, 2);
+        final SshPool.Target first = SshPoolTest.target("gamma");
+        final Session session = pool.acquire(first);
+        pool.release(first, session, true);
+        final SshPool.Target second = SshPoolTest.target("delta");
+        MatcherAssert.assertThat(
+            pool.acquire(second), Matchers.not(session)
+        );
+    }
+
+    /**
+     * SshPool can replace broken sessions.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void replacesBrokenSessions() throws Exception {
+        final AtomicInteger opened = new AtomicInteger();
+        final SshPool pool = SshPoolTest.pool(opened, 2);
+        final SshPool.Target target = SshPoolTest.target("epsilon");
+        final Session broken = pool.acquire(target);
+        pool.release(target, broken, false);
+        final Session lost = pool.acquire(target);
+        Mockito.doReturn(false).when(lost).isConnected();
+        pool.release(target, lost, true);
+        pool.acquire(target);
+        Mockito.verify(broken).disconnect();
+        Mockito.verify(lost).disconnect();
+        MatcherAssert.assertThat(opened.get(), Matchers.equalTo(3));
+    }
+
+    /**
+     * SshPool can close idle sessions.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void closesIdleSessions() throws Exception {
+        final SshPool pool = SshPoolTest.pool(new AtomicInteger(), 2);
+        final SshPool.Target target = SshPoolTest.target("zeta");
+        final Session idle = pool.acquire(target);
+        final Session busy = pool.acquire(SshPoolTest.target("eta"));
+        pool.release(target, idle, true);
+        pool.close();
+        Mockito.verify(idle).disconnect();
+        Mockito.verify(busy, Mockito.never()).disconnect();
+    }
+
+    /**
+     * Make a pool with fake sessions.
+     * @param opened Counter of sessions opened
+     * @param channels Maximum channels per session
+     * @return Pool
+     */
+    private static SshPool pool(final AtomicInteger opened,
+        final int channels) {
+        return new SshPool(
+            target -> {
+                opened.incrementAndGet();
+                final Session session = Mockito.mock(Session.class);
+                Mockito.doReturn(true).when(session).isConnected();
+                return session;
+            },
+            2, channels, TimeUnit.MINUTES.toMillis(1L)
+        );
+    }
+
+    /**
+     * Make a target.
+     * @param login Login
+     * @return Target
+     * @throws Exception If fails
+     */
+    private static SshPool.Target target(final String login)
+        throws Exception {
+        return new SshPool.Target("127.0.0.1", 22, login, "the key");
+    }
+
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.cached;
+
+import com.jcabi.xml.XMLDocument;
+import com.rultor.spi.Talk;
+import com.rultor.spi.Talks;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.xembly.Directives;
+
+/**
+ * Tests for {@link CdTalks}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class CdTalksTest {
+
+    /**
+     * CdTalks can cache XML of a talk until it is modified.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void cachesXmlUntilModified() throws Exception {
+        final Talk origin = Mockito.mock(Talk.class);
+        Mockito.doReturn(Talk.TEST_NAME).when(origin).name();
+        Mockito.doReturn(new XMLDocument("<talk/>")).when(origin).read();
+        final Talks talks = Mockito.mock(Talks.class);
+        Mockito.doReturn(origin).when(talks).get(Talk.TEST_NAME);
+        final CdCache cache = new CdCache();
+        final Talk talk = new CdTalks(talks, cache).get(Talk.TEST_NAME);
+        talk.read();
+        talk.read();
+        Mockito.verify(origin, Mockito.times(1)).read();
+        talk.modify(new Directives().xpath("/talk").attr("later", "true"));
+        talk.read();
+        Mockito.verify(origin, Mockito.times(2)).read();
+        MatcherAssert.assertThat(
+            cache.stats(),
+            Matchers.containsString("1 hit(s), 3 miss(es)")
+        );
+    }
+
+    /**
+     * CdTalks can keep the cache bounded.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void keepsCacheBounded() throws Exception {
+        final Talks talks = Mockito.mock(Talks.class);
+        Mockito.doReturn(true).when(talks).exists(Mockito.anyString());
+        final CdCache cache = new CdCache(2L, 1000L);
+        final Talks cached = new CdTalks(talks, cache);
+        for (int idx = 0; idx < 10; ++idx) {
+            cached.exists(String.format("test#%d", idx));
+        }
+        MatcherAssert.assertThat(
+            cache.stats(),
+            Matchers.startsWith("2 entries in cache")
+        );
+    }
+
+    /**
+     * CdTalks can remember names of talks by their numbers.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void remembersNamesByNumbers() throws Exception {
+        final Talk origin = Mockito.mock(Talk.class);
+        Mockito.doReturn(Talk.TEST_NAME).when(origin).name();
+        Mockito.doReturn(1L).when(origin).number();
+        final Talks talks = Mockito.mock(Talks.class);
+        Mockito.doReturn(Optional.of(origin)).when(talks).find(1L);
+        Mockito.doReturn(Optional.of(origin))
+            .when(talks).find(Talk.TEST_NAME);
+        Mockito.doReturn(Optional.empty()).when(talks).find(2L);
+        Mockito.doReturn(Collections.singletonMap(Talk.TEST_NAME, origin))
+            .when(talks).named(Mockito.any());
+        final CdCache cache = new CdCache(10L, 1L);
+        final Talks cached = new CdTalks(talks, cache);
+        MatcherAssert.assertThat(
+            cached.find(1L).get().name(),
+            Matchers.equalTo(Talk.TEST_NAME)
+        );
+        MatcherAssert.assertThat(
+            cached.find(2L).isPresent(),
+            Matchers.is(false)
+        );
+        TimeUnit.MILLISECONDS.sleep(10L);
+        MatcherAssert.assertThat(
+            cached.numbered(Arrays.asList(1L, 2L)).keySet(),
+            Matchers.contains(1L)
+        );
+        Mockito.verify(talks, Mockito.times(1)).find(1L);
+        Mockito.verify(talks).numbered(Arrays.asList(2L));
+        MatcherAssert.assertThat(
+            cache.name(1L).get(),
+            Matchers.equalTo(Talk.TEST_NAME)
+        );
+    }
+
+    /**
+     * CdTalks can forget talks by numbers, when talks are deleted or created.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void forgetsNumbersOnDeleteAndCreate() throws Exception {
+        final Talks talks = Mockito.mock(Talks.class);
+        Mockito.doReturn(true, false, true).when(talks).exists(1L);
+        final CdCache cache = new CdCache(TimeUnit.HOURS.toMillis(1L), 1L);
+        final Talks cached = new CdTalks(talks, cache);
+        cache.name(1L, Talk.TEST_NAME);
+        MatcherAssert.assertThat(cached.exists(1L), Matchers.is(true));
+        cached.delete(Talk.TEST_NAME);
+        MatcherAssert.assertThat(cached.exists(1L), Matchers.is(false));
+        MatcherAssert.assertThat(
+            cache.name(1L).isPresent(),
+            Matchers.is(false)
+        );
+        cached.create("test/repo", Talk.TEST_NAME);
+        MatcherAssert.assertThat(cached.exists(1L), Matchers.is(true));
+        Mockito.verify(talks, Mockito.times(3)).exists(1L);
+    }
+
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.jcabi.log.Logger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link Codec}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class CodecTest {
+
+    /**
+     * Amount of sample talks in the corpus.
+     */
+    private static final int CORPUS = 12;
+
+    /**
+     * Codec can encode and decode XML back, with every codec.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void encodesAndDecodes() throws Exception {
+        for (final String xml : CodecTest.corpus()) {
+            for (final Codec codec : new Codec[] {Codec.GZIP, Codec.DEFLATED}) {
+                MatcherAssert.assertThat(
+                    codec.decode(codec.encode(xml)),
+                    Matchers.equalTo(xml)
+                );
+            }
+        }
+    }
+
+    /**
+     * Codec can be found by its identifier, GZIP by default.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void findsCodecById() throws Exception {
+        MatcherAssert.assertThat(Codec.of(null), Matchers.is(Codec.GZIP));
+        MatcherAssert.assertThat(
+            Codec.of(Codec.DEFLATED.id()), Matchers.is(Codec.DEFLATED)
+        );
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> Codec.of("lzma")
+        );
+    }
+
+    /**
+     * Codec can't decode truncated content.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void rejectsTruncatedContent() throws Exception {
+        final byte[] bytes = Codec.DEFLATED.encode(
+            CodecTest.corpus().iterator().next()
+        );
+        Assertions.assertThrows(
+            IOException.class,
+            () -> Codec.DEFLATED.decode(
+                Arrays.copyOf(bytes, bytes.length / 2)
+            )
+        );
+    }
+
+    /**
+     * Codec with the dictionary makes smaller items than GZIP.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void comparesCodecsOnCorpus() throws Exception {
+        final Collection<String> corpus = CodecTest.corpus();
+        final long gzip = CodecTest.measure(Codec.GZIP, corpus);
+        final long deflated = CodecTest.measure(Codec.DEFLATED, corpus);
+        MatcherAssert.assertThat(deflated, Matchers.lessThan(gzip));
+    }
+
+    /**
+     * Encode and decode the corpus, logging sizes and time spent.
+     * @param codec The codec
+     * @param corpus Sample talks
+     * @return Total size of encoded talks, in bytes
+     * @throws Exception In case of error.
+     */
+    private static long measure(final Codec codec,
+        final Collection<String> corpus) throws Exception {
+        final int rounds = 50;
+        long plain = 0L;
+        long size = 0L;
+        long encoding = 0L;
+        long decoding = 0L;
+        for (int idx = 0; idx < rounds; ++idx) {
+            for (final String xml : corpus) {
+                final long start = System.nanoTime();
+                final byte[] bytes = codec.encode(xml);
+                final long middle = System.nanoTime();
+                codec.decode(bytes);
+                decoding += System.nanoTime() - middle;
+                encoding += middle - start;
+                if (idx == 0) {
+                    plain += xml.length();
+                    size += bytes.length;
+                }
+            }
+        }
+        Logger.info(
+            CodecTest.class,
+            // @checkstyle LineLength (1 line)
+            "%s: %d talks, %d bytes encoded to %d, %d rounds: %[nano]s encoding, %[nano]s decoding",
+            codec.id(), corpus.size(), plain, size, rounds,
+            encoding, decoding
+        );
+        return size;
+    }
+
+    /**
+     * Sample talks.
+     * @return XML of them
+     * @throws IOException If fails
+     */
+    private static Collection<String> corpus() throws IOException {
+        final Collection<String> corpus = new ArrayList<>(CodecTest.CORPUS);
+        for (int idx = 1; idx <= CodecTest.CORPUS; ++idx) {
+            try (InputStream input = CodecTest.class.getResourceAsStream(
+                String.format("corpus/talk-%02d.xml", idx)
+            )) {
+                corpus.add(IOUtils.toString(input, StandardCharsets.UTF_8));
+            }
+        }
+        return corpus;
+    }
+
+}
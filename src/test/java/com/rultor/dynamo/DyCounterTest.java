@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import co.stateful.mock.MkSttc;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+import com.jcabi.dynamo.Region;
+import com.jcabi.dynamo.Table;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Tests for {@link DyCounter}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class DyCounterTest {
+
+    /**
+     * DyCounter can give out unique numbers, reserving them in blocks.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void reservesNumbersInBlocks() throws Exception {
+        final AmazonDynamoDB aws = DyCounterTest.aws(new AtomicLong(-1L));
+        final Region region = DyCounterTest.region(aws);
+        final DyCounter first = new DyCounter(
+            region, "test", new MkSttc().counters().get("a"), 10L
+        );
+        final DyCounter second = new DyCounter(
+            region, "test", new MkSttc().counters().get("b"), 10L
+        );
+        final Collection<Long> numbers = new LinkedList<>();
+        for (int idx = 0; idx < 25; ++idx) {
+            numbers.add(first.incrementAndGet(1L));
+            numbers.add(second.incrementAndGet(1L));
+        }
+        MatcherAssert.assertThat(
+            numbers,
+            Matchers.everyItem(Matchers.greaterThan(0L))
+        );
+        MatcherAssert.assertThat(
+            new HashSet<>(numbers),
+            Matchers.hasSize(50)
+        );
+        Mockito.verify(aws, Mockito.times(6))
+            .updateItem(Mockito.any(UpdateItemRequest.class));
+        Mockito.verify(aws, Mockito.times(1))
+            .putItem(Mockito.any(PutItemRequest.class));
+    }
+
+    /**
+     * Region with the client.
+     * @param aws The client
+     * @return Region
+     */
+    private static Region region(final AmazonDynamoDB aws) {
+        final Region region = Mockito.mock(Region.class);
+        final Table table = Mockito.mock(Table.class);
+        Mockito.doReturn(table).when(region).table(DyCounter.TBL);
+        Mockito.doReturn(region).when(table).region();
+        Mockito.doReturn("rt-counters").when(table).name();
+        Mockito.doReturn(aws).when(region).aws();
+        return region;
+    }
+
+    /**
+     * Client, which keeps the value of the counter in memory.
+     * @param value The value, negative if the item is absent
+     * @return The client
+     */
+    private static AmazonDynamoDB aws(final AtomicLong value) {
+        final AmazonDynamoDB aws = Mockito.mock(AmazonDynamoDB.class);
+        Mockito.doAnswer(
+            inv -> {
+                if (value.get() < 0L) {
+                    throw new ConditionalCheckFailedException("absent");
+                }
+                final long size = Long.parseLong(
+                    inv.getArgument(0, UpdateItemRequest.class)
+                        .getExpressionAttributeValues().get(":size").getN()
+                );
+                return new UpdateItemResult().withAttributes(
+                    Collections.singletonMap(
+                        DyCounter.ATTR_VALUE,
+                        new AttributeValue().withN(
+                            Long.toString(value.addAndGet(size))
+                        )
+                    )
+                );
+            }
+        ).when(aws).updateItem(Mockito.any(UpdateItemRequest.class));
+        Mockito.doAnswer(
+            inv -> {
+                final PutItemRequest req = inv.getArgument(
+                    0, PutItemRequest.class
+                );
+                if (req.getConditionExpression() != null
+                    && value.get() >= 0L) {
+                    throw new ConditionalCheckFailedException("exists");
+                }
+                value.set(
+                    Long.parseLong(
+                        req.getItem().get(DyCounter.ATTR_VALUE).getN()
+                    )
+                );
+                return new PutItemResult();
+            }
+        ).when(aws).putItem(Mockito.any(PutItemRequest.class));
+        return aws;
+    }
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.jcabi.dynamo.Credentials;
+import com.jcabi.dynamo.Region;
+import com.jcabi.dynamo.retry.ReRegion;
+import com.jcabi.manifests.Manifests;
+import com.rultor.spi.Fragments;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Integration case for {@link DyFragments}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class DyFragmentsITCase {
+
+    /**
+     * DynamoDB Local port.
+     */
+    private static final String PORT = System.getProperty("failsafe.ddl.port");
+
+    /**
+     * Before the entire test.
+     */
+    @BeforeEach
+    public void before() {
+        Assumptions.assumeFalse(DyFragmentsITCase.PORT.isEmpty());
+    }
+
+    /**
+     * DyFragments can save a fragment and load it back.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void savesAndLoadsFragments() throws Exception {
+        final Fragments fragments = new DyFragments(
+            DyFragmentsITCase.dynamo()
+        );
+        final String talk = "test/test#1";
+        final StringBuilder text = new StringBuilder(0);
+        // @checkstyle MagicNumber (1 line)
+        for (int idx = 0; idx < 1000; ++idx) {
+            text.append("[INFO] Building line ").append(idx).append('\n');
+        }
+        MatcherAssert.assertThat(
+            fragments.put(talk, "a1-tail", text.toString()),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            fragments.get(talk, "a1-tail"),
+            Matchers.equalTo(text.toString())
+        );
+        MatcherAssert.assertThat(
+            fragments.get(talk, "a2-tail"),
+            Matchers.emptyString()
+        );
+    }
+
+    /**
+     * Make DynamoDB region.
+     * @return Region
+     */
+    private static Region dynamo() {
+        return new Region.Prefixed(
+            new ReRegion(
+                new Region.Simple(
+                    new Credentials.Direct(
+                        new Credentials.Simple(
+                            Manifests.read("Rultor-DynamoKey"),
+                            Manifests.read("Rultor-DynamoSecret")
+                        ),
+                        Integer.parseInt(DyFragmentsITCase.PORT)
+                    )
+                )
+            ),
+            "rt-"
+        );
+    }
+
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.jcabi.dynamo.Credentials;
+import com.jcabi.dynamo.Region;
+import com.jcabi.dynamo.retry.ReRegion;
+import com.jcabi.manifests.Manifests;
+import com.rultor.spi.Leases;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Integration case for {@link DyLeases}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class DyLeasesITCase {
+
+    /**
+     * DynamoDB Local port.
+     */
+    private static final String PORT = System.getProperty("failsafe.ddl.port");
+
+    /**
+     * Before the entire test.
+     */
+    @BeforeEach
+    public void before() {
+        Assumptions.assumeFalse(DyLeasesITCase.PORT.isEmpty());
+    }
+
+    /**
+     * DyLeases can split talks between nodes and take over talks
+     * of a dead node.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void splitsTalksAndTakesThemOver() throws Exception {
+        final long ttl = TimeUnit.SECONDS.toMillis(5L);
+        final Leases first = new DyLeases(
+            // @checkstyle MagicNumber (1 line)
+            DyLeasesITCase.dynamo(), "first", 8, ttl
+        );
+        final Leases second = new DyLeases(
+            // @checkstyle MagicNumber (1 line)
+            DyLeasesITCase.dynamo(), "second", 8, ttl
+        );
+        first.renew();
+        second.renew();
+        first.renew();
+        second.renew();
+        int mine = 0;
+        // @checkstyle MagicNumber (1 line)
+        for (int idx = 0; idx < 100; ++idx) {
+            final String name = String.format("test/test#%d", idx);
+            MatcherAssert.assertThat(
+                first.owns(name),
+                Matchers.not(Matchers.equalTo(second.owns(name)))
+            );
+            if (first.owns(name)) {
+                ++mine;
+            }
+        }
+        MatcherAssert.assertThat(mine, Matchers.greaterThan(0));
+        MatcherAssert.assertThat(
+            first.leads(),
+            Matchers.not(Matchers.equalTo(second.leads()))
+        );
+        TimeUnit.MILLISECONDS.sleep(ttl * 2L);
+        first.renew();
+        MatcherAssert.assertThat(first.owns("test/test#1"), Matchers.is(true));
+        MatcherAssert.assertThat(first.owns("test/test#2"), Matchers.is(true));
+        MatcherAssert.assertThat(first.leads(), Matchers.is(true));
+    }
+
+    /**
+     * DyLeases can stop owning talks when leases are not renewed in time.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void stopsOwningTalksWhenNotRenewed() throws Exception {
+        final long ttl = TimeUnit.SECONDS.toMillis(3L);
+        final Leases leases = new DyLeases(
+            DyLeasesITCase.dynamo(), "lonely", 1, ttl
+        );
+        leases.renew();
+        MatcherAssert.assertThat(leases.owns("test/test#1"), Matchers.is(true));
+        TimeUnit.MILLISECONDS.sleep(ttl);
+        MatcherAssert.assertThat(
+            leases.owns("test/test#1"), Matchers.is(false)
+        );
+        MatcherAssert.assertThat(leases.leads(), Matchers.is(false));
+    }
+
+    /**
+     * Make DynamoDB region.
+     * @return Region
+     */
+    private static Region dynamo() {
+        return new Region.Prefixed(
+            new ReRegion(
+                new Region.Simple(
+                    new Credentials.Direct(
+                        new Credentials.Simple(
+                            Manifests.read("Rultor-DynamoKey"),
+                            Manifests.read("Rultor-DynamoSecret")
+                        ),
+                        Integer.parseInt(DyLeasesITCase.PORT)
+                    )
+                )
+            ),
+            "rt-"
+        );
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+import com.jcabi.dynamo.Frame;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.Region;
+import com.jcabi.dynamo.Table;
+import com.jcabi.dynamo.Valve;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link DyLeases}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class DyLeasesTest {
+
+    /**
+     * DyLeases can keep owning shards while they are being renewed.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void keepsOwningShardsWhileRenewing() throws Exception {
+        final AmazonDynamoDB aws = Mockito.mock(AmazonDynamoDB.class);
+        Mockito.doAnswer(
+            inv -> {
+                // @checkstyle MagicNumber (1 line)
+                TimeUnit.MILLISECONDS.sleep(50L);
+                return new UpdateItemResult();
+            }
+        ).when(aws).updateItem(Mockito.any(UpdateItemRequest.class));
+        final long expires = System.currentTimeMillis()
+            + TimeUnit.HOURS.toMillis(1L);
+        final Collection<Item> items = new ArrayList<>(0);
+        items.add(DyLeasesTest.item("node:me", "me", expires));
+        items.add(DyLeasesTest.item("node:other", "other", expires));
+        // @checkstyle MagicNumber (1 line)
+        for (int shard = 0; shard < 4; ++shard) {
+            items.add(
+                DyLeasesTest.item(
+                    String.format("shard:%d", shard), "me", expires
+                )
+            );
+        }
+        final Frame frame = Mockito.mock(Frame.class);
+        Mockito.doReturn(frame).when(frame).through(Mockito.any(Valve.class));
+        Mockito.doAnswer(inv -> items.iterator()).when(frame).iterator();
+        final Region region = Mockito.mock(Region.class);
+        final Table table = Mockito.mock(Table.class);
+        Mockito.doReturn(table).when(region).table(DyLeases.TBL);
+        Mockito.doReturn(region).when(table).region();
+        Mockito.doReturn(frame).when(table).frame();
+        Mockito.doReturn("rt-leases").when(table).name();
+        Mockito.doReturn(aws).when(region).aws();
+        final DyLeases leases = new DyLeases(
+            // @checkstyle MagicNumber (1 line)
+            region, "me", 4, TimeUnit.HOURS.toMillis(1L)
+        );
+        leases.renew();
+        MatcherAssert.assertThat(leases.leads(), Matchers.is(true));
+        final ExecutorService service = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> renewal = service.submit(
+                () -> {
+                    leases.renew();
+                    return null;
+                }
+            );
+            int checks = 0;
+            while (!renewal.isDone()) {
+                MatcherAssert.assertThat(leases.leads(), Matchers.is(true));
+                ++checks;
+            }
+            renewal.get();
+            MatcherAssert.assertThat(checks, Matchers.greaterThan(0));
+            MatcherAssert.assertThat(leases.leads(), Matchers.is(true));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    /**
+     * Make an item of the table.
+     * @param id ID of the shard or the node
+     * @param owner Owner
+     * @param expires When it expires
+     * @return Item
+     * @throws Exception If fails
+     */
+    private static Item item(final String id, final String owner,
+        final long expires) throws Exception {
+        final Item item = Mockito.mock(Item.class);
+        Mockito.doReturn(new AttributeValue(id))
+            .when(item).get(DyLeases.HASH);
+        Mockito.doReturn(new AttributeValue(owner))
+            .when(item).get(DyLeases.ATTR_OWNER);
+        Mockito.doReturn(new AttributeValue().withN(Long.toString(expires)))
+            .when(item).get(DyLeases.ATTR_EXPIRES);
+        return item;
+    }
+
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.jcabi.log.Logger;
+import com.jcabi.matchers.XhtmlMatchers;
+import com.rultor.spi.Talk;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link DyTalk}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class DyTalkTest {
+
+    /**
+     * DyTalk can upgrade XML saved in an older format.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void upgradesLegacyXml() throws Exception {
+        MatcherAssert.assertThat(
+            DyTalk.xml(DyTalkTest.attrs(0)),
+            XhtmlMatchers.hasXPath("/talk[@public='true']")
+        );
+    }
+
+    /**
+     * DyTalk can read XML of the current format without upgrading it.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void readsCurrentXmlAsIs() throws Exception {
+        MatcherAssert.assertThat(
+            DyTalk.xml(DyTalkTest.attrs(Talk.FORMAT)),
+            Matchers.not(XhtmlMatchers.hasXPath("/talk/@public"))
+        );
+    }
+
+    /**
+     * DyTalk can read XML encoded with the codec named in the item.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void readsXmlEncodedByCodec() throws Exception {
+        final Map<String, AttributeValue> attrs = DyTalkTest.attrs(
+            Talk.FORMAT
+        );
+        attrs.remove(DyTalks.ATTR_XML);
+        attrs.put(
+            DyTalks.ATTR_XML_ZIP,
+            new AttributeValue().withB(
+                ByteBuffer.wrap(
+                    Codec.DEFLATED.encode(
+                        "<talk name='b' number='2' later='true'/>"
+                    )
+                )
+            )
+        );
+        attrs.put(
+            DyTalks.ATTR_CODEC, new AttributeValue(Codec.DEFLATED.id())
+        );
+        MatcherAssert.assertThat(
+            DyTalk.xml(attrs),
+            XhtmlMatchers.hasXPath("/talk[@name='b' and @later='true']")
+        );
+    }
+
+    /**
+     * DyTalk can read XML of the current format without validating it,
+     * while XML of older formats is validated; timings of both are
+     * logged, for comparison.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void measuresReadsOfBothFormats() throws Exception {
+        final int total = 100;
+        final long legacy = DyTalkTest.time(DyTalkTest.attrs(0), total);
+        final long current = DyTalkTest.time(
+            DyTalkTest.attrs(Talk.FORMAT), total
+        );
+        Logger.info(
+            this, "%d reads: %[nano]s in older format, %[nano]s in current",
+            total, legacy, current
+        );
+        final Map<String, AttributeValue> invalid = DyTalkTest.attrs(0);
+        invalid.put(
+            DyTalks.ATTR_XML,
+            new AttributeValue("<talk name='c' number='3'><oops/></talk>")
+        );
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> DyTalk.xml(invalid)
+        );
+        invalid.put(
+            DyTalks.ATTR_FORMAT,
+            new AttributeValue().withN(Integer.toString(Talk.FORMAT))
+        );
+        MatcherAssert.assertThat(
+            DyTalk.xml(invalid),
+            XhtmlMatchers.hasXPath("/talk/oops")
+        );
+    }
+
+    /**
+     * Read XML a few times.
+     * @param attrs Attributes of the item
+     * @param total How many times
+     * @return Nanoseconds spent
+     * @throws Exception In case of error.
+     */
+    private static long time(final Map<String, AttributeValue> attrs,
+        final int total) throws Exception {
+        final long start = System.nanoTime();
+        for (int idx = 0; idx < total; ++idx) {
+            DyTalk.xml(attrs).nodes("/talk");
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Make attributes of an item.
+     * @param format Format of the XML
+     * @return Attributes
+     */
+    private static Map<String, AttributeValue> attrs(final int format) {
+        final Map<String, AttributeValue> attrs = new HashMap<>(0);
+        attrs.put(
+            DyTalks.ATTR_XML,
+            new AttributeValue(
+                "<talk name='a' number='1' later='false'/>"
+            )
+        );
+        if (format > 0) {
+            attrs.put(
+                DyTalks.ATTR_FORMAT,
+                new AttributeValue().withN(Integer.toString(format))
+            );
+        }
+        return attrs;
+    }
+
+}
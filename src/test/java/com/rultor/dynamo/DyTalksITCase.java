@@ -30,15 +30,25 @@
 package com.rultor.dynamo;
 
 import co.stateful.mock.MkSttc;
+import com.jcabi.aspects.Tv;
 import com.jcabi.dynamo.Credentials;
 import com.jcabi.dynamo.Region;
 import com.jcabi.dynamo.retry.ReRegion;
 import com.jcabi.manifests.Manifests;
 import com.jcabi.matchers.XhtmlMatchers;
+import com.jcabi.s3.fake.FkBucket;
+import com.jcabi.xml.XML;
 import com.rultor.spi.Talk;
 import com.rultor.spi.Talks;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import org.hamcrest.CustomMatcher;
 import org.hamcrest.Description;
@@ -141,6 +151,96 @@ public final class DyTalksITCase {
         );
     }
 
+    /**
+     * DyTalks can list all active talks, page by page.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void listsActiveTalksInPages() throws Exception {
+        final Talks talks = new DyTalks(
+            DyTalksITCase.dynamo(), new MkSttc().counters().get(""), 2
+        );
+        final String repo = "paged/repo";
+        final int total = 7;
+        for (int idx = 0; idx < total; ++idx) {
+            talks.create(repo, String.format("paged/repo#%d", idx));
+        }
+        MatcherAssert.assertThat(
+            talks.active(),
+            Matchers.allOf(
+                Matchers.hasItem(new DyTalksITCase.TalkMatcher("paged/repo#0")),
+                Matchers.hasItem(new DyTalksITCase.TalkMatcher("paged/repo#6"))
+            )
+        );
+        MatcherAssert.assertThat(
+            talks.active(),
+            Matchers.iterableWithSize(Matchers.greaterThanOrEqualTo(total))
+        );
+    }
+
+    /**
+     * DyTalk can keep modifications made concurrently.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void keepsConcurrentModifications() throws Exception {
+        final Talks talks = new DyTalks(
+            DyTalksITCase.dynamo(), new MkSttc().counters().get("")
+        );
+        final String name = "yegor256/rultor#1107";
+        talks.create("a/c", name);
+        final int total = 4;
+        final ExecutorService service = Executors.newFixedThreadPool(total);
+        final Collection<Future<?>> futures = new LinkedList<>();
+        for (int idx = 0; idx < total; ++idx) {
+            final String attr = String.format("a%d", idx);
+            futures.add(
+                service.submit(
+                    () -> {
+                        talks.get(name).modify(
+                            new Directives().xpath("/talk").attr(attr, "yes")
+                        );
+                        return null;
+                    }
+                )
+            );
+        }
+        for (final Future<?> future : futures) {
+            future.get();
+        }
+        service.shutdown();
+        MatcherAssert.assertThat(
+            talks.get(name).read(),
+            XhtmlMatchers.hasXPaths(
+                "/talk[@a0 and @a1]",
+                "/talk[@a2 and @a3]"
+            )
+        );
+    }
+
+    /**
+     * DyTalks can read a few talks at once.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void readsTalksInBatch() throws Exception {
+        final Talks talks = new DyTalks(
+            DyTalksITCase.dynamo(), new MkSttc().counters().get("")
+        );
+        final String first = "yegor256/rultor#1200";
+        final String second = "yegor256/rultor#1201";
+        talks.create("a/d", first);
+        talks.create("a/d", second);
+        final Map<String, XML> bodies = talks.read(
+            Arrays.asList(talks.get(first), talks.get(second))
+        );
+        MatcherAssert.assertThat(bodies.keySet(), Matchers.hasSize(2));
+        MatcherAssert.assertThat(
+            bodies.get(second),
+            XhtmlMatchers.hasXPath("/talk[@name='yegor256/rultor#1201']")
+        );
+    }
+
     /**
      * DyTalks can list siblings.
      * @throws Exception If some problem inside
@@ -200,6 +300,127 @@ public final class DyTalksITCase {
         );
     }
 
+    /**
+     * DyTalks can list only inactive talks as recent ones.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void listsOnlyInactiveTalksAsRecent() throws Exception {
+        final Talks talks = new DyTalks(
+            DyTalksITCase.dynamo(), new MkSttc().counters().get("")
+        );
+        final String name = "yegor256/rultor#1024";
+        talks.create("a/gg", name);
+        final Talk talk = talks.get(name);
+        MatcherAssert.assertThat(
+            talks.recent(),
+            Matchers.not(Matchers.hasItem(new DyTalksITCase.TalkMatcher(name)))
+        );
+        talk.active(false);
+        MatcherAssert.assertThat(
+            talks.recent(),
+            Matchers.hasItem(new DyTalksITCase.TalkMatcher(name))
+        );
+        talk.active(true);
+        MatcherAssert.assertThat(
+            talks.recent(),
+            Matchers.not(Matchers.hasItem(new DyTalksITCase.TalkMatcher(name)))
+        );
+    }
+
+    /**
+     * DyTalks can list siblings with their summaries.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void listsSiblingsWithSummaries() throws Exception {
+        final Talks talks = new DyTalks(
+            DyTalksITCase.dynamo(), new MkSttc().counters().get("")
+        );
+        final String name = "yegor256/rultor#2048";
+        talks.create("a/hh", name);
+        talks.get(name).modify(
+            new Directives().xpath("/talk")
+                .add("wire").add("href").set("http://example.com").up()
+                .add("github-repo").set("a/hh").up()
+                .add("github-issue").set("2048").up().up()
+                .add("archive").add("log").attr("id", "f1")
+                .attr("title", "done").set("s3://test/f1.txt")
+        );
+        MatcherAssert.assertThat(
+            talks.siblings("a/hh", new Date(Long.MAX_VALUE))
+                .iterator().next().summary(),
+            XhtmlMatchers.hasXPaths(
+                "/talk[@number and @public='true']",
+                "/talk/wire[href='http://example.com']",
+                "/talk/archive/log[@id='f1' and @title='done']"
+            )
+        );
+    }
+
+    /**
+     * DyTalks can find talks by names and numbers.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void findsTalksByNamesAndNumbers() throws Exception {
+        final Talks talks = new DyTalks(
+            DyTalksITCase.dynamo(), new MkSttc().counters().get("")
+        );
+        final String name = "yegor256/rultor#4096";
+        talks.create("a/kk", name);
+        final long number = talks.find(name).get().number();
+        MatcherAssert.assertThat(
+            talks.find(number).get().name(),
+            Matchers.equalTo(name)
+        );
+        MatcherAssert.assertThat(
+            talks.named(Arrays.asList(name, "yegor256/rultor#4097"))
+                .get(name).number(),
+            Matchers.equalTo(number)
+        );
+        MatcherAssert.assertThat(
+            talks.find("yegor256/rultor#4097").isPresent(),
+            Matchers.is(false)
+        );
+    }
+
+    /**
+     * DyTalks can move an inactive talk into the vault and take it back.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void freezesAndThawsTalks() throws Exception {
+        final Region region = DyTalksITCase.dynamo();
+        final Vault vault = new Vault.S3(new FkBucket());
+        final Talks talks = new DyTalks(
+            region, new MkSttc().counters().get(""), DyTalks.PAGE, vault
+        );
+        final String name = "yegor256/rultor#8192";
+        talks.create("a/mm", name);
+        final Talk talk = talks.get(name);
+        talk.modify(
+            new Directives().xpath("/talk")
+                .add("wire").add("href").set("http://example.com").up()
+                .add("github-repo").set("a/mm").up()
+                .add("github-issue").set("8192").up()
+        );
+        talk.active(false);
+        new DyFreezer(region, vault, -Tv.THOUSAND).run();
+        MatcherAssert.assertThat(
+            talks.get(name).summary(),
+            XhtmlMatchers.hasXPath("/talk/wire[href='http://example.com']")
+        );
+        MatcherAssert.assertThat(
+            talks.get(name).read(),
+            XhtmlMatchers.hasXPath("/talk/wire[github-issue='8192']")
+        );
+        MatcherAssert.assertThat(
+            talks.active(),
+            Matchers.not(Matchers.hasItem(new DyTalksITCase.TalkMatcher(name)))
+        );
+    }
+
     /**
      * DynamoDB region for tests.
      * @return Region
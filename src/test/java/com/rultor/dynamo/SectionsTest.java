@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.jcabi.matchers.XhtmlMatchers;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import com.rultor.spi.Talk;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.xembly.Directives;
+
+/**
+ * Tests for {@link Sections}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class SectionsTest {
+
+    /**
+     * Sections can split the talk and join it back.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void splitsAndJoinsTalk() throws Exception {
+        final Sections sections = new Sections(
+            DyTalk.modified(SectionsTest.talk(), new Directives())
+        );
+        MatcherAssert.assertThat(
+            new XMLDocument(sections.text(DyTalks.ATTR_XML_ZIP)),
+            XhtmlMatchers.hasXPaths(
+                "/talk[@name='test' and @later='false']",
+                "/talk[not(wire) and not(request)]"
+            )
+        );
+        MatcherAssert.assertThat(
+            new Sections(SectionsTest.attrs(sections)).xml(),
+            XhtmlMatchers.hasXPaths(
+                "/talk[@name='test']",
+                "/talk/wire[href='http://example.com']",
+                "/talk/request[@id='1' and type='merge']",
+                "/talk/archive/log[@id='a1']"
+            )
+        );
+    }
+
+    /**
+     * Sections can find out which sections were modified.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void findsModifiedSections() throws Exception {
+        final Map<String, AttributeValue> attrs = SectionsTest.attrs(
+            new Sections(
+                DyTalk.modified(SectionsTest.talk(), new Directives())
+            )
+        );
+        MatcherAssert.assertThat(
+            new Sections(
+                DyTalk.modified(
+                    DyTalk.xml(attrs),
+                    new Directives().xpath("/talk").attr("later", "true")
+                )
+            ).changed(DyTalk.saved(attrs)),
+            Matchers.contains(DyTalks.ATTR_XML_ZIP)
+        );
+        MatcherAssert.assertThat(
+            new Sections(
+                DyTalk.modified(
+                    DyTalk.xml(attrs),
+                    new Directives().xpath("/talk/wire")
+                        .add("github-seen").set("5")
+                )
+            ).changed(DyTalk.saved(attrs)),
+            Matchers.contains("zipwire")
+        );
+        MatcherAssert.assertThat(
+            new Sections(
+                DyTalk.modified(DyTalk.xml(attrs), new Directives())
+            ).changed(DyTalk.saved(attrs)),
+            Matchers.empty()
+        );
+    }
+
+    /**
+     * Sections can find out that all of them have to be saved,
+     * if the item is in the legacy format.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void rewritesLegacyItem() throws Exception {
+        final Map<String, AttributeValue> attrs = new HashMap<>(0);
+        attrs.put(
+            DyTalks.ATTR_XML, new AttributeValue(SectionsTest.talk().toString())
+        );
+        MatcherAssert.assertThat(
+            new Sections(
+                DyTalk.modified(DyTalk.xml(attrs), new Directives())
+            ).changed(DyTalk.saved(attrs)),
+            Matchers.containsInAnyOrder(
+                DyTalks.ATTR_XML_ZIP, "zipwire", "ziprequest", "ziparchive"
+            )
+        );
+    }
+
+    /**
+     * Make attributes of an item, as if the sections were saved.
+     * @param sections Sections
+     * @return Attributes
+     * @throws Exception In case of error.
+     */
+    private static Map<String, AttributeValue> attrs(final Sections sections)
+        throws Exception {
+        final Map<String, AttributeValue> attrs = new HashMap<>(0);
+        for (final String attr : Sections.attributes()) {
+            final String text = sections.text(attr);
+            if (text != null) {
+                attrs.put(
+                    attr,
+                    new AttributeValue().withB(
+                        ByteBuffer.wrap(Codec.DEFLATED.encode(text))
+                    )
+                );
+            }
+        }
+        attrs.put(
+            DyTalks.ATTR_FORMAT,
+            new AttributeValue().withN(Integer.toString(Talk.FORMAT))
+        );
+        attrs.put(
+            DyTalks.ATTR_CODEC, new AttributeValue(Codec.DEFLATED.id())
+        );
+        return attrs;
+    }
+
+    /**
+     * Sample talk.
+     * @return XML of it
+     */
+    private static XML talk() {
+        return new XMLDocument(
+            String.join(
+                "",
+                "<talk name='test' number='1' later='false'>",
+                "<wire><href>http://example.com</href></wire>",
+                "<request id='1'><type>merge</type><args/></request>",
+                "<archive><log id='a1' title='merge'>s3://x/a1</log>",
+                "</archive></talk>"
+            )
+        );
+    }
+
+}
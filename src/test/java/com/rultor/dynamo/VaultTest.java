@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import com.jcabi.s3.fake.FkBucket;
+import com.jcabi.xml.XMLDocument;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link Vault}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class VaultTest {
+
+    /**
+     * Vault.S3 can keep a talk and give it back.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void keepsTalkInBucket() throws Exception {
+        final Vault vault = new Vault.S3(new FkBucket());
+        final String key = vault.put(
+            7L,
+            new XMLDocument(
+                String.join(
+                    "",
+                    "<talk name='a' number='7'>",
+                    "<archive><log id='x'/></archive></talk>"
+                )
+            )
+        );
+        MatcherAssert.assertThat(key, Matchers.endsWith(".deflate-1"));
+        MatcherAssert.assertThat(
+            vault.get(key),
+            XhtmlMatchers.hasXPaths(
+                "/talk[@name='a' and @number='7']",
+                "/talk/archive/log[@id='x']"
+            )
+        );
+    }
+
+    /**
+     * Vault.NONE can refuse to keep talks.
+     */
+    @Test
+    public void refusesWithoutStorage() {
+        Assertions.assertThrows(
+            IllegalStateException.class,
+            () -> Vault.NONE.get("talks/1.xml.deflate-1")
+        );
+    }
+
+}
@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.local;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.matchers.XhtmlMatchers;
+import com.rultor.spi.Talk;
+import com.rultor.spi.Talks;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.xembly.Directives;
+
+/**
+ * Tests for {@link LcTalks}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class LcTalksTest {
+
+    /**
+     * LcTalks can create a talk, find it and modify it.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void createsAndModifiesTalks() throws Exception {
+        final Talks talks = new LcTalks(
+            Files.createTempDirectory("").toFile()
+        );
+        talks.create("yegor256/rultor", "yegor256/rultor#1");
+        talks.create("yegor256/rultor", "yegor256/rultor#2");
+        final Talk talk = talks.get("yegor256/rultor#2");
+        MatcherAssert.assertThat(talk.number(), Matchers.equalTo(2L));
+        talk.modify(
+            new Directives().xpath("/talk").attr("later", "true")
+        );
+        MatcherAssert.assertThat(
+            talks.get(2L).read(),
+            XhtmlMatchers.hasXPath(
+                "/talk[@name='yegor256/rultor#2' and @later='true']"
+            )
+        );
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> talks.create("yegor256/rultor", "yegor256/rultor#1")
+        );
+    }
+
+    /**
+     * LcTalks can find talks by names and numbers.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void findsTalks() throws Exception {
+        final Talks talks = new LcTalks(
+            Files.createTempDirectory("").toFile()
+        );
+        talks.create("e/f", "e/f#1");
+        talks.create("e/f", "e/f#2");
+        MatcherAssert.assertThat(
+            talks.find(2L).get().name(),
+            Matchers.equalTo("e/f#2")
+        );
+        MatcherAssert.assertThat(
+            talks.find("e/f#3").isPresent(),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            talks.named(Arrays.asList("e/f#1", "e/f#3")).keySet(),
+            Matchers.contains("e/f#1")
+        );
+        MatcherAssert.assertThat(
+            talks.numbered(Arrays.asList(1L, 2L, 3L)).keySet(),
+            Matchers.containsInAnyOrder(1L, 2L)
+        );
+    }
+
+    /**
+     * LcTalks can reload the index from the file.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void reloadsIndex() throws Exception {
+        final File dir = Files.createTempDirectory("").toFile();
+        final Talks first = new LcTalks(dir);
+        first.create("a/b", "a/b#1");
+        first.create("a/b", "a/b#2");
+        first.create("c/d", "c/d#1");
+        first.get("a/b#1").active(false);
+        first.delete("c/d#1");
+        final Talks second = new LcTalks(dir);
+        MatcherAssert.assertThat(second.exists("a/b#2"), Matchers.is(true));
+        MatcherAssert.assertThat(second.exists("c/d#1"), Matchers.is(false));
+        MatcherAssert.assertThat(
+            new ListOf<>(second.active()),
+            Matchers.contains(second.get("a/b#2"))
+        );
+        second.create("e/f", "e/f#1");
+        MatcherAssert.assertThat(
+            second.get("e/f#1").number(), Matchers.equalTo(4L)
+        );
+    }
+
+    /**
+     * LcTalks can list siblings, newer first.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void listsSiblings() throws Exception {
+        final Talks talks = new LcTalks(
+            Files.createTempDirectory("").toFile()
+        );
+        talks.create("x/y", "x/y#1");
+        talks.create("x/y", "x/y#2");
+        talks.create("z/z", "z/z#1");
+        TimeUnit.MILLISECONDS.sleep(Tv.TEN);
+        talks.get("x/y#1").modify(
+            new Directives().xpath("/talk").attr("later", "true")
+        );
+        MatcherAssert.assertThat(
+            new ListOf<>(talks.siblings("x/y", new Date(Long.MAX_VALUE))),
+            Matchers.contains(talks.get("x/y#1"), talks.get("x/y#2"))
+        );
+        MatcherAssert.assertThat(
+            new ListOf<>(
+                talks.siblings("x/y", talks.get("x/y#1").updated())
+            ),
+            Matchers.contains(talks.get("x/y#2"))
+        );
+    }
+
+    /**
+     * LcTalks can list recent public talks without reading their XML.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void listsRecentTalksFromIndex() throws Exception {
+        final File dir = Files.createTempDirectory("").toFile();
+        final Talks talks = new LcTalks(dir);
+        talks.create("p/q", "p/q#1");
+        talks.create("p/q", "p/q#2");
+        talks.create("p/q", "p/q#3");
+        talks.get("p/q#1").modify(
+            new Directives().xpath("/talk").attr("public", "true")
+        );
+        talks.get("p/q#2").modify(
+            new Directives().xpath("/talk").attr("public", "false")
+        );
+        talks.get("p/q#3").modify(
+            new Directives().xpath("/talk").attr("public", "true")
+        );
+        talks.get("p/q#1").active(false);
+        talks.get("p/q#2").active(false);
+        for (final File xml
+            : dir.listFiles((path, name) -> name.endsWith(".xml"))) {
+            Files.delete(xml.toPath());
+        }
+        MatcherAssert.assertThat(
+            new ListOf<>(talks.recent()),
+            Matchers.contains(talks.get("p/q#1"))
+        );
+        MatcherAssert.assertThat(
+            new ListOf<>(new LcTalks(dir).recent()),
+            Matchers.hasSize(1)
+        );
+    }
+
+    /**
+     * LcTalks can take the public flag from XML, when the index has
+     * no such column yet.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void readsLegacyIndex() throws Exception {
+        final File dir = Files.createTempDirectory("").toFile();
+        final Talks first = new LcTalks(dir);
+        first.create("o/l", "o/l#1");
+        first.get("o/l#1").modify(
+            new Directives().xpath("/talk").attr("public", "true")
+        );
+        first.get("o/l#1").active(false);
+        final File index = new File(dir, "index.txt");
+        Files.write(
+            index.toPath(),
+            String.format(
+                "1\to/l#1\to/l\tfalse\t%d\n", System.currentTimeMillis()
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        MatcherAssert.assertThat(
+            new ListOf<>(new LcTalks(dir).recent()),
+            Matchers.hasSize(1)
+        );
+    }
+
+    /**
+     * LcTalks can skip the last line of the index, torn by a crash.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void skipsTornLastLineOfIndex() throws Exception {
+        final File dir = Files.createTempDirectory("").toFile();
+        final Talks first = new LcTalks(dir);
+        first.create("t/t", "t/t#1");
+        Files.write(
+            new File(dir, "index.txt").toPath(),
+            "1\tt/t#1\tt/".getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.APPEND
+        );
+        final Talks second = new LcTalks(dir);
+        MatcherAssert.assertThat(second.exists("t/t#1"), Matchers.is(true));
+        second.create("t/t", "t/t#2");
+        MatcherAssert.assertThat(
+            new LcTalks(dir).get("t/t#2").number(), Matchers.equalTo(2L)
+        );
+    }
+
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2009-2023 Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.spi;
+
+import com.jcabi.log.Logger;
+import com.jcabi.xml.XML;
+import com.rultor.Time;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.xembly.Directives;
+
+/**
+ * Tests for {@link Agent}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle LineLength (500 lines)
+ */
+public final class AgentTest {
+
+    /**
+     * Agent.Iterative can skip agents without executing them.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void skipsAgentsWithoutTouchingThem() throws Exception {
+        final Agent.Conditional agent = AgentTest.conditional(
+            "/talk/wire", "/talk/daemon"
+        );
+        final Talk talk = new Talk.InFile();
+        new Agent.Iterative(agent).execute(talk);
+        Mockito.verify(agent, Mockito.never()).execute(Mockito.any());
+    }
+
+    /**
+     * Agent.Iterative can execute agents enabled by previous ones.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void executesAgentsEnabledOnTheWay() throws Exception {
+        final Agent.Conditional agent = AgentTest.conditional("/talk/wire");
+        final Talk talk = new Talk.InFile();
+        new Agent.Iterative(
+            AgentTest.conditional("/talk/wire"),
+            tlk -> tlk.modify(
+                new Directives().xpath("/talk").add("wire")
+                    .add("href").set("#")
+            ),
+            agent
+        ).execute(talk);
+        Mockito.verify(agent).execute(talk);
+    }
+
+    /**
+     * Preconditions can understand XPath 2.0 and XSD types.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void checksXpathTwoConditions() throws Exception {
+        final Preconditions.Pass pass = new Preconditions(
+            Collections.singletonList(
+                AgentTest.conditional(
+                    // @checkstyle LineLength (1 line)
+                    "/talk[current-dateTime() > xs:dateTime('2009-01-01T00:00:00Z')]"
+                )
+            )
+        ).pass(new Talk.InFile().read());
+        MatcherAssert.assertThat(pass.ready(0), Matchers.is(true));
+    }
+
+    /**
+     * Preconditions can check a chain of agents the same way every agent
+     * checks its own conditions, as they did before; both timings are
+     * logged, for comparison.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void measuresPreconditionChecks() throws Exception {
+        final String[][] chain = {
+            {"/talk[daemon and not(shell)]"},
+            {"/talk/daemon[started and code and ended and not(dir)]"},
+            {"/talk[not(wire) and @later='true']"},
+            {"/talk[@later='true']", "/talk/wire[github-repo and github-issue]"},
+            {"/talk/request[@id and type and not(success)]", "/talk[not(daemon)]"},
+            {"/talk/shell[host and port and login and key]", "/talk/daemon[script and not(dir) and not(started)]"},
+            {"/talk/daemon[started and not(code) and not(ended)]", "/talk[(current-dateTime() - xs:dateTime(daemon/started)) div xs:dayTimeDuration('PT1M') > 7200]", "/talk/shell[host and port and login and key]"},
+            {"/talk/daemon[started and not(code) and not(ended)]", "/talk[(current-dateTime() - xs:dateTime(daemon/started)) div xs:dayTimeDuration('PT1M') > 1440]", "/talk/shell[host and port and login and key]"},
+            {"/talk/daemon[started and not(code) and not(ended)]", "/talk/daemon/dir"},
+            {"/talk/daemon[started and not(code) and not(ended)]", "/talk/daemon/dir", "/talk[(current-dateTime() - xs:dateTime(daemon/started)) div xs:dayTimeDuration('PT1M') > 180]"},
+            {"/talk/daemon[started and not(code) and not(ended)]", "/talk/daemon/dir"},
+            {"/talk/daemon[started and not(code) and not(ended)]", "/talk/daemon/dir", "/talk/request[type='stop']"},
+            {"/talk/daemon[started and not(code) and not(ended)]", "/talk/shell"},
+            {"/talk/request[type and not(success)]", "/talk/daemon[started and ended and code]"},
+            {"/talk/wire[github-repo and github-issue]", "/talk/request[@id and type='release' and success='true']"},
+            {"/talk/wire[github-repo and github-issue]", "/talk/request[@id and type='release' and success='true']"},
+            {"/talk/wire[github-repo and github-issue]", "/talk/request[@id and type='release' and success='true']"},
+            {"/talk/wire[github-repo and github-issue]", "/talk/request[@id and success]"},
+            {"/talk/shell[@id]", "/talk[not(daemon)]"},
+            {"/talk/daemon[started and code and ended and dir]", "/talk/shell"},
+            {"/talk[@public!='false']", "/talk/archive/log"},
+            {"/talk/wire[github-repo]"},
+        };
+        final List<Agent> agents = new ArrayList<>(chain.length);
+        for (final String[] xpaths : chain) {
+            agents.add(AgentTest.conditional(xpaths));
+        }
+        final Preconditions preconditions = new Preconditions(agents);
+        final XML xml = new Talk.InFile(
+            "<talk name='abc' number='1' later='true' public='true'>",
+            "<wire><href>#</href><github-repo>a/b</github-repo>",
+            "<github-issue>1</github-issue></wire>",
+            "<request id='a1b2'><author>yegor256</author>",
+            "<type>merge</type><args/></request>",
+            "<daemon id='a1b2'><title>merge</title><script>ls</script>",
+            String.format(
+                "<started>%s</started><dir>/tmp</dir></daemon>",
+                new Time(
+                    System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2L)
+                ).iso()
+            ),
+            "<shell id='c3d4'><host>localhost</host><port>22</port>",
+            "<login>rultor</login><key>...</key></shell></talk>"
+        ).read();
+        final int total = 200;
+        long legacy = 0L;
+        long current = 0L;
+        final boolean[] expected = new boolean[chain.length];
+        final boolean[] actual = new boolean[chain.length];
+        for (int idx = 0; idx < total; ++idx) {
+            long start = System.nanoTime();
+            for (int agent = 0; agent < chain.length; ++agent) {
+                expected[agent] = true;
+                for (final String xpath : chain[agent]) {
+                    if (xml.nodes(xpath).isEmpty()) {
+                        expected[agent] = false;
+                        break;
+                    }
+                }
+            }
+            legacy += System.nanoTime() - start;
+            start = System.nanoTime();
+            final Preconditions.Pass pass = preconditions.pass(xml);
+            for (int agent = 0; agent < chain.length; ++agent) {
+                actual[agent] = pass.ready(agent);
+            }
+            current += System.nanoTime() - start;
+            MatcherAssert.assertThat(
+                Arrays.toString(actual),
+                Matchers.equalTo(Arrays.toString(expected))
+            );
+        }
+        Logger.info(
+            this,
+            "%d passes through %d agents: %[nano]s checked one by one, %[nano]s by preconditions",
+            total, chain.length, legacy, current
+        );
+        MatcherAssert.assertThat(
+            "daemon started two days ago is dropped and killed, not dismounted",
+            // @checkstyle MagicNumber (1 line)
+            Arrays.asList(actual[6], actual[7], actual[9]),
+            Matchers.contains(false, true, true)
+        );
+    }
+
+    /**
+     * Make a conditional agent.
+     * @param xpaths Its conditions
+     * @return Agent
+     */
+    private static Agent.Conditional conditional(final String... xpaths) {
+        final Agent.Conditional agent = Mockito.mock(Agent.Conditional.class);
+        Mockito.doReturn(Arrays.asList(xpaths))
+            .when(agent).conditions();
+        return agent;
+    }
+
+}
@@ -67,4 +67,35 @@ public final class TalkTest {
         );
     }
 
+    /**
+     * Talk can summarize its content.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void summarizesContent() throws Exception {
+        final Talk talk = new Talk.InFile();
+        talk.modify(
+            new Directives()
+                .xpath("/talk").add("wire")
+                .add("github-repo").set("test/test").up()
+                .add("github-issue").set("123").up()
+                .add("href").set("http://example.com").up().up()
+                .add("daemon").attr("id", "abc")
+                .add("script").set("echo hello").up()
+                .add("title").set("merge").up()
+                .add("dir").set("/tmp/abc").up().up()
+                .add("archive").add("log").attr("id", "a1")
+                .attr("title", "merged").set("s3://bucket/a1.txt")
+        );
+        MatcherAssert.assertThat(
+            talk.summary(),
+            XhtmlMatchers.hasXPaths(
+                "/talk[@name='test' and @number='1' and @public='true']",
+                "/talk/wire[href='http://example.com' and not(github-repo)]",
+                "/talk/archive/log[@id='a1' and @title='merged']",
+                "/talk[not(daemon)]"
+            )
+        );
+    }
+
 }